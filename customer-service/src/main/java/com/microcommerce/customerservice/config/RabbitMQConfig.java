@@ -0,0 +1,26 @@
+package com.microcommerce.customerservice.config;
+
+import org.springframework.amqp.core.TopicExchange;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class RabbitMQConfig {
+
+    // Customer lifecycle notifications, consumed by order-service's existence cache
+    public static final String CUSTOMER_EXCHANGE = "customer_exchange";
+    public static final String CUSTOMER_CREATED_ROUTING_KEY = "customer.created";
+    public static final String CUSTOMER_DELETED_ROUTING_KEY = "customer.deleted";
+
+    @Bean
+    public TopicExchange customerExchange() {
+        return new TopicExchange(CUSTOMER_EXCHANGE);
+    }
+
+    @Bean
+    public MessageConverter jsonMessageConverter() {
+        return new Jackson2JsonMessageConverter();
+    }
+}
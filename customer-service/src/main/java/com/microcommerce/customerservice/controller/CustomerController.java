@@ -1,12 +1,20 @@
 package com.microcommerce.customerservice.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.microcommerce.customerservice.model.Customer;
+import com.microcommerce.customerservice.service.CustomerBulkImporter;
 import com.microcommerce.customerservice.service.CustomerService;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 
 @RestController
@@ -14,11 +22,84 @@ import java.util.List;
 @RequiredArgsConstructor
 public class CustomerController {
 
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     private final CustomerService customerService;
+    private final CustomerBulkImporter customerBulkImporter;
+    private final ObjectMapper objectMapper;
+
+    @Value("${customer.page.default-size:100}")
+    private int defaultPageSize;
+
+    @Value("${customer.page.max-size:1000}")
+    private int maxPageSize;
+
+    @Value("${customer.ids.max-page-size:10000}")
+    private int maxIdPageSize;
 
+    /**
+     * One page of customers in id order. When the page is full, the id to pass as {@code afterId}
+     * for the next page is returned in the {@code X-Next-Cursor} header.
+     */
     @GetMapping
-    public List<Customer> getAllCustomers() {
-        return customerService.getAllCustomers();
+    public ResponseEntity<List<Customer>> getCustomers(@RequestParam(defaultValue = "0") long afterId,
+                                                       @RequestParam(required = false) Integer limit) {
+        int pageSize = limit == null ? defaultPageSize : limit;
+        if (pageSize < 1 || pageSize > maxPageSize) {
+            return ResponseEntity.badRequest().build();
+        }
+        List<Customer> customers = customerService.getCustomers(afterId, pageSize);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (customers.size() == pageSize) {
+            response.header(NEXT_CURSOR_HEADER, String.valueOf(customers.get(customers.size() - 1).getId()));
+        }
+        return response.body(customers);
+    }
+
+    /**
+     * Every customer as newline-delimited JSON, read through a database cursor and written as it
+     * is read.
+     */
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportCustomers() {
+        StreamingResponseBody body = out -> customerService.forEachCustomer(customer -> {
+            try {
+                out.write(objectMapper.writeValueAsBytes(customer));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    /**
+     * One page of customer ids in order, read by order-service to build its existence filter.
+     * Paged like {@link #getCustomers}, with larger pages since only ids are returned.
+     */
+    @GetMapping("/ids")
+    public ResponseEntity<List<Long>> getCustomerIds(@RequestParam(defaultValue = "0") long afterId,
+                                                     @RequestParam(required = false) Integer limit) {
+        int pageSize = limit == null ? maxIdPageSize : limit;
+        if (pageSize < 1 || pageSize > maxIdPageSize) {
+            return ResponseEntity.badRequest().build();
+        }
+        List<Long> ids = customerService.getCustomerIds(afterId, pageSize);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (ids.size() == pageSize) {
+            response.header(NEXT_CURSOR_HEADER, String.valueOf(ids.get(ids.size() - 1)));
+        }
+        return response.body(ids);
+    }
+
+    /**
+     * Lightweight existence check: 200 or 404 without loading or serializing the customer.
+     */
+    @RequestMapping(value = "/{id}", method = RequestMethod.HEAD)
+    public ResponseEntity<Void> customerExists(@PathVariable Long id) {
+        return customerService.customerExists(id)
+                ? ResponseEntity.ok().build()
+                : ResponseEntity.notFound().build();
     }
 
     @GetMapping("/{id}")
@@ -34,6 +115,28 @@ public class CustomerController {
         return customerService.createCustomer(customer);
     }
 
+    /**
+     * Bulk create from a JSON array or NDJSON body of any size. Records are validated and inserted
+     * in chunks; one result per record is streamed back as NDJSON while the body is still being read.
+     */
+    @PostMapping(value = "/bulk",
+            consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE},
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> createCustomers(HttpServletRequest request) {
+        StreamingResponseBody body = out -> {
+            customerBulkImporter.importCustomers(request.getInputStream(), result -> {
+                try {
+                    out.write(objectMapper.writeValueAsBytes(result));
+                    out.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            out.flush();
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<Customer> updateCustomer(@PathVariable Long id, @RequestBody Customer customerDetails) {
         try {
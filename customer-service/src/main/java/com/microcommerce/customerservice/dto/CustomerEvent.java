@@ -0,0 +1,19 @@
+package com.microcommerce.customerservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CustomerEvent {
+
+    public enum Type { CREATED, DELETED }
+
+    private Long customerId;
+    private Type type;
+    private Instant occurredAt;
+}
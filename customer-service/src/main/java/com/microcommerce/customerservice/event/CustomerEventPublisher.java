@@ -0,0 +1,42 @@
+package com.microcommerce.customerservice.event;
+
+import com.microcommerce.customerservice.config.RabbitMQConfig;
+import com.microcommerce.customerservice.dto.CustomerEvent;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+
+/**
+ * Announces customer creation and deletion so order-service can keep its existence cache warm.
+ * Publishing is best effort: order-service falls back to an existence check and periodically
+ * rebuilds its filter from a full id snapshot.
+ */
+@Component
+@RequiredArgsConstructor
+public class CustomerEventPublisher {
+
+    private static final Logger log = LoggerFactory.getLogger(CustomerEventPublisher.class);
+
+    private final RabbitTemplate rabbitTemplate;
+
+    public void customerCreated(Long customerId) {
+        publish(new CustomerEvent(customerId, CustomerEvent.Type.CREATED, Instant.now()), RabbitMQConfig.CUSTOMER_CREATED_ROUTING_KEY);
+    }
+
+    public void customerDeleted(Long customerId) {
+        publish(new CustomerEvent(customerId, CustomerEvent.Type.DELETED, Instant.now()), RabbitMQConfig.CUSTOMER_DELETED_ROUTING_KEY);
+    }
+
+    private void publish(CustomerEvent event, String routingKey) {
+        try {
+            rabbitTemplate.convertAndSend(RabbitMQConfig.CUSTOMER_EXCHANGE, routingKey, event);
+        } catch (AmqpException e) {
+            log.warn("Could not publish {} event for customer {}", event.getType(), event.getCustomerId(), e);
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.microcommerce.customerservice.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microcommerce.customerservice.dto.BulkResult;
+import com.microcommerce.customerservice.event.CustomerEventPublisher;
+import com.microcommerce.customerservice.model.Customer;
+import com.microcommerce.customerservice.repository.CustomerRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Streams customers out of a JSON array or NDJSON body and inserts them in chunks, each chunk in
+ * its own transaction. Only one chunk is held in memory, so the body can be arbitrarily large.
+ */
+@Service
+public class CustomerBulkImporter {
+
+    private static final Logger log = LoggerFactory.getLogger(CustomerBulkImporter.class);
+
+    private record Pending(long index, Customer customer) {
+    }
+
+    private final CustomerRepository customerRepository;
+    private final CustomerEventPublisher customerEventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final int chunkSize;
+
+    public CustomerBulkImporter(CustomerRepository customerRepository,
+                                CustomerEventPublisher customerEventPublisher,
+                                TransactionTemplate transactionTemplate,
+                                ObjectMapper objectMapper,
+                                @Value("${customer.import.chunk-size:500}") int chunkSize) {
+        this.customerRepository = customerRepository;
+        this.customerEventPublisher = customerEventPublisher;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Imports every record of {@code body}, reporting one result per record to {@code results}
+     * in input order. Results for a chunk are reported once that chunk has been committed.
+     */
+    public void importCustomers(InputStream body, Consumer<BulkResult> results) throws IOException {
+        List<Pending> chunk = new ArrayList<>(chunkSize);
+        List<BulkResult> chunkResults = new ArrayList<>(chunkSize);
+        long index = 0;
+        try (MappingIterator<Customer> records = objectMapper.readerFor(Customer.class).readValues(body)) {
+            while (true) {
+                Customer customer;
+                try {
+                    if (!records.hasNextValue()) {
+                        break;
+                    }
+                    customer = records.nextValue();
+                } catch (JsonMappingException e) {
+                    // The record was well-formed JSON but not a customer; the iterator can skip it
+                    chunkResults.add(BulkResult.rejected(index++, e.getOriginalMessage()));
+                    continue;
+                } catch (JsonProcessingException e) {
+                    // Malformed JSON: nothing after this point can be parsed reliably
+                    flush(chunk, chunkResults, results);
+                    results.accept(BulkResult.rejected(index, "Malformed JSON: " + e.getOriginalMessage()));
+                    return;
+                }
+
+                String error = validate(customer);
+                if (error != null) {
+                    chunkResults.add(BulkResult.rejected(index++, error));
+                } else {
+                    chunk.add(new Pending(index++, customer));
+                }
+                if (chunk.size() == chunkSize) {
+                    flush(chunk, chunkResults, results);
+                }
+            }
+        }
+        flush(chunk, chunkResults, results);
+    }
+
+    private void flush(List<Pending> chunk, List<BulkResult> chunkResults, Consumer<BulkResult> results) {
+        if (!chunk.isEmpty()) {
+            chunkResults.addAll(insert(chunk));
+        }
+        chunkResults.sort((a, b) -> Long.compare(a.getIndex(), b.getIndex()));
+        chunkResults.forEach(results);
+        chunk.clear();
+        chunkResults.clear();
+    }
+
+    private List<BulkResult> insert(List<Pending> chunk) {
+        try {
+            List<BulkResult> created = transactionTemplate.execute(status -> {
+                customerRepository.saveAll(chunk.stream().map(Pending::customer).toList());
+                return chunk.stream().map(p -> BulkResult.created(p.index(), p.customer().getId())).toList();
+            });
+            // After commit, so order-service never learns about ids that were rolled back
+            created.forEach(result -> customerEventPublisher.customerCreated(result.getId()));
+            return created;
+        } catch (RuntimeException e) {
+            log.warn("Bulk insert of {} customers failed, retrying them one by one", chunk.size(), e);
+        }
+        // Isolate the offending records so the rest of the chunk still goes in
+        List<BulkResult> results = new ArrayList<>(chunk.size());
+        for (Pending pending : chunk) {
+            Customer customer = pending.customer();
+            customer.setId(null);
+            try {
+                Customer saved = transactionTemplate.execute(status -> customerRepository.save(customer));
+                customerEventPublisher.customerCreated(saved.getId());
+                results.add(BulkResult.created(pending.index(), saved.getId()));
+            } catch (RuntimeException e) {
+                results.add(BulkResult.failed(pending.index(), e.getMessage()));
+            }
+        }
+        return results;
+    }
+
+    private String validate(Customer customer) {
+        if (customer == null) {
+            return "Record is null";
+        }
+        if (customer.getId() != null) {
+            return "id must not be set";
+        }
+        if (customer.getFirstName() == null || customer.getFirstName().isBlank()) {
+            return "firstName is required";
+        }
+        if (customer.getLastName() == null || customer.getLastName().isBlank()) {
+            return "lastName is required";
+        }
+        if (customer.getEmail() == null || !customer.getEmail().contains("@")) {
+            return "email must be a valid address";
+        }
+        return null;
+    }
+}
@@ -4,10 +4,14 @@ import com.microcommerce.customerservice.model.Customer;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface CustomerService {
-    List<Customer> getAllCustomers();
+    List<Customer> getCustomers(long afterId, int limit);
+    void forEachCustomer(Consumer<Customer> action);
     Optional<Customer> getCustomerById(Long id);
+    boolean customerExists(Long id);
+    List<Long> getCustomerIds(long afterId, int limit);
     Customer createCustomer(Customer customer);
     Customer updateCustomer(Long id, Customer customerDetails);
     void deleteCustomer(Long id);
@@ -1,22 +1,42 @@
 package com.microcommerce.customerservice.service;
 
+import com.microcommerce.customerservice.event.CustomerEventPublisher;
 import com.microcommerce.customerservice.model.Customer;
 import com.microcommerce.customerservice.repository.CustomerRepository;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class CustomerServiceImpl implements CustomerService {
 
     private final CustomerRepository customerRepository;
+    private final CustomerEventPublisher customerEventPublisher;
+    private final EntityManager entityManager;
 
     @Override
-    public List<Customer> getAllCustomers() {
-        return customerRepository.findAll();
+    public List<Customer> getCustomers(long afterId, int limit) {
+        return customerRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(limit));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void forEachCustomer(Consumer<Customer> action) {
+        try (Stream<Customer> customers = customerRepository.streamAll()) {
+            customers.forEach(customer -> {
+                action.accept(customer);
+                // Keep the persistence context from growing with the table
+                entityManager.detach(customer);
+            });
+        }
     }
 
     @Override
@@ -24,9 +44,21 @@ public class CustomerServiceImpl implements CustomerService {
         return customerRepository.findById(id);
     }
 
+    @Override
+    public boolean customerExists(Long id) {
+        return customerRepository.existsById(id);
+    }
+
+    @Override
+    public List<Long> getCustomerIds(long afterId, int limit) {
+        return customerRepository.findIdsAfter(afterId, Limit.of(limit));
+    }
+
     @Override
     public Customer createCustomer(Customer customer) {
-        return customerRepository.save(customer);
+        Customer saved = customerRepository.save(customer);
+        customerEventPublisher.customerCreated(saved.getId());
+        return saved;
     }
 
     @Override
@@ -41,5 +73,6 @@ public class CustomerServiceImpl implements CustomerService {
     @Override
     public void deleteCustomer(Long id) {
         customerRepository.deleteById(id);
+        customerEventPublisher.customerDeleted(id);
     }
 }
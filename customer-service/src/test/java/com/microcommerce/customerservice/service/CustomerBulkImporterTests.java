@@ -0,0 +1,136 @@
+package com.microcommerce.customerservice.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microcommerce.customerservice.dto.BulkResult;
+import com.microcommerce.customerservice.event.CustomerEventPublisher;
+import com.microcommerce.customerservice.model.Customer;
+import com.microcommerce.customerservice.repository.CustomerRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Imports small bodies three records per chunk, so chunk boundaries and the one-by-one retry of a
+ * failed chunk are exercised.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:customerimport;MODE=PostgreSQL;LOCK_TIMEOUT=30000",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.rabbitmq.listener.simple.auto-startup=false"
+})
+class CustomerBulkImporterTests {
+
+    // Longer than the column, so the insert fails in the database rather than in validation
+    private static final String TOO_LONG = "x".repeat(300);
+
+    @MockBean
+    private CustomerEventPublisher customerEventPublisher;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void jsonArrayIsInsertedInChunksAndInvalidRecordsAreRejected() throws IOException {
+        String body = "[" + String.join(",",
+                customer("array-0"),
+                customer("array-1"),
+                "{\"firstName\":\"array-2\",\"lastName\":\"Doe\",\"email\":\"not an address\"}",
+                customer("array-3"),
+                "{\"firstName\":[\"array-4\"],\"lastName\":\"Doe\",\"email\":\"a@example.com\"}",
+                customer("array-5"),
+                customer("array-6")) + "]";
+
+        List<BulkResult> results = importBody(body);
+
+        assertThat(results).extracting(BulkResult::getIndex).containsExactly(0L, 1L, 2L, 3L, 4L, 5L, 6L);
+        assertThat(results).extracting(BulkResult::getStatus).containsExactly(
+                BulkResult.Status.CREATED, BulkResult.Status.CREATED, BulkResult.Status.REJECTED,
+                BulkResult.Status.CREATED, BulkResult.Status.REJECTED, BulkResult.Status.CREATED,
+                BulkResult.Status.CREATED);
+        assertThat(results.get(2).getError()).isEqualTo("email must be a valid address");
+        assertThat(firstNamesStartingWith("array-")).containsExactlyInAnyOrder(
+                "array-0", "array-1", "array-3", "array-5", "array-6");
+        for (BulkResult result : results) {
+            if (result.getStatus() == BulkResult.Status.CREATED) {
+                verify(customerEventPublisher).customerCreated(result.getId());
+            }
+        }
+    }
+
+    @Test
+    void failedChunkIsRetriedRecordByRecord() throws IOException {
+        // The second chunk (records 3 to 5) fails as a whole because of record 4
+        String body = String.join("\n",
+                customer("ndjson-0"),
+                customer("ndjson-1"),
+                customer("ndjson-2"),
+                customer("ndjson-3"),
+                customer(TOO_LONG),
+                customer("ndjson-5"),
+                customer("ndjson-6")) + "\n";
+
+        List<BulkResult> results = importBody(body);
+
+        assertThat(results).extracting(BulkResult::getStatus).containsExactly(
+                BulkResult.Status.CREATED, BulkResult.Status.CREATED, BulkResult.Status.CREATED,
+                BulkResult.Status.CREATED, BulkResult.Status.FAILED, BulkResult.Status.CREATED,
+                BulkResult.Status.CREATED);
+        // Records of the failed chunk go in once each, under fresh ids
+        assertThat(firstNamesStartingWith("ndjson-")).containsExactlyInAnyOrder(
+                "ndjson-0", "ndjson-1", "ndjson-2", "ndjson-3", "ndjson-5", "ndjson-6");
+        assertThat(customerRepository.findById(results.get(3).getId()).orElseThrow().getFirstName()).isEqualTo("ndjson-3");
+        assertThat(customerRepository.findById(results.get(5).getId()).orElseThrow().getFirstName()).isEqualTo("ndjson-5");
+        // Only committed ids are announced; the ids the failed chunk was given are not
+        verify(customerEventPublisher, times(6)).customerCreated(anyLong());
+    }
+
+    @Test
+    void malformedJsonStopsTheImportAfterCommittingWhatCameBefore() throws IOException {
+        String body = customer("malformed-0") + "\n" + customer("malformed-1") + "\n{\"firstName\": \n";
+
+        List<BulkResult> results = importBody(body);
+
+        assertThat(results).extracting(BulkResult::getStatus).containsExactly(
+                BulkResult.Status.CREATED, BulkResult.Status.CREATED, BulkResult.Status.REJECTED);
+        assertThat(results.get(2).getError()).startsWith("Malformed JSON");
+        assertThat(firstNamesStartingWith("malformed-")).containsExactlyInAnyOrder("malformed-0", "malformed-1");
+    }
+
+    private List<BulkResult> importBody(String body) throws IOException {
+        CustomerBulkImporter importer = new CustomerBulkImporter(customerRepository, customerEventPublisher,
+                transactionTemplate, objectMapper, 3);
+        List<BulkResult> results = new ArrayList<>();
+        importer.importCustomers(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), results::add);
+        return results;
+    }
+
+    private List<String> firstNamesStartingWith(String prefix) {
+        return customerRepository.findAll().stream()
+                .map(Customer::getFirstName)
+                .filter(firstName -> firstName.startsWith(prefix))
+                .toList();
+    }
+
+    private static String customer(String firstName) {
+        return "{\"firstName\":\"" + firstName + "\",\"lastName\":\"Doe\",\"email\":\"" + firstName.length() + "@example.com\"}";
+    }
+}
@@ -35,11 +35,19 @@ document.addEventListener('DOMContentLoaded', () => {
     }
 
     // --- Data Fetching ---
+    // List endpoints are paginated; follow the X-Next-Cursor header until the last page
     async function fetchData(endpoint) {
         try {
-            const response = await fetch(`${API_URL}/${endpoint}`, { headers: { 'Authorization': `Basic ${AUTH_TOKEN}` } });
-            if (!response.ok) throw new Error(`HTTP error! status: ${response.status}`);
-            return await response.json();
+            const items = [];
+            let cursor = null;
+            do {
+                const query = cursor ? `?afterId=${cursor}` : '';
+                const response = await fetch(`${API_URL}/${endpoint}${query}`, { headers: { 'Authorization': `Basic ${AUTH_TOKEN}` } });
+                if (!response.ok) throw new Error(`HTTP error! status: ${response.status}`);
+                items.push(...await response.json());
+                cursor = response.headers.get('X-Next-Cursor');
+            } while (cursor);
+            return items;
         } catch (error) {
             console.error(`Failed to fetch ${endpoint}:`, error);
             showStatus(`Error fetching ${endpoint}: ${error.message}`, true);
@@ -0,0 +1,140 @@
+package com.microcommerce.gatewayservice.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.microcommerce.gatewayservice.support.RequestCredentials;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Size-bounded store of product-service GET responses, kept per caller credential and dropped
+ * when product-service announces a change. Entries for one product ({@code /products/{id}}) are
+ * dropped by events for that product; every other entry (listings, batch lookups) is dropped by
+ * any product event, since a change to one product can change any page it appears on.
+ */
+@Component
+public class ProductResponseCache {
+
+    private static final Pattern PRODUCT_PATH = Pattern.compile(".*/products/(\\d+)/?");
+    private static final int GENERATION_STRIPES = 1024;
+
+    public record Key(String path, String query, String principal, Long productId) {
+    }
+
+    public record Entry(HttpHeaders headers, byte[] body, String eTag) {
+    }
+
+    private final boolean enabled;
+    private final long maxEntryBytes;
+    private final Cache<Key, Entry> entries;
+
+    // Bumped before each invalidation; a response is only stored if nothing relevant was
+    // invalidated while it was being fetched, so a slow read cannot re-cache stale data
+    private final AtomicLongArray productGenerations = new AtomicLongArray(GENERATION_STRIPES);
+    private final AtomicLong listingGeneration = new AtomicLong();
+
+    public ProductResponseCache(@Value("${gateway.response-cache.enabled:false}") boolean enabled,
+                                @Value("${gateway.response-cache.max-size:64MB}") DataSize maxSize,
+                                @Value("${gateway.response-cache.max-entry-size:1MB}") DataSize maxEntrySize,
+                                @Value("${gateway.response-cache.ttl:10m}") Duration ttl) {
+        this.enabled = enabled;
+        this.maxEntryBytes = maxEntrySize.toBytes();
+        this.entries = Caffeine.newBuilder()
+                .maximumWeight(maxSize.toBytes())
+                .weigher((Key key, Entry entry) -> entry.body().length + 512)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public boolean fits(long bytes) {
+        return bytes <= maxEntryBytes;
+    }
+
+    public Key keyFor(ServerHttpRequest request) {
+        String path = request.getPath().value();
+        Matcher matcher = PRODUCT_PATH.matcher(path);
+        Long productId = matcher.matches() ? Long.valueOf(matcher.group(1)) : null;
+        // Responses are only shared between requests presenting the same credential
+        String principal = RequestCredentials.digest(request).orElse("");
+        return new Key(path, request.getURI().getRawQuery(), principal, productId);
+    }
+
+    public Entry get(Key key) {
+        return entries.getIfPresent(key);
+    }
+
+    public long generation(Key key) {
+        return key.productId() == null
+                ? listingGeneration.get()
+                : productGenerations.get(stripe(key.productId()));
+    }
+
+    /**
+     * Stores a 200 response unless an invalidation for it happened after {@code generation} was read.
+     */
+    public void put(Key key, long generation, HttpHeaders headers, byte[] body) {
+        Entry entry = new Entry(HttpHeaders.readOnlyHttpHeaders(copyOf(headers)), body, headers.getETag());
+        entries.asMap().compute(key, (k, existing) -> generation(k) == generation ? entry : existing);
+    }
+
+    public void invalidateProduct(long productId) {
+        productGenerations.incrementAndGet(stripe(productId));
+        listingGeneration.incrementAndGet();
+        entries.asMap().keySet().removeIf(key -> key.productId() == null || key.productId() == productId);
+    }
+
+    public void invalidateAll() {
+        for (int i = 0; i < GENERATION_STRIPES; i++) {
+            productGenerations.incrementAndGet(i);
+        }
+        listingGeneration.incrementAndGet();
+        entries.invalidateAll();
+    }
+
+    /**
+     * True if the client's {@code If-None-Match} names {@code eTag}, compared weakly as RFC 9110
+     * requires for GET.
+     */
+    public static boolean matches(List<String> ifNoneMatch, String eTag) {
+        if (eTag == null) {
+            return false;
+        }
+        String opaque = stripWeak(eTag);
+        for (String tag : ifNoneMatch) {
+            if (tag.equals("*") || stripWeak(tag).equals(opaque)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String stripWeak(String tag) {
+        return tag.startsWith("W/") ? tag.substring(2) : tag;
+    }
+
+    private static HttpHeaders copyOf(HttpHeaders headers) {
+        HttpHeaders copy = new HttpHeaders();
+        copy.putAll(headers);
+        copy.remove(HttpHeaders.TRANSFER_ENCODING);
+        copy.remove(HttpHeaders.CONTENT_LENGTH);
+        return copy;
+    }
+
+    private static int stripe(long productId) {
+        return (int) Math.floorMod(productId, (long) GENERATION_STRIPES);
+    }
+}
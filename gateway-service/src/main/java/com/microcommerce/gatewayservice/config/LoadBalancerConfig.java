@@ -0,0 +1,16 @@
+package com.microcommerce.gatewayservice.config;
+
+import com.microcommerce.gatewayservice.loadbalancer.PolicyLoadBalancerConfiguration;
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * {@code lb://<service>} routes are balanced over the instances listed under
+ * {@code spring.cloud.discovery.client.simple.instances.<service>}.
+ * <p>
+ * order-service has an identical copy; the services share no library, so change both.
+ */
+@Configuration
+@LoadBalancerClients(defaultConfiguration = PolicyLoadBalancerConfiguration.class)
+public class LoadBalancerConfig {
+}
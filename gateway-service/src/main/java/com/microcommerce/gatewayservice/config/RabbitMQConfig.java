@@ -0,0 +1,54 @@
+package com.microcommerce.gatewayservice.config;
+
+import com.microcommerce.gatewayservice.cache.ProductResponseCache;
+import org.springframework.amqp.core.AnonymousQueue;
+import org.springframework.amqp.core.Binding;
+import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.core.TopicExchange;
+import org.springframework.amqp.rabbit.connection.CachingConnectionFactory;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Product change notifications for the response cache. Only set up when the cache is enabled.
+ */
+@Configuration
+@ConditionalOnProperty(name = "gateway.response-cache.enabled", havingValue = "true")
+public class RabbitMQConfig {
+
+    // Published by product-service; every product event, stock changes included
+    public static final String PRODUCT_EXCHANGE = "product_exchange";
+    public static final String PRODUCT_EVENTS_ROUTING_KEY = "product.#";
+
+    public RabbitMQConfig(CachingConnectionFactory connectionFactory, ProductResponseCache cache) {
+        // Events may have been missed while disconnected, so start over on every (re)connect
+        connectionFactory.addConnectionListener(connection -> cache.invalidateAll());
+    }
+
+    @Bean
+    public TopicExchange productExchange() {
+        return new TopicExchange(PRODUCT_EXCHANGE);
+    }
+
+    /**
+     * Each gateway instance has its own cache, so each gets its own server-named, auto-delete queue.
+     */
+    @Bean
+    public Queue productEventsQueue() {
+        return new AnonymousQueue();
+    }
+
+    @Bean
+    public Binding productEventsBinding() {
+        return BindingBuilder.bind(productEventsQueue()).to(productExchange()).with(PRODUCT_EVENTS_ROUTING_KEY);
+    }
+
+    @Bean
+    public MessageConverter jsonMessageConverter() {
+        return new Jackson2JsonMessageConverter();
+    }
+}
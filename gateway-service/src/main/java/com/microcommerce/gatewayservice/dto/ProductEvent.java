@@ -0,0 +1,27 @@
+package com.microcommerce.gatewayservice.dto;
+
+/**
+ * The part of product-service's change notification the gateway needs. The type is kept as a
+ * string so new event types do not break deserialization here.
+ */
+public class ProductEvent {
+
+    private Long productId;
+    private String type;
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+}
@@ -0,0 +1,81 @@
+package com.microcommerce.gatewayservice.filter;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@code ConcurrencyLimit=<max-in-flight>} route filter. Caps the requests of one route that are
+ * in flight to its backend; anything above the cap is answered with 429 at once instead of
+ * queueing behind a saturated service. Rejections are counted as
+ * {@code gateway.requests.rejected{reason=concurrency}}, and {@code gateway.requests.in_flight}
+ * tracks the current count per route.
+ */
+@Component
+public class ConcurrencyLimitGatewayFilterFactory
+        extends AbstractGatewayFilterFactory<ConcurrencyLimitGatewayFilterFactory.Config> {
+
+    public static class Config {
+
+        private int maxInFlight = 100;
+
+        public int getMaxInFlight() {
+            return maxInFlight;
+        }
+
+        public void setMaxInFlight(int maxInFlight) {
+            this.maxInFlight = maxInFlight;
+        }
+    }
+
+    private final MeterRegistry meterRegistry;
+
+    public ConcurrencyLimitGatewayFilterFactory(MeterRegistry meterRegistry) {
+        super(Config.class);
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return List.of("maxInFlight");
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        // One counter per route: apply() is called once for each route using the filter
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicBoolean gaugeRegistered = new AtomicBoolean();
+        return (exchange, chain) -> {
+            String routeId = routeId(exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR));
+            if (gaugeRegistered.compareAndSet(false, true)) {
+                Gauge.builder("gateway.requests.in_flight", inFlight, AtomicInteger::get)
+                        .tag("route", routeId)
+                        .register(meterRegistry);
+            }
+            if (inFlight.incrementAndGet() > config.getMaxInFlight()) {
+                inFlight.decrementAndGet();
+                meterRegistry.counter("gateway.requests.rejected", "route", routeId, "reason", "concurrency").increment();
+                ServerHttpResponse response = exchange.getResponse();
+                response.setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+                response.getHeaders().set(HttpHeaders.RETRY_AFTER, "1");
+                return response.setComplete();
+            }
+            return chain.filter(exchange).doFinally(signal -> inFlight.decrementAndGet());
+        };
+    }
+
+    private static String routeId(Route route) {
+        return route == null ? "unknown" : route.getId();
+    }
+}
@@ -0,0 +1,130 @@
+package com.microcommerce.gatewayservice.filter;
+
+import com.microcommerce.gatewayservice.cache.ProductResponseCache;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * {@code ProductResponseCache} route filter. Serves repeated product GETs from
+ * {@link ProductResponseCache} without calling product-service, and answers
+ * {@code If-None-Match} itself with a 304 when the cached ETag still matches. Only 200 JSON
+ * responses that carry an ETag are cached.
+ */
+@Component
+public class ProductResponseCacheGatewayFilterFactory extends AbstractGatewayFilterFactory<Object> {
+
+    private static final String CACHE_HEADER = "X-Cache";
+
+    private final ProductResponseCache cache;
+
+    public ProductResponseCacheGatewayFilterFactory(ProductResponseCache cache) {
+        super(Object.class);
+        this.cache = cache;
+    }
+
+    @Override
+    public GatewayFilter apply(Object config) {
+        // Must wrap the response before NettyWriteResponseFilter picks it up
+        return new OrderedGatewayFilter((exchange, chain) -> {
+            ServerHttpRequest request = exchange.getRequest();
+            if (!cache.isEnabled() || request.getMethod() != HttpMethod.GET) {
+                return chain.filter(exchange);
+            }
+            ProductResponseCache.Key key = cache.keyFor(request);
+            List<String> ifNoneMatch = request.getHeaders().getIfNoneMatch();
+            ProductResponseCache.Entry cached = cache.get(key);
+            if (cached != null) {
+                return cached(exchange.getResponse(), cached, ifNoneMatch);
+            }
+
+            // Always fetch the full body so it can be cached; the client's condition is
+            // evaluated here against whatever comes back
+            long generation = cache.generation(key);
+            ServerHttpRequest unconditional = request.mutate()
+                    .headers(headers -> headers.remove(HttpHeaders.IF_NONE_MATCH))
+                    .build();
+            ServerHttpResponse response = new CapturingResponse(exchange.getResponse(), key, generation, ifNoneMatch);
+            return chain.filter(exchange.mutate().request(unconditional).response(response).build());
+        }, NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1);
+    }
+
+    private Mono<Void> cached(ServerHttpResponse response, ProductResponseCache.Entry entry, List<String> ifNoneMatch) {
+        response.getHeaders().putAll(entry.headers());
+        response.getHeaders().set(CACHE_HEADER, "HIT");
+        if (ProductResponseCache.matches(ifNoneMatch, entry.eTag())) {
+            response.setStatusCode(HttpStatus.NOT_MODIFIED);
+            response.getHeaders().remove(HttpHeaders.CONTENT_TYPE);
+            return response.setComplete();
+        }
+        response.setStatusCode(HttpStatus.OK);
+        response.getHeaders().setContentLength(entry.body().length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(entry.body())));
+    }
+
+    private class CapturingResponse extends ServerHttpResponseDecorator {
+
+        private final ProductResponseCache.Key key;
+        private final long generation;
+        private final List<String> ifNoneMatch;
+
+        CapturingResponse(ServerHttpResponse delegate, ProductResponseCache.Key key, long generation,
+                          List<String> ifNoneMatch) {
+            super(delegate);
+            this.key = key;
+            this.generation = generation;
+            this.ifNoneMatch = ifNoneMatch;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            HttpHeaders headers = getHeaders();
+            if (!cacheable(headers)) {
+                return super.writeWith(body);
+            }
+            return DataBufferUtils.join(Flux.from(body)).flatMap(joined -> {
+                byte[] bytes = new byte[joined.readableByteCount()];
+                joined.read(bytes);
+                DataBufferUtils.release(joined);
+                if (cache.fits(bytes.length)) {
+                    cache.put(key, generation, headers, bytes);
+                }
+                headers.set(CACHE_HEADER, "MISS");
+                if (ProductResponseCache.matches(ifNoneMatch, headers.getETag())) {
+                    setStatusCode(HttpStatus.NOT_MODIFIED);
+                    headers.remove(HttpHeaders.CONTENT_TYPE);
+                    headers.remove(HttpHeaders.CONTENT_LENGTH);
+                    headers.remove(HttpHeaders.TRANSFER_ENCODING);
+                    return setComplete();
+                }
+                return super.writeWith(Mono.just(bufferFactory().wrap(bytes)));
+            });
+        }
+
+        private boolean cacheable(HttpHeaders headers) {
+            MediaType contentType = headers.getContentType();
+            long contentLength = headers.getContentLength();
+            return HttpStatus.OK.equals(getStatusCode())
+                    && headers.getETag() != null
+                    && contentType != null && MediaType.APPLICATION_JSON.isCompatibleWith(contentType)
+                    && (contentLength < 0 || cache.fits(contentLength));
+        }
+    }
+}
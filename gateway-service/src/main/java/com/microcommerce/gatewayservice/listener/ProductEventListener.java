@@ -0,0 +1,31 @@
+package com.microcommerce.gatewayservice.listener;
+
+import com.microcommerce.gatewayservice.cache.ProductResponseCache;
+import com.microcommerce.gatewayservice.dto.ProductEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConditionalOnProperty(name = "gateway.response-cache.enabled", havingValue = "true")
+public class ProductEventListener {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductEventListener.class);
+    private final ProductResponseCache cache;
+
+    public ProductEventListener(ProductResponseCache cache) {
+        this.cache = cache;
+    }
+
+    @RabbitListener(queues = "#{productEventsQueue.name}")
+    public void handleProductEvent(ProductEvent event) {
+        log.debug("Product {} {}, evicting cached responses", event.getProductId(), event.getType());
+        if (event.getProductId() == null) {
+            cache.invalidateAll();
+        } else {
+            cache.invalidateProduct(event.getProductId());
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.microcommerce.gatewayservice.loadbalancer;
+
+import java.util.Locale;
+
+/**
+ * order-service has an identical copy; the services share no library, so change both.
+ */
+public enum BalancingPolicy {
+
+    ROUND_ROBIN,
+
+    // Picks the instance with the fewest requests this client has in flight to it, so a slow
+    // instance gets less traffic instead of an equal share
+    LEAST_OUTSTANDING_REQUESTS;
+
+    /**
+     * Parses {@code round-robin} or {@code least-outstanding-requests}, as written in properties.
+     */
+    public static BalancingPolicy of(String value) {
+        return valueOf(value.trim().replace('-', '_').toUpperCase(Locale.ROOT));
+    }
+}
@@ -0,0 +1,84 @@
+package com.microcommerce.gatewayservice.loadbalancer;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Per-instance request bookkeeping shared by the load balancers of all services: requests in
+ * flight, and passive health. An instance that fails {@code consecutive-failures} requests in a
+ * row (connection errors, timeouts or 5xx answers) is ejected from balancing for
+ * {@code duration}, then gets traffic again; ejections are counted as {@code loadbalancer.ejections}.
+ * <p>
+ * order-service has an identical copy; the services share no library, so change both.
+ */
+@Component
+public class InstanceStats {
+
+    private static final Logger log = LoggerFactory.getLogger(InstanceStats.class);
+
+    private static final class Stats {
+        final AtomicInteger outstanding = new AtomicInteger();
+        final AtomicInteger consecutiveFailures = new AtomicInteger();
+        volatile long ejectedUntil;
+    }
+
+    private final Map<String, Stats> stats = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+    private final int failureThreshold;
+    private final long ejectionNanos;
+
+    public InstanceStats(MeterRegistry meterRegistry,
+                         @Value("${loadbalancer.ejection.consecutive-failures:3}") int failureThreshold,
+                         @Value("${loadbalancer.ejection.duration:30s}") Duration ejectionDuration) {
+        this.meterRegistry = meterRegistry;
+        this.failureThreshold = failureThreshold;
+        this.ejectionNanos = ejectionDuration.toNanos();
+    }
+
+    public void requestStarted(ServiceInstance instance) {
+        statsFor(instance).outstanding.incrementAndGet();
+    }
+
+    public void requestCompleted(ServiceInstance instance, boolean failed) {
+        Stats instanceStats = statsFor(instance);
+        instanceStats.outstanding.decrementAndGet();
+        if (!failed) {
+            instanceStats.consecutiveFailures.set(0);
+            return;
+        }
+        if (instanceStats.consecutiveFailures.incrementAndGet() >= failureThreshold) {
+            instanceStats.consecutiveFailures.set(0);
+            instanceStats.ejectedUntil = System.nanoTime() + ejectionNanos;
+            log.warn("Ejecting {} instance {} after {} consecutive failures",
+                    instance.getServiceId(), instance.getUri(), failureThreshold);
+            meterRegistry.counter("loadbalancer.ejections",
+                    "service", instance.getServiceId(), "instance", instance.getUri().toString()).increment();
+        }
+    }
+
+    public int outstanding(ServiceInstance instance) {
+        return statsFor(instance).outstanding.get();
+    }
+
+    public boolean isEjected(ServiceInstance instance) {
+        Stats instanceStats = stats.get(key(instance));
+        return instanceStats != null && System.nanoTime() - instanceStats.ejectedUntil < 0;
+    }
+
+    private Stats statsFor(ServiceInstance instance) {
+        return stats.computeIfAbsent(key(instance), k -> new Stats());
+    }
+
+    private static String key(ServiceInstance instance) {
+        return instance.getServiceId() + '@' + instance.getUri();
+    }
+}
@@ -0,0 +1,24 @@
+package com.microcommerce.gatewayservice.ratelimit;
+
+import org.springframework.cloud.gateway.filter.ratelimit.KeyResolver;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+
+/**
+ * Rate-limits per client address. The {@code Authorization} header is not part of the key: the
+ * gateway does not verify credentials, so keying on them would give a fresh bucket to every
+ * request that makes one up.
+ */
+@Component
+public class ClientKeyResolver implements KeyResolver {
+
+    @Override
+    public Mono<String> resolve(ServerWebExchange exchange) {
+        InetSocketAddress remote = exchange.getRequest().getRemoteAddress();
+        return Mono.just("address:" + (remote == null || remote.getAddress() == null
+                ? "unknown" : remote.getAddress().getHostAddress()));
+    }
+}
@@ -0,0 +1,57 @@
+package com.microcommerce.gatewayservice.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * Token buckets held in this gateway instance. Buckets not touched for {@code idle-timeout} are
+ * dropped (an idle bucket would be full again anyway), so memory stays bounded however many
+ * clients come and go.
+ */
+@Component
+public class InMemoryTokenBucketStore implements TokenBucketStore {
+
+    private static final class State {
+
+        private double tokens;
+        private long refilledAt;
+
+        State(double tokens, long now) {
+            this.tokens = tokens;
+            this.refilledAt = now;
+        }
+
+        synchronized Consumption take(Bucket bucket, int requested, long now) {
+            tokens = Math.min(bucket.capacity(), tokens + (now - refilledAt) / 1e9 * bucket.refillPerSecond());
+            refilledAt = now;
+            if (tokens >= requested) {
+                tokens -= requested;
+                return new Consumption(true, (long) tokens, Duration.ZERO);
+            }
+            long waitNanos = (long) Math.ceil((requested - tokens) / bucket.refillPerSecond() * 1e9);
+            return new Consumption(false, (long) tokens, Duration.ofNanos(waitNanos));
+        }
+    }
+
+    private final Cache<String, State> buckets;
+
+    public InMemoryTokenBucketStore(@Value("${gateway.rate-limit.store.max-buckets:100000}") long maxBuckets,
+                                    @Value("${gateway.rate-limit.store.idle-timeout:10m}") Duration idleTimeout) {
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxBuckets)
+                .expireAfterAccess(idleTimeout)
+                .build();
+    }
+
+    @Override
+    public Mono<Consumption> tryConsume(String key, Bucket bucket, int tokens) {
+        long now = System.nanoTime();
+        State state = buckets.get(key, k -> new State(bucket.capacity(), now));
+        return Mono.just(state.take(bucket, tokens, now));
+    }
+}
@@ -0,0 +1,99 @@
+package com.microcommerce.gatewayservice.ratelimit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.validation.constraints.Min;
+import org.springframework.cloud.gateway.filter.ratelimit.AbstractRateLimiter;
+import org.springframework.cloud.gateway.support.ConfigurationService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.annotation.Validated;
+import reactor.core.publisher.Mono;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Token-bucket limiter for the {@code RequestRateLimiter} route filter. Each route configures its
+ * own bucket under {@code token-bucket-rate-limiter.*} args, and every client of that route
+ * (see {@link ClientKeyResolver}) gets a separate bucket. Denied requests are answered with 429 by
+ * the filter and counted as {@code gateway.requests.rejected{reason=rate_limit}}.
+ */
+@Component
+public class TokenBucketRateLimiter extends AbstractRateLimiter<TokenBucketRateLimiter.Config> {
+
+    public static final String CONFIGURATION_PROPERTY_NAME = "token-bucket-rate-limiter";
+
+    public static final String REMAINING_HEADER = "X-RateLimit-Remaining";
+    public static final String REPLENISH_RATE_HEADER = "X-RateLimit-Replenish-Rate";
+    public static final String BURST_CAPACITY_HEADER = "X-RateLimit-Burst-Capacity";
+
+    @Validated
+    public static class Config {
+
+        // Tokens added per second: the sustained request rate allowed per client
+        @Min(1)
+        private int replenishRate = 100;
+
+        // Bucket size: how far above the sustained rate a client may burst
+        @Min(1)
+        private int burstCapacity = 200;
+
+        // Tokens one request costs
+        @Min(1)
+        private int requestedTokens = 1;
+
+        public int getReplenishRate() {
+            return replenishRate;
+        }
+
+        public void setReplenishRate(int replenishRate) {
+            this.replenishRate = replenishRate;
+        }
+
+        public int getBurstCapacity() {
+            return burstCapacity;
+        }
+
+        public void setBurstCapacity(int burstCapacity) {
+            this.burstCapacity = burstCapacity;
+        }
+
+        public int getRequestedTokens() {
+            return requestedTokens;
+        }
+
+        public void setRequestedTokens(int requestedTokens) {
+            this.requestedTokens = requestedTokens;
+        }
+    }
+
+    private final TokenBucketStore store;
+    private final MeterRegistry meterRegistry;
+    private final Config defaultConfig = new Config();
+
+    public TokenBucketRateLimiter(TokenBucketStore store, MeterRegistry meterRegistry,
+                                  ConfigurationService configurationService) {
+        super(Config.class, CONFIGURATION_PROPERTY_NAME, configurationService);
+        this.store = store;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Mono<Response> isAllowed(String routeId, String id) {
+        Config config = getConfig().getOrDefault(routeId, defaultConfig);
+        TokenBucketStore.Bucket bucket = new TokenBucketStore.Bucket(config.getBurstCapacity(), config.getReplenishRate());
+        return store.tryConsume(routeId + '|' + id, bucket, config.getRequestedTokens())
+                .map(consumption -> {
+                    Map<String, String> headers = new LinkedHashMap<>();
+                    headers.put(REMAINING_HEADER, String.valueOf(consumption.remaining()));
+                    headers.put(REPLENISH_RATE_HEADER, String.valueOf(config.getReplenishRate()));
+                    headers.put(BURST_CAPACITY_HEADER, String.valueOf(config.getBurstCapacity()));
+                    if (!consumption.allowed()) {
+                        long seconds = Math.max(1, (consumption.retryAfter().toMillis() + 999) / 1000);
+                        headers.put(HttpHeaders.RETRY_AFTER, String.valueOf(seconds));
+                        meterRegistry.counter("gateway.requests.rejected", "route", routeId, "reason", "rate_limit").increment();
+                    }
+                    return new Response(consumption.allowed(), headers);
+                });
+    }
+}
@@ -0,0 +1,29 @@
+package com.microcommerce.gatewayservice.ratelimit;
+
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * Where token buckets live. {@link InMemoryTokenBucketStore} keeps them in this gateway instance;
+ * a shared implementation (e.g. Redis) makes the limits cluster-wide instead of per instance.
+ */
+public interface TokenBucketStore {
+
+    record Bucket(long capacity, double refillPerSecond) {
+    }
+
+    /**
+     * @param allowed    whether the tokens were taken
+     * @param remaining  whole tokens left after this call
+     * @param retryAfter when denied, how long until enough tokens will have been refilled
+     */
+    record Consumption(boolean allowed, long remaining, Duration retryAfter) {
+    }
+
+    /**
+     * Takes {@code tokens} from the bucket stored under {@code key}, creating it full if it does
+     * not exist yet. Nothing is taken when there are not enough tokens.
+     */
+    Mono<Consumption> tryConsume(String key, Bucket bucket, int tokens);
+}
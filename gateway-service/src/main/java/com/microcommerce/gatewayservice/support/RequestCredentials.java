@@ -0,0 +1,36 @@
+package com.microcommerce.gatewayservice.support;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+
+/**
+ * Identifies the caller of a request by the credential it presents, without the gateway keeping
+ * the credential itself. The gateway does not authenticate; the backends still do.
+ */
+public final class RequestCredentials {
+
+    private RequestCredentials() {
+    }
+
+    /**
+     * SHA-256 of the {@code Authorization} header, if there is one.
+     */
+    public static Optional<String> digest(ServerHttpRequest request) {
+        String authorization = request.getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        if (authorization == null || authorization.isBlank()) {
+            return Optional.empty();
+        }
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return Optional.of(HexFormat.of().formatHex(digest.digest(authorization.getBytes(StandardCharsets.UTF_8))));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
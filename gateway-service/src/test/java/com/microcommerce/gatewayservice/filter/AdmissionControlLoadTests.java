@@ -0,0 +1,217 @@
+package com.microcommerce.gatewayservice.filter;
+
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Drives a backend with a fixed number of workers past its capacity through the gateway, once
+ * on a route without admission control and once on a route with a concurrency limit equal to the
+ * backend's worker count. Protected, the requests that are admitted keep close to the backend's
+ * service time and the excess is turned away with fast 429s; unprotected, every request queues.
+ * Rate limiting is covered by {@link RateLimitTests}.
+ */
+@Tag("benchmark")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "gateway.response-cache.enabled=false",
+        "logging.level.org.springframework.cloud.gateway=INFO",
+        "logging.level.org.springframework.cloud.loadbalancer=INFO"
+})
+class AdmissionControlLoadTests {
+
+    // Small enough that the backend, not the machine running all three parties, is the bottleneck
+    private static final int BACKEND_WORKERS = 4;
+    private static final long SERVICE_TIME_MS = 50;
+    private static final int CLIENTS = 32;
+    private static final Duration PHASE = Duration.ofSeconds(3);
+    private static final String NODELAY = "sun.net.httpserver.nodelay";
+
+    private static final Logger log = LoggerFactory.getLogger(AdmissionControlLoadTests.class);
+
+    // Read before startBackend changes it, so the JVM-wide setting can be put back afterwards
+    private static final String previousNodelay = System.getProperty(NODELAY);
+    private static final HttpServer backend = startBackend();
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .executor(Executors.newFixedThreadPool(CLIENTS))
+            .build();
+
+    @DynamicPropertySource
+    static void routes(DynamicPropertyRegistry registry) {
+        String uri = "http://localhost:" + backend.getAddress().getPort();
+        registry.add("spring.cloud.gateway.routes[0].id", () -> "unprotected");
+        registry.add("spring.cloud.gateway.routes[0].uri", () -> uri);
+        registry.add("spring.cloud.gateway.routes[0].predicates[0]", () -> "Path=/unprotected/**");
+        registry.add("spring.cloud.gateway.routes[1].id", () -> "protected");
+        registry.add("spring.cloud.gateway.routes[1].uri", () -> uri);
+        registry.add("spring.cloud.gateway.routes[1].predicates[0]", () -> "Path=/protected/**");
+        registry.add("spring.cloud.gateway.routes[1].filters[0]", () -> "ConcurrencyLimit=" + BACKEND_WORKERS);
+    }
+
+    @AfterAll
+    static void stopBackend() {
+        backend.stop(0);
+        if (previousNodelay == null) {
+            System.clearProperty(NODELAY);
+        } else {
+            System.setProperty(NODELAY, previousNodelay);
+        }
+    }
+
+    @Test
+    void concurrencyLimitKeepsAdmittedLatencyNearServiceTime() throws Exception {
+        // Warm-up, so JIT compilation does not land in either measurement
+        drive("/unprotected/work");
+
+        Result unprotected = drive("/unprotected/work");
+        Result limited = drive("/protected/work");
+
+        log.info("Unprotected: {} ok, p50 {} ms, p90 {} ms, p99 {} ms",
+                unprotected.ok(), unprotected.percentile(50), unprotected.percentile(90), unprotected.percentile(99));
+        log.info("Protected: {} ok, p50 {} ms, p90 {} ms, p99 {} ms; {} rejected with 429, p50 {} ms",
+                limited.ok(), limited.percentile(50), limited.percentile(90), limited.percentile(99),
+                limited.rejected(), limited.rejectedPercentile(50));
+
+        // Tails are left out of the assertions: on a small machine they are dominated by GC and JIT
+        assertThat(unprotected.rejected()).isZero();
+        assertThat(limited.rejected()).isPositive();
+        assertThat(limited.percentile(50)).isLessThan(unprotected.percentile(50) / 3);
+        assertThat(limited.percentile(90)).isLessThan(unprotected.percentile(50));
+        assertThat(limited.rejectedPercentile(50)).isLessThan(limited.percentile(50));
+        assertThat(meterRegistry.get("gateway.requests.rejected").tags("route", "protected", "reason", "concurrency")
+                .counter().count()).isEqualTo(limited.rejected());
+    }
+
+    private Result drive(String path) throws Exception {
+        List<Long> ok = Collections.synchronizedList(new ArrayList<>());
+        List<Long> rejected = Collections.synchronizedList(new ArrayList<>());
+        long deadline = System.nanoTime() + PHASE.toNanos();
+        ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+        List<Future<?>> running = new ArrayList<>();
+        for (int i = 0; i < CLIENTS; i++) {
+            running.add(clients.submit(() -> {
+                while (System.nanoTime() < deadline) {
+                    long start = System.nanoTime();
+                    HttpResponse<Void> response = send(path);
+                    long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                    if (response.statusCode() == 429) {
+                        rejected.add(millis);
+                        // Well-behaved clients wait as told before retrying
+                        long retryAfter = response.headers().firstValueAsLong("Retry-After").orElse(1);
+                        Thread.sleep(Math.min(TimeUnit.SECONDS.toMillis(retryAfter),
+                                TimeUnit.NANOSECONDS.toMillis(Math.max(0, deadline - System.nanoTime()))));
+                    } else {
+                        ok.add(millis);
+                    }
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : running) {
+            future.get();
+        }
+        clients.shutdown();
+        return new Result(new ArrayList<>(ok), new ArrayList<>(rejected));
+    }
+
+    private HttpResponse<Void> send(String path) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).GET().build();
+        return client.send(request, HttpResponse.BodyHandlers.discarding());
+    }
+
+    private static HttpServer startBackend() {
+        // Without it, headers and body go out as separate segments and each response stalls on a delayed ACK
+        System.setProperty(NODELAY, "true");
+        try {
+            HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 256);
+            Semaphore workers = new Semaphore(BACKEND_WORKERS, true);
+            AtomicInteger served = new AtomicInteger();
+            server.setExecutor(Executors.newCachedThreadPool());
+            server.createContext("/", exchange -> {
+                try {
+                    workers.acquire();
+                    try {
+                        Thread.sleep(SERVICE_TIME_MS);
+                    } finally {
+                        workers.release();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                served.incrementAndGet();
+                byte[] body = "{}".getBytes();
+                exchange.getResponseHeaders().add("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, body.length);
+                exchange.getResponseBody().write(body);
+                exchange.close();
+            });
+            server.start();
+            return server;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private record Result(List<Long> okMillis, List<Long> rejectedMillis) {
+
+        int ok() {
+            return okMillis.size();
+        }
+
+        int rejected() {
+            return rejectedMillis.size();
+        }
+
+        long percentile(int p) {
+            return percentile(okMillis, p);
+        }
+
+        long rejectedPercentile(int p) {
+            return percentile(rejectedMillis, p);
+        }
+
+        private static long percentile(List<Long> values, int p) {
+            if (values.isEmpty()) {
+                return 0;
+            }
+            List<Long> sorted = new ArrayList<>(values);
+            Collections.sort(sorted);
+            return sorted.get(Math.min(sorted.size() - 1, (int) Math.ceil(p / 100.0 * sorted.size()) - 1));
+        }
+    }
+}
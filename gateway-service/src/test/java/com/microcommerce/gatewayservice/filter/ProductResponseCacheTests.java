@@ -0,0 +1,151 @@
+package com.microcommerce.gatewayservice.filter;
+
+import com.microcommerce.gatewayservice.dto.ProductEvent;
+import com.microcommerce.gatewayservice.listener.ProductEventListener;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Product GETs through the cache filter to a stub product-service, with product events delivered
+ * to the listener directly.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "gateway.response-cache.enabled=true",
+        "spring.rabbitmq.listener.simple.auto-startup=false"
+})
+class ProductResponseCacheTests {
+
+    private static final Map<String, AtomicInteger> backendCalls = new ConcurrentHashMap<>();
+    // Stands in for each product's version, which product-service sends as the ETag
+    private static final Map<String, AtomicInteger> versions = new ConcurrentHashMap<>();
+    private static final HttpServer backend = startBackend();
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ProductEventListener productEventListener;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @DynamicPropertySource
+    static void routes(DynamicPropertyRegistry registry) {
+        registry.add("spring.cloud.gateway.routes[0].id", () -> "products");
+        registry.add("spring.cloud.gateway.routes[0].uri", () -> "http://localhost:" + backend.getAddress().getPort());
+        registry.add("spring.cloud.gateway.routes[0].predicates[0]", () -> "Path=/products/**");
+        registry.add("spring.cloud.gateway.routes[0].filters[0]", () -> "ProductResponseCache");
+    }
+
+    @AfterAll
+    static void stopBackend() {
+        backend.stop(0);
+    }
+
+    @Test
+    void repeatedReadsAndRevalidationsAreAnsweredByTheGateway() throws Exception {
+        HttpResponse<String> first = get("/products/101", null);
+        HttpResponse<String> second = get("/products/101", null);
+        HttpResponse<String> revalidated = get("/products/101", "\"1\"");
+
+        assertThat(first.statusCode()).isEqualTo(200);
+        assertThat(first.headers().firstValue("X-Cache")).contains("MISS");
+        assertThat(second.statusCode()).isEqualTo(200);
+        assertThat(second.headers().firstValue("X-Cache")).contains("HIT");
+        assertThat(second.body()).isEqualTo(first.body());
+        assertThat(revalidated.statusCode()).isEqualTo(304);
+        assertThat(calls("/products/101")).isEqualTo(1);
+    }
+
+    @Test
+    void productEventDropsThatProductAndListingsButNotOtherProducts() throws Exception {
+        get("/products/201", null);
+        get("/products/202", null);
+        get("/products/", null);
+
+        versions.get("/products/201").incrementAndGet();
+        productEventListener.handleProductEvent(event(201L, "UPDATED"));
+
+        HttpResponse<String> updated = get("/products/201", "\"1\"");
+        assertThat(updated.statusCode()).isEqualTo(200);
+        assertThat(updated.headers().firstValue("ETag")).contains("\"2\"");
+        assertThat(updated.headers().firstValue("X-Cache")).contains("MISS");
+        assertThat(calls("/products/201")).isEqualTo(2);
+        assertThat(get("/products/", null).headers().firstValue("X-Cache")).contains("MISS");
+        assertThat(calls("/products/")).isEqualTo(2);
+        assertThat(get("/products/202", null).headers().firstValue("X-Cache")).contains("HIT");
+        assertThat(calls("/products/202")).isEqualTo(1);
+    }
+
+    @Test
+    void eventWithoutAProductDropsEverything() throws Exception {
+        get("/products/301", null);
+
+        productEventListener.handleProductEvent(event(null, "UPDATED"));
+
+        assertThat(get("/products/301", null).headers().firstValue("X-Cache")).contains("MISS");
+        assertThat(calls("/products/301")).isEqualTo(2);
+    }
+
+    private HttpResponse<String> get(String path, String ifNoneMatch) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).GET();
+        if (ifNoneMatch != null) {
+            request.header("If-None-Match", ifNoneMatch);
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static int calls(String path) {
+        return backendCalls.getOrDefault(path, new AtomicInteger()).get();
+    }
+
+    private static ProductEvent event(Long productId, String type) {
+        ProductEvent event = new ProductEvent();
+        event.setProductId(productId);
+        event.setType(type);
+        return event;
+    }
+
+    private static void respond(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        backendCalls.computeIfAbsent(path, p -> new AtomicInteger()).incrementAndGet();
+        int version = versions.computeIfAbsent(path, p -> new AtomicInteger(1)).get();
+        byte[] body = ("{\"path\":\"" + path + "\",\"version\":" + version + "}").getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.getResponseHeaders().add("ETag", "\"" + version + "\"");
+        exchange.sendResponseHeaders(200, body.length);
+        exchange.getResponseBody().write(body);
+        exchange.close();
+    }
+
+    private static HttpServer startBackend() {
+        try {
+            HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+            server.createContext("/", ProductResponseCacheTests::respond);
+            server.start();
+            return server;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.microcommerce.gatewayservice.filter;
+
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Sends a burst through a rate-limited route to a backend that answers at once.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "gateway.response-cache.enabled=false"
+})
+class RateLimitTests {
+
+    private static final HttpServer backend = startBackend();
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @DynamicPropertySource
+    static void routes(DynamicPropertyRegistry registry) {
+        registry.add("spring.cloud.gateway.routes[0].id", () -> "rate-limited");
+        registry.add("spring.cloud.gateway.routes[0].uri", () -> "http://localhost:" + backend.getAddress().getPort());
+        registry.add("spring.cloud.gateway.routes[0].predicates[0]", () -> "Path=/rate-limited/**");
+        registry.add("spring.cloud.gateway.routes[0].filters[0].name", () -> "RequestRateLimiter");
+        registry.add("spring.cloud.gateway.routes[0].filters[0].args.token-bucket-rate-limiter.replenish-rate", () -> "1");
+        registry.add("spring.cloud.gateway.routes[0].filters[0].args.token-bucket-rate-limiter.burst-capacity", () -> "5");
+    }
+
+    @AfterAll
+    static void stopBackend() {
+        backend.stop(0);
+    }
+
+    @Test
+    void rateLimitAppliesPerAddressWhateverTheCredentials() throws Exception {
+        // A made-up Authorization header on every request must not buy a fresh bucket
+        List<HttpResponse<Void>> responses = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            String credentials = Base64.getEncoder().encodeToString(("client" + i + ":password").getBytes());
+            responses.add(send("Basic " + credentials));
+        }
+        List<Integer> statuses = responses.stream().map(HttpResponse::statusCode).toList();
+
+        // The burst of five goes through, the rest are refused until the bucket refills
+        assertThat(statuses.subList(0, 5)).containsOnly(200);
+        assertThat(statuses.subList(6, 8)).containsOnly(429);
+        assertThat(responses.get(7).headers().firstValue("Retry-After")).isPresent();
+        assertThat(meterRegistry.get("gateway.requests.rejected").tags("route", "rate-limited", "reason", "rate_limit")
+                .counter().count()).isEqualTo(statuses.stream().filter(status -> status == 429).count());
+    }
+
+    private HttpResponse<Void> send(String authorization) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/rate-limited/work"))
+                .header("Authorization", authorization)
+                .GET()
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.discarding());
+    }
+
+    private static HttpServer startBackend() {
+        try {
+            HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+            server.createContext("/", exchange -> {
+                byte[] body = "{}".getBytes();
+                exchange.getResponseHeaders().add("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, body.length);
+                exchange.getResponseBody().write(body);
+                exchange.close();
+            });
+            server.start();
+            return server;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.microcommerce.gatewayservice.ratelimit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+
+import java.net.InetSocketAddress;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ClientKeyResolverTests {
+
+    private final ClientKeyResolver resolver = new ClientKeyResolver();
+
+    @Test
+    void keyDependsOnTheAddressOnly() {
+        String first = key("10.0.0.1", "Basic Zmlyc3Q6cGFzc3dvcmQ=");
+        String forged = key("10.0.0.1", "Basic Zm9yZ2VkOnh4eA==");
+        String anonymous = key("10.0.0.1", null);
+        String other = key("10.0.0.2", "Basic Zmlyc3Q6cGFzc3dvcmQ=");
+
+        assertThat(first).isEqualTo("address:10.0.0.1").isEqualTo(forged).isEqualTo(anonymous);
+        assertThat(other).isEqualTo("address:10.0.0.2");
+    }
+
+    private String key(String address, String authorization) {
+        MockServerHttpRequest.BaseBuilder<?> request = MockServerHttpRequest.get("/products")
+                .remoteAddress(new InetSocketAddress(address, 40000));
+        if (authorization != null) {
+            request.header("Authorization", authorization);
+        }
+        return resolver.resolve(MockServerWebExchange.from(request)).block();
+    }
+}
@@ -2,8 +2,10 @@ package com.microcommerce.orderservice;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication(exclude = {org.springframework.boot.autoconfigure.h2.H2ConsoleAutoConfiguration.class})
+@EnableScheduling
 public class OrderServiceApplication {
 
 	public static void main(String[] args) {
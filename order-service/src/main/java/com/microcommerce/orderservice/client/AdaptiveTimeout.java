@@ -0,0 +1,36 @@
+package com.microcommerce.orderservice.client;
+
+import java.time.Duration;
+
+/**
+ * Timeout that follows observed latency, computed like TCP's retransmission timeout: a smoothed
+ * mean plus four times the smoothed deviation, clamped to [min, max].
+ */
+public class AdaptiveTimeout {
+
+    private static final double ALPHA = 0.125;
+    private static final double BETA = 0.25;
+
+    private final long minNanos;
+    private final long maxNanos;
+    private double smoothedNanos;
+    private double deviationNanos;
+
+    public AdaptiveTimeout(Duration initial, Duration min, Duration max) {
+        this.minNanos = min.toNanos();
+        this.maxNanos = max.toNanos();
+        this.smoothedNanos = initial.toNanos() / 2.0;
+        this.deviationNanos = initial.toNanos() / 8.0;
+    }
+
+    public synchronized void record(Duration latency) {
+        long sample = latency.toNanos();
+        deviationNanos = (1 - BETA) * deviationNanos + BETA * Math.abs(smoothedNanos - sample);
+        smoothedNanos = (1 - ALPHA) * smoothedNanos + ALPHA * sample;
+    }
+
+    public synchronized Duration current() {
+        long timeout = (long) (smoothedNanos + 4 * deviationNanos);
+        return Duration.ofNanos(Math.min(maxNanos, Math.max(minNanos, timeout)));
+    }
+}
@@ -0,0 +1,192 @@
+package com.microcommerce.orderservice.client;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Answers "does this customer exist?" for order validation, in order of cost:
+ * <ol>
+ *     <li>a Bloom filter of all customer ids, which rejects unknown ids without a network hop;</li>
+ *     <li>a bounded cache of recent answers, kept current by customer created/deleted events;</li>
+ *     <li>a HEAD request to customer-service, which never loads the full customer.</li>
+ * </ol>
+ * The filter is rebuilt from a paged id snapshot on a schedule, so events lost while the broker
+ * was unreachable only matter until the next rebuild. Ids above the snapshot's highest id are
+ * never rejected by the filter alone: a customer created since may not have its event applied yet.
+ */
+@Component
+public class CustomerClient {
+
+    private static final Logger log = LoggerFactory.getLogger(CustomerClient.class);
+    private static final ParameterizedTypeReference<List<Long>> ID_LIST = new ParameterizedTypeReference<>() {
+    };
+
+    private record Snapshot(CustomerIdFilter filter, long maxId) {
+    }
+
+    private final WebClient customerWebClient;
+    private final DownstreamGuard guard;
+    private final boolean filterEnabled;
+    private final long expectedCustomers;
+    private final double falsePositiveRate;
+    private final Duration snapshotTimeout;
+    private final int snapshotPageSize;
+    private final Cache<Long, Boolean> existence;
+    private final Counter filterRejections;
+
+    // Events are applied to both filters while a rebuild is in flight (see rebuildFilter)
+    private volatile Snapshot snapshot;
+    private volatile CustomerIdFilter rebuilding;
+
+    public CustomerClient(@Qualifier("customerWebClient") WebClient customerWebClient,
+                          @Qualifier("customerServiceGuard") DownstreamGuard guard,
+                          MeterRegistry meterRegistry,
+                          @Value("${customer.existence.cache.max-size:100000}") long maxSize,
+                          @Value("${customer.existence.cache.ttl:30m}") Duration ttl,
+                          @Value("${customer.existence.filter.enabled:true}") boolean filterEnabled,
+                          @Value("${customer.existence.filter.expected-customers:1000000}") long expectedCustomers,
+                          @Value("${customer.existence.filter.false-positive-rate:0.01}") double falsePositiveRate,
+                          @Value("${customer.existence.filter.snapshot-timeout:30s}") Duration snapshotTimeout,
+                          @Value("${customer.existence.filter.snapshot-page-size:10000}") int snapshotPageSize) {
+        this.customerWebClient = customerWebClient;
+        this.guard = guard;
+        this.filterEnabled = filterEnabled;
+        this.expectedCustomers = expectedCustomers;
+        this.falsePositiveRate = falsePositiveRate;
+        this.snapshotTimeout = snapshotTimeout;
+        this.snapshotPageSize = snapshotPageSize;
+        this.existence = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, existence, "customer.existence.cache");
+        this.filterRejections = Counter.builder("customer.existence.filter.rejected")
+                .description("Orders rejected by the customer id filter without a network call")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Completes empty if the customer exists. Fails with IllegalArgumentException if it does not
+     * and IllegalStateException if customer-service cannot answer.
+     */
+    public Mono<Void> verifyExists(Long customerId) {
+        Snapshot current = snapshot;
+        if (current != null && customerId <= current.maxId() && !current.filter().mightContain(customerId)) {
+            filterRejections.increment();
+            return Mono.error(notFound(customerId, null));
+        }
+        Boolean known = existence.getIfPresent(customerId);
+        if (known != null) {
+            return known ? Mono.empty() : Mono.error(notFound(customerId, null));
+        }
+
+        return customerWebClient.head()
+                .uri("/{customerId}", customerId)
+                .retrieve()
+                .toBodilessEntity()
+                .doOnNext(response -> existence.put(customerId, true))
+                .then()
+                .onErrorMap(WebClientResponseException.class, e -> {
+                    log.error("Error validating customer: {}, status code: {}", e.getResponseBodyAsString(), e.getStatusCode());
+                    if (e.getStatusCode() == HttpStatus.NOT_FOUND) {
+                        existence.put(customerId, false);
+                    }
+                    if (e.getStatusCode().is4xxClientError()) {
+                        return notFound(customerId, e);
+                    }
+                    return new IllegalStateException("Error during customer validation: " + e.getMessage(), e);
+                })
+                .onErrorMap(WebClientRequestException.class, e ->
+                        new IllegalStateException("Error during customer validation: " + e.getMessage(), e))
+                .transform(guard::protect);
+    }
+
+    public void customerCreated(Long customerId) {
+        existence.put(customerId, true);
+        CustomerIdFilter next = rebuilding;
+        Snapshot current = snapshot;
+        if (next != null) {
+            next.add(customerId);
+        }
+        if (current != null) {
+            current.filter().add(customerId);
+        }
+    }
+
+    public void customerDeleted(Long customerId) {
+        existence.put(customerId, false);
+    }
+
+    /**
+     * Builds a fresh filter from customer-service's id snapshot, read page by page, and swaps it
+     * in. Until the first successful build the filter is not consulted at all.
+     */
+    @Scheduled(initialDelayString = "${customer.existence.filter.initial-delay-ms:5000}",
+            fixedDelayString = "${customer.existence.filter.rebuild-interval-ms:600000}")
+    public void rebuildFilter() {
+        if (!filterEnabled) {
+            return;
+        }
+        try {
+            // Published before the snapshot is read, so ids created meanwhile reach it via events
+            CustomerIdFilter next = new CustomerIdFilter(expectedCustomers, falsePositiveRate);
+            rebuilding = next;
+            long afterId = 0;
+            long count = 0;
+            List<Long> page;
+            do {
+                page = fetchIds(afterId);
+                page.forEach(next::add);
+                count += page.size();
+                if (!page.isEmpty()) {
+                    afterId = page.get(page.size() - 1);
+                }
+            } while (page.size() == snapshotPageSize);
+            if (count > expectedCustomers) {
+                log.warn("{} customers exceeds customer.existence.filter.expected-customers={}, false positives will rise",
+                        count, expectedCustomers);
+            }
+            snapshot = new Snapshot(next, afterId);
+            log.info("Customer id filter rebuilt with {} ids", count);
+        } catch (RuntimeException e) {
+            log.warn("Could not rebuild customer id filter, keeping the previous one", e);
+        } finally {
+            rebuilding = null;
+        }
+    }
+
+    private List<Long> fetchIds(long afterId) {
+        List<Long> ids = customerWebClient.get()
+                .uri(uri -> uri.path("/ids")
+                        .queryParam("afterId", afterId)
+                        .queryParam("limit", snapshotPageSize)
+                        .build())
+                .retrieve()
+                .bodyToMono(ID_LIST)
+                .block(snapshotTimeout);
+        return ids == null ? List.of() : ids;
+    }
+
+    private IllegalArgumentException notFound(Long customerId, Throwable cause) {
+        return new IllegalArgumentException("Customer with id " + customerId + " not found.", cause);
+    }
+}
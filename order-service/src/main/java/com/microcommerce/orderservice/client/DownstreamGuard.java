@@ -0,0 +1,79 @@
+package com.microcommerce.orderservice.client;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Wraps calls to one downstream service in an adaptive timeout, a concurrency bulkhead and a
+ * circuit breaker. Rejections fail fast with {@link DownstreamUnavailableException}.
+ */
+public class DownstreamGuard {
+
+    private final String service;
+    private final CircuitBreaker circuitBreaker;
+    private final Bulkhead bulkhead;
+    private final AdaptiveTimeout timeout;
+    private final Counter breakerRejections;
+    private final Counter bulkheadRejections;
+    private final Counter timeouts;
+
+    public DownstreamGuard(String service, CircuitBreaker circuitBreaker, Bulkhead bulkhead,
+                           AdaptiveTimeout timeout, MeterRegistry meterRegistry) {
+        this.service = service;
+        this.circuitBreaker = circuitBreaker;
+        this.bulkhead = bulkhead;
+        this.timeout = timeout;
+        this.breakerRejections = rejectionCounter(meterRegistry, "circuit_open");
+        this.bulkheadRejections = rejectionCounter(meterRegistry, "bulkhead_full");
+        this.timeouts = rejectionCounter(meterRegistry, "timeout");
+        Gauge.builder("downstream.timeout", timeout, t -> t.current().toMillis())
+                .description("Current adaptive timeout for calls to the downstream service")
+                .tag("service", service)
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+
+    public <T> Mono<T> protect(Mono<T> call) {
+        return Mono.defer(() -> {
+            Duration limit = timeout.current();
+            long start = System.nanoTime();
+            return call
+                    .timeout(limit)
+                    .doOnSuccess(result -> timeout.record(Duration.ofNanos(System.nanoTime() - start)))
+                    .onErrorMap(TimeoutException.class, e -> {
+                        timeouts.increment();
+                        timeout.record(limit);
+                        return new DownstreamUnavailableException(service + " did not answer within " + limit.toMillis() + "ms", e);
+                    });
+        })
+                .transformDeferred(BulkheadOperator.of(bulkhead))
+                .transformDeferred(CircuitBreakerOperator.of(circuitBreaker))
+                .onErrorMap(CallNotPermittedException.class, e -> {
+                    breakerRejections.increment();
+                    return new DownstreamUnavailableException(service + " is unavailable (circuit breaker open)", e);
+                })
+                .onErrorMap(BulkheadFullException.class, e -> {
+                    bulkheadRejections.increment();
+                    return new DownstreamUnavailableException(service + " is saturated (too many concurrent calls)", e);
+                });
+    }
+
+    private Counter rejectionCounter(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("downstream.rejected")
+                .description("Downstream calls failed fast by the guard")
+                .tag("service", service)
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,16 @@
+package com.microcommerce.orderservice.client;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * A downstream service was not called because its circuit breaker is open or its bulkhead is
+ * full, or it did not answer within the adaptive timeout. Surfaces as 503 to API clients.
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class DownstreamUnavailableException extends IllegalStateException {
+
+    public DownstreamUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,16 @@
+package com.microcommerce.orderservice.client;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * product-service could not reserve stock for every line of the order; nothing was reserved.
+ * Surfaces as 409 to API clients.
+ */
+@ResponseStatus(HttpStatus.CONFLICT)
+public class InsufficientStockException extends IllegalArgumentException {
+
+    public InsufficientStockException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,233 @@
+package com.microcommerce.orderservice.client;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.microcommerce.orderservice.model.ProductBatchDTO;
+import com.microcommerce.orderservice.model.ProductDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Looks up products in product-service through a size-bounded, TTL-based read-through cache.
+ * Entries are dropped early when product-service announces an update or delete. A lookup that
+ * was already in flight when the announcement arrived does not cache what it read, since that
+ * may predate the change.
+ *
+ * <p>Entries older than {@code product.cache.max-price-age} are revalidated before their price
+ * is used. If product-service cannot be reached at that point, the cached price is still used
+ * unless {@code product.cache.refuse-stale-prices} is set, in which case the order fails.
+ */
+@Component
+public class ProductClient {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductClient.class);
+
+    private record CachedProduct(ProductDTO product, Instant fetchedAt) {
+    }
+
+    private final WebClient productWebClient;
+    private final DownstreamGuard guard;
+    private final int batchSize;
+    private final int concurrency;
+    private final Duration maxPriceAge;
+    private final boolean refuseStalePrices;
+    private final Cache<Long, CachedProduct> cache;
+    // Product id -> generation of its last invalidation. Kept for as long as a lookup can run.
+    private final Cache<Long, Long> invalidations;
+    private final AtomicLong generations = new AtomicLong();
+    private final Counter staleServed;
+    private final Counter staleRefused;
+
+    public ProductClient(@Qualifier("productWebClient") WebClient productWebClient,
+                         @Qualifier("productServiceGuard") DownstreamGuard guard,
+                         MeterRegistry meterRegistry,
+                         @Value("${product.service.batch-size:500}") int batchSize,
+                         @Value("${order.validation.max-concurrency:16}") int concurrency,
+                         @Value("${product.cache.max-size:10000}") long maxSize,
+                         @Value("${product.cache.ttl:10m}") Duration ttl,
+                         @Value("${product.cache.max-price-age:1m}") Duration maxPriceAge,
+                         @Value("${product.cache.refuse-stale-prices:false}") boolean refuseStalePrices) {
+        this.productWebClient = productWebClient;
+        this.guard = guard;
+        this.batchSize = batchSize;
+        this.concurrency = concurrency;
+        this.maxPriceAge = maxPriceAge;
+        this.refuseStalePrices = refuseStalePrices;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.invalidations = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "product.cache");
+        this.staleServed = Counter.builder("product.cache.stale.served")
+                .description("Stale prices used because product-service could not revalidate them")
+                .register(meterRegistry);
+        this.staleRefused = Counter.builder("product.cache.stale.refused")
+                .description("Lookups failed rather than use a stale price")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Resolves every id to a product. Fails with IllegalArgumentException if one does not exist
+     * and IllegalStateException if product-service cannot answer.
+     */
+    public Mono<Map<Long, ProductDTO>> getProducts(Collection<Long> productIds) {
+        Map<Long, ProductDTO> resolved = new HashMap<>();
+        Map<Long, ProductDTO> stale = new HashMap<>();
+        List<Long> toFetch = new ArrayList<>();
+        Instant staleBefore = Instant.now().minus(maxPriceAge);
+        for (Long productId : productIds) {
+            CachedProduct cached = cache.getIfPresent(productId);
+            if (cached == null) {
+                toFetch.add(productId);
+            } else if (cached.fetchedAt().isBefore(staleBefore)) {
+                stale.put(productId, cached.product());
+                toFetch.add(productId);
+            } else {
+                resolved.put(productId, cached.product());
+            }
+        }
+        if (toFetch.isEmpty()) {
+            return Mono.just(resolved);
+        }
+
+        return fetchProducts(toFetch)
+                .map(fetched -> {
+                    resolved.putAll(fetched);
+                    return resolved;
+                })
+                .onErrorResume(IllegalStateException.class, e -> {
+                    if (stale.size() < toFetch.size()) {
+                        return Mono.error(e);
+                    }
+                    if (refuseStalePrices) {
+                        staleRefused.increment();
+                        return Mono.error(new IllegalStateException("Refusing stale prices for products " + stale.keySet(), e));
+                    }
+                    staleServed.increment();
+                    log.warn("product-service unavailable, using cached prices for products {}", stale.keySet());
+                    resolved.putAll(stale);
+                    return Mono.just(resolved);
+                });
+    }
+
+    /**
+     * Holds stock for every line under {@code reservationId}, or none. Fails with
+     * InsufficientStockException if a line cannot be covered, IllegalStateException if
+     * product-service cannot answer. Writes are not retried; the same id makes a retry safe.
+     */
+    public Mono<Void> reserve(String reservationId, Map<Long, Integer> quantities) {
+        List<Map<String, Object>> items = quantities.entrySet().stream()
+                .map(line -> Map.<String, Object>of("productId", line.getKey(), "quantity", line.getValue()))
+                .toList();
+        return productWebClient.post()
+                .uri("/reservations")
+                .bodyValue(Map.of("reservationId", reservationId, "items", items))
+                .retrieve()
+                .toBodilessEntity()
+                .then()
+                .onErrorMap(WebClientResponseException.class, e -> {
+                    if (e.getStatusCode() == HttpStatus.CONFLICT) {
+                        return new InsufficientStockException("Insufficient stock: " + e.getResponseBodyAsString(), e);
+                    }
+                    if (e.getStatusCode().is4xxClientError()) {
+                        return new IllegalArgumentException("Stock reservation " + reservationId + " was rejected.", e);
+                    }
+                    return new IllegalStateException("Error during stock reservation: " + e.getMessage(), e);
+                })
+                .onErrorMap(WebClientRequestException.class, e ->
+                        new IllegalStateException("Error during stock reservation: " + e.getMessage(), e))
+                .transform(guard::protect);
+    }
+
+    /**
+     * Gives a reservation back, without waiting for the answer. One that cannot be released
+     * here expires in product-service.
+     */
+    public void release(String reservationId) {
+        productWebClient.delete()
+                .uri("/reservations/{reservationId}", reservationId)
+                .retrieve()
+                .toBodilessEntity()
+                .subscribe(released -> log.debug("Released stock reservation {}", reservationId),
+                        e -> log.warn("Could not release stock reservation {}: {}", reservationId, e.getMessage()));
+    }
+
+    public void invalidate(Long productId) {
+        // Recorded before the entry is dropped, so a lookup storing it concurrently sees one or the other
+        invalidations.put(productId, generations.incrementAndGet());
+        cache.invalidate(productId);
+    }
+
+    private Mono<Map<Long, ProductDTO>> fetchProducts(List<Long> productIds) {
+        Instant fetchedAt = Instant.now();
+        long generation = generations.get();
+        return Flux.fromIterable(productIds)
+                .buffer(batchSize)
+                .flatMap(this::fetchBatch, concurrency)
+                .flatMapIterable(ProductBatchDTO::getProducts)
+                .doOnNext(product -> store(product, fetchedAt, generation))
+                .collectMap(ProductDTO::getId);
+    }
+
+    /**
+     * Caches a fetched product unless it was invalidated after the fetch started.
+     */
+    private void store(ProductDTO product, Instant fetchedAt, long generation) {
+        cache.asMap().compute(product.getId(), (productId, cached) -> {
+            Long invalidated = invalidations.getIfPresent(productId);
+            return invalidated != null && invalidated > generation ? cached : new CachedProduct(product, fetchedAt);
+        });
+    }
+
+    private Mono<ProductBatchDTO> fetchBatch(List<Long> productIds) {
+        String ids = productIds.stream().map(String::valueOf).collect(Collectors.joining(","));
+        return productWebClient.get()
+                .uri(uriBuilder -> uriBuilder.queryParam("ids", ids).build())
+                .retrieve()
+                .bodyToMono(ProductBatchDTO.class)
+                .switchIfEmpty(Mono.error(() -> new IllegalStateException("Product lookup for ids " + productIds + " returned no body.")))
+                .onErrorMap(WebClientResponseException.class, e -> {
+                    log.error("Error validating products: {}, status code: {}", e.getResponseBodyAsString(), e.getStatusCode());
+                    if (e.getStatusCode().is4xxClientError()) {
+                        return new IllegalArgumentException("Product lookup for ids " + productIds + " was rejected.", e);
+                    }
+                    return new IllegalStateException("Error during product validation: " + e.getMessage(), e);
+                })
+                .onErrorMap(WebClientRequestException.class, e ->
+                        new IllegalStateException("Error during product validation: " + e.getMessage(), e))
+                .doOnNext(batch -> {
+                    if (!batch.getMissingIds().isEmpty()) {
+                        batch.getMissingIds().forEach(cache::invalidate);
+                        throw new IllegalArgumentException("Product with id " + batch.getMissingIds().get(0) + " not found.");
+                    }
+                })
+                .transform(guard::protect);
+    }
+}
@@ -0,0 +1,22 @@
+package com.microcommerce.orderservice.config;
+
+import lombok.Data;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Connection pool and timeout settings for one downstream service,
+ * bound from {@code <service>.service.client.*}.
+ */
+@Data
+public class DownstreamClientProperties {
+    private int maxConnections = 100;
+    private int pendingAcquireMaxCount = 500;
+    private Duration pendingAcquireTimeout = Duration.ofSeconds(2);
+    private Duration maxIdleTime = Duration.ofSeconds(30);
+    private Duration maxLifeTime = Duration.ofMinutes(5);
+    private Duration connectTimeout = Duration.ofSeconds(1);
+    private Duration responseTimeout = Duration.ofSeconds(3);
+    private DataSize maxInMemorySize = DataSize.ofMegabytes(2);
+}
@@ -0,0 +1,16 @@
+package com.microcommerce.orderservice.config;
+
+import com.microcommerce.orderservice.loadbalancer.PolicyLoadBalancerConfiguration;
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Downstream WebClients address services by id ({@code http://product-service/...}); each call is
+ * balanced over the instances listed under {@code spring.cloud.discovery.client.simple.instances.<service>}.
+ * <p>
+ * gateway-service has an identical copy; the services share no library, so change both.
+ */
+@Configuration
+@LoadBalancerClients(defaultConfiguration = PolicyLoadBalancerConfiguration.class)
+public class LoadBalancerConfig {
+}
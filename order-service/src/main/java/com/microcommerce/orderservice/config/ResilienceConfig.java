@@ -0,0 +1,94 @@
+package com.microcommerce.orderservice.config;
+
+import com.microcommerce.orderservice.client.AdaptiveTimeout;
+import com.microcommerce.orderservice.client.DownstreamGuard;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Circuit breaker, bulkhead and adaptive timeout per downstream service. Breaker state and call
+ * counts are exported as {@code resilience4j.circuitbreaker.*}, bulkhead usage as
+ * {@code resilience4j.bulkhead.*} and fast failures as {@code downstream.rejected}.
+ */
+@Configuration
+public class ResilienceConfig {
+
+    @Bean
+    public CircuitBreakerRegistry circuitBreakerRegistry(
+            MeterRegistry meterRegistry,
+            @Value("${downstream.circuit-breaker.failure-rate-threshold:50}") float failureRateThreshold,
+            @Value("${downstream.circuit-breaker.slow-call-rate-threshold:80}") float slowCallRateThreshold,
+            @Value("${downstream.circuit-breaker.slow-call-duration:2s}") Duration slowCallDuration,
+            @Value("${downstream.circuit-breaker.sliding-window-size:50}") int slidingWindowSize,
+            @Value("${downstream.circuit-breaker.minimum-number-of-calls:20}") int minimumNumberOfCalls,
+            @Value("${downstream.circuit-breaker.wait-duration-in-open-state:10s}") Duration waitInOpenState,
+            @Value("${downstream.circuit-breaker.permitted-calls-in-half-open-state:5}") int permittedInHalfOpen) {
+        CircuitBreakerConfig config = CircuitBreakerConfig.custom()
+                .failureRateThreshold(failureRateThreshold)
+                .slowCallRateThreshold(slowCallRateThreshold)
+                .slowCallDurationThreshold(slowCallDuration)
+                .slidingWindowSize(slidingWindowSize)
+                .minimumNumberOfCalls(minimumNumberOfCalls)
+                .waitDurationInOpenState(waitInOpenState)
+                .permittedNumberOfCallsInHalfOpenState(permittedInHalfOpen)
+                .automaticTransitionFromOpenToHalfOpenEnabled(true)
+                // Unknown ids and our own back-pressure say nothing about the downstream's health
+                .ignoreExceptions(IllegalArgumentException.class, BulkheadFullException.class)
+                .build();
+        CircuitBreakerRegistry registry = CircuitBreakerRegistry.of(config);
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(registry).bindTo(meterRegistry);
+        return registry;
+    }
+
+    @Bean
+    public BulkheadRegistry bulkheadRegistry(
+            MeterRegistry meterRegistry,
+            @Value("${downstream.bulkhead.max-concurrent-calls:64}") int maxConcurrentCalls) {
+        BulkheadConfig config = BulkheadConfig.custom()
+                .maxConcurrentCalls(maxConcurrentCalls)
+                .maxWaitDuration(Duration.ZERO)
+                .build();
+        BulkheadRegistry registry = BulkheadRegistry.of(config);
+        TaggedBulkheadMetrics.ofBulkheadRegistry(registry).bindTo(meterRegistry);
+        return registry;
+    }
+
+    @Bean
+    public DownstreamGuard customerServiceGuard(CircuitBreakerRegistry circuitBreakerRegistry,
+                                                BulkheadRegistry bulkheadRegistry,
+                                                MeterRegistry meterRegistry,
+                                                @Value("${customer.service.client.response-timeout:2s}") Duration maxTimeout,
+                                                @Value("${downstream.timeout.min:200ms}") Duration minTimeout) {
+        return guard("customer-service", circuitBreakerRegistry, bulkheadRegistry, meterRegistry, minTimeout, maxTimeout);
+    }
+
+    @Bean
+    public DownstreamGuard productServiceGuard(CircuitBreakerRegistry circuitBreakerRegistry,
+                                               BulkheadRegistry bulkheadRegistry,
+                                               MeterRegistry meterRegistry,
+                                               @Value("${product.service.client.response-timeout:3s}") Duration maxTimeout,
+                                               @Value("${downstream.timeout.min:200ms}") Duration minTimeout) {
+        return guard("product-service", circuitBreakerRegistry, bulkheadRegistry, meterRegistry, minTimeout, maxTimeout);
+    }
+
+    private DownstreamGuard guard(String service, CircuitBreakerRegistry circuitBreakerRegistry,
+                                  BulkheadRegistry bulkheadRegistry, MeterRegistry meterRegistry,
+                                  Duration minTimeout, Duration maxTimeout) {
+        return new DownstreamGuard(service,
+                circuitBreakerRegistry.circuitBreaker(service),
+                bulkheadRegistry.bulkhead(service),
+                new AdaptiveTimeout(maxTimeout, minTimeout, maxTimeout),
+                meterRegistry);
+    }
+}
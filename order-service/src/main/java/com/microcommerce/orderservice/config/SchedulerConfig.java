@@ -0,0 +1,21 @@
+package com.microcommerce.orderservice.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Threads for the blocking JPA work of the reactive order path: one per pooled connection, so
+ * none of them waits on Hikari, and a bounded queue in front of them.
+ */
+@Configuration
+public class SchedulerConfig {
+
+    @Bean(destroyMethod = "dispose")
+    public Scheduler jdbcScheduler(@Value("${spring.datasource.hikari.maximum-pool-size:10}") int poolSize,
+                                   @Value("${order.pipeline.queue-capacity:10000}") int queueCapacity) {
+        return Schedulers.newBoundedElastic(poolSize, queueCapacity, "order-jdbc");
+    }
+}
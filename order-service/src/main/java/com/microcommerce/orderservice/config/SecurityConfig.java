@@ -1,5 +1,8 @@
 package com.microcommerce.orderservice.config;
 
+import com.microcommerce.orderservice.security.ServiceTokenAuthenticationFilter;
+import com.microcommerce.orderservice.security.ServiceTokenCodec;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -14,14 +17,30 @@ import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.provisioning.InMemoryUserDetailsManager;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
+
+import java.time.Duration;
 
 @Configuration
 @EnableWebSecurity
 public class SecurityConfig {
 
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    public ServiceTokenCodec serviceTokenCodec(@Value("${service.auth.token.secret}") String secret,
+                                               @Value("${service.auth.token.clock-skew:30s}") Duration clockSkew) {
+        return new ServiceTokenCodec(secret, clockSkew);
+    }
+
+    @Bean
+    public SecurityFilterChain securityFilterChain(HttpSecurity http,
+                                                   ServiceTokenCodec serviceTokenCodec,
+                                                   @Value("${service.auth.token.cache-size:1000}") long tokenCacheSize,
+                                                   @Value("${service.auth.token.max-lifetime:10m}") Duration maxTokenLifetime) throws Exception {
+        // Not a bean, so Boot does not also register it as a plain servlet filter
+        ServiceTokenAuthenticationFilter serviceTokenFilter =
+                new ServiceTokenAuthenticationFilter(serviceTokenCodec, tokenCacheSize, maxTokenLifetime);
         http
+                .addFilterBefore(serviceTokenFilter, BasicAuthenticationFilter.class)
                 .csrf(AbstractHttpConfigurer::disable)
                 .authorizeHttpRequests(authorize -> authorize
                         .requestMatchers("/api/orders/**").authenticated()
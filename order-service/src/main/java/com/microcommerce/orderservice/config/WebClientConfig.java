@@ -1,14 +1,104 @@
 package com.microcommerce.orderservice.config;
 
+import com.microcommerce.orderservice.security.ServiceTokenProvider;
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.cloud.client.loadbalancer.reactive.LoadBalancedExchangeFilterFunction;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunctions;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
 
+import java.time.Duration;
+
+/**
+ * One pre-built {@link WebClient} per downstream service, each with its own bounded connection
+ * pool, so a slow product-service cannot exhaust the connections used for customer-service.
+ * Each pool holds connections to every instance of its service.
+ * Pool gauges are published to Micrometer under {@code reactor.netty.connection.provider.*}.
+ */
 @Configuration
 public class WebClientConfig {
 
     @Bean
-    public WebClient.Builder webClientBuilder() {
-        return WebClient.builder();
+    @ConfigurationProperties("customer.service.client")
+    public DownstreamClientProperties customerClientProperties() {
+        return new DownstreamClientProperties();
+    }
+
+    @Bean
+    @ConfigurationProperties("product.service.client")
+    public DownstreamClientProperties productClientProperties() {
+        return new DownstreamClientProperties();
+    }
+
+    /**
+     * How order-service authenticates to the services it calls: a signed service token
+     * ({@code token}, the default) or the shared Basic credentials ({@code basic}).
+     */
+    @Bean
+    public ExchangeFilterFunction serviceAuthentication(ServiceTokenProvider serviceTokenProvider,
+                                                        @Value("${service.auth.mode:token}") String mode,
+                                                        @Value("${service.auth.username}") String username,
+                                                        @Value("${service.auth.password}") String password) {
+        return switch (mode) {
+            case "token" -> serviceTokenProvider.bearerAuthentication();
+            // Encoded once here rather than on every call
+            case "basic" -> ExchangeFilterFunctions.basicAuthentication(username, password);
+            default -> throw new IllegalArgumentException("Unknown service.auth.mode: " + mode);
+        };
+    }
+
+    @Bean
+    public WebClient customerWebClient(WebClient.Builder webClientBuilder,
+                                       @Qualifier("serviceAuthentication") ExchangeFilterFunction serviceAuthentication,
+                                       LoadBalancedExchangeFilterFunction loadBalancer,
+                                       @Value("${customer.service.url}") String customerServiceUrl) {
+        return buildClient(webClientBuilder, "customer-service", customerServiceUrl, customerClientProperties(),
+                serviceAuthentication, loadBalancer);
+    }
+
+    @Bean
+    public WebClient productWebClient(WebClient.Builder webClientBuilder,
+                                      @Qualifier("serviceAuthentication") ExchangeFilterFunction serviceAuthentication,
+                                      LoadBalancedExchangeFilterFunction loadBalancer,
+                                      @Value("${product.service.url}") String productServiceUrl) {
+        return buildClient(webClientBuilder, "product-service", productServiceUrl, productClientProperties(),
+                serviceAuthentication, loadBalancer);
+    }
+
+    private WebClient buildClient(WebClient.Builder webClientBuilder, String name, String baseUrl,
+                                  DownstreamClientProperties properties, ExchangeFilterFunction authentication,
+                                  LoadBalancedExchangeFilterFunction loadBalancer) {
+        ConnectionProvider connectionProvider = ConnectionProvider.builder(name)
+                .maxConnections(properties.getMaxConnections())
+                .pendingAcquireMaxCount(properties.getPendingAcquireMaxCount())
+                .pendingAcquireTimeout(properties.getPendingAcquireTimeout())
+                .maxIdleTime(properties.getMaxIdleTime())
+                .maxLifeTime(properties.getMaxLifeTime())
+                .evictInBackground(Duration.ofSeconds(30))
+                .metrics(true)
+                .build();
+
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+                .keepAlive(true)
+                .option(ChannelOption.SO_KEEPALIVE, true)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) properties.getConnectTimeout().toMillis())
+                .responseTimeout(properties.getResponseTimeout());
+
+        return webClientBuilder
+                .baseUrl(baseUrl)
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .codecs(codecs -> codecs.defaultCodecs().maxInMemorySize((int) properties.getMaxInMemorySize().toBytes()))
+                .filter(authentication)
+                // Resolves the service id in the URL to an instance; GETs are retried on another one
+                .filter(loadBalancer)
+                .build();
     }
 }
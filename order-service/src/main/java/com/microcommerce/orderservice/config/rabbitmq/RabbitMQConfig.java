@@ -1,14 +1,22 @@
 package com.microcommerce.orderservice.config.rabbitmq;
 
+import org.springframework.amqp.core.AnonymousQueue;
 import org.springframework.amqp.core.Binding;
 import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.Declarable;
+import org.springframework.amqp.core.Declarables;
+import org.springframework.amqp.core.DirectExchange;
 import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.core.QueueBuilder;
 import org.springframework.amqp.core.TopicExchange;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
 import org.springframework.amqp.support.converter.MessageConverter;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @Configuration
 public class RabbitMQConfig {
 
@@ -16,9 +24,36 @@ public class RabbitMQConfig {
     public static final String QUEUE_NAME = "product_queue";
     public static final String ROUTING_KEY = "order.created";
 
+    // order.created events consumed by this service itself to maintain the order summary read model
+    public static final String ORDER_SUMMARY_QUEUE = "order_summary_queue";
+    // Events the summary listener rejects; their orders are summarized by the next startup backfill
+    public static final String ORDER_SUMMARY_DEAD_LETTER_EXCHANGE = "order_summary_queue.dlx";
+    public static final String ORDER_SUMMARY_DEAD_LETTER_QUEUE = "order_summary_queue.dlq";
+
+    // Catalog change notifications published by product-service. Only edits and deletions
+    // matter to the product cache; creations and stock changes are not subscribed to.
+    public static final String PRODUCT_EXCHANGE = "product_exchange";
+    public static final String PRODUCT_UPDATED_ROUTING_KEY = "product.updated";
+    public static final String PRODUCT_DELETED_ROUTING_KEY = "product.deleted";
+
+    // Customer lifecycle notifications published by customer-service
+    public static final String CUSTOMER_EXCHANGE = "customer_exchange";
+    public static final String CUSTOMER_EVENTS_ROUTING_KEY = "customer.*";
+
+    // Dead-lettering and delayed retries for product_queue. Must stay identical to
+    // product-service's RabbitMQConfig, which declares the same queues.
+    public static final String DEAD_LETTER_EXCHANGE = "product_queue.dlx";
+    public static final String DEAD_LETTER_QUEUE = "product_queue.dlq";
+    public static final List<String> RETRY_QUEUES = List.of(
+            "product_queue.retry.1s", "product_queue.retry.10s", "product_queue.retry.60s");
+    private static final List<Integer> RETRY_DELAYS_MS = List.of(1_000, 10_000, 60_000);
+
     @Bean
     public Queue queue() {
-        return new Queue(QUEUE_NAME, true);
+        return QueueBuilder.durable(QUEUE_NAME)
+                .deadLetterExchange(DEAD_LETTER_EXCHANGE)
+                .deadLetterRoutingKey(DEAD_LETTER_QUEUE)
+                .build();
     }
 
     @Bean
@@ -31,6 +66,99 @@ public class RabbitMQConfig {
         return BindingBuilder.bind(queue).to(exchange).with(ROUTING_KEY);
     }
 
+    @Bean
+    public Queue orderSummaryQueue() {
+        return QueueBuilder.durable(ORDER_SUMMARY_QUEUE)
+                .deadLetterExchange(ORDER_SUMMARY_DEAD_LETTER_EXCHANGE)
+                .deadLetterRoutingKey(ORDER_SUMMARY_DEAD_LETTER_QUEUE)
+                .build();
+    }
+
+    @Bean
+    public Binding orderSummaryBinding() {
+        return BindingBuilder.bind(orderSummaryQueue()).to(exchange()).with(ROUTING_KEY);
+    }
+
+    @Bean
+    public DirectExchange orderSummaryDeadLetterExchange() {
+        return new DirectExchange(ORDER_SUMMARY_DEAD_LETTER_EXCHANGE);
+    }
+
+    @Bean
+    public Queue orderSummaryDeadLetterQueue() {
+        return QueueBuilder.durable(ORDER_SUMMARY_DEAD_LETTER_QUEUE).build();
+    }
+
+    @Bean
+    public Binding orderSummaryDeadLetterBinding() {
+        return BindingBuilder.bind(orderSummaryDeadLetterQueue()).to(orderSummaryDeadLetterExchange())
+                .with(ORDER_SUMMARY_DEAD_LETTER_QUEUE);
+    }
+
+    @Bean
+    public TopicExchange productExchange() {
+        return new TopicExchange(PRODUCT_EXCHANGE);
+    }
+
+    /**
+     * Each order-service instance keeps its own product cache, so each gets its own
+     * server-named, auto-delete queue of product events.
+     */
+    @Bean
+    public Queue productEventsQueue() {
+        return new AnonymousQueue();
+    }
+
+    @Bean
+    public Declarables productEventsBindings() {
+        return new Declarables(
+                BindingBuilder.bind(productEventsQueue()).to(productExchange()).with(PRODUCT_UPDATED_ROUTING_KEY),
+                BindingBuilder.bind(productEventsQueue()).to(productExchange()).with(PRODUCT_DELETED_ROUTING_KEY));
+    }
+
+    @Bean
+    public TopicExchange customerExchange() {
+        return new TopicExchange(CUSTOMER_EXCHANGE);
+    }
+
+    @Bean
+    public Queue customerEventsQueue() {
+        return new AnonymousQueue();
+    }
+
+    @Bean
+    public Binding customerEventsBinding() {
+        return BindingBuilder.bind(customerEventsQueue()).to(customerExchange()).with(CUSTOMER_EVENTS_ROUTING_KEY);
+    }
+
+    @Bean
+    public DirectExchange deadLetterExchange() {
+        return new DirectExchange(DEAD_LETTER_EXCHANGE);
+    }
+
+    @Bean
+    public Queue deadLetterQueue() {
+        return QueueBuilder.durable(DEAD_LETTER_QUEUE).build();
+    }
+
+    @Bean
+    public Binding deadLetterBinding() {
+        return BindingBuilder.bind(deadLetterQueue()).to(deadLetterExchange()).with(DEAD_LETTER_QUEUE);
+    }
+
+    @Bean
+    public Declarables retryQueues() {
+        List<Declarable> queues = new ArrayList<>();
+        for (int i = 0; i < RETRY_QUEUES.size(); i++) {
+            queues.add(QueueBuilder.durable(RETRY_QUEUES.get(i))
+                    .ttl(RETRY_DELAYS_MS.get(i))
+                    .deadLetterExchange("")
+                    .deadLetterRoutingKey(QUEUE_NAME)
+                    .build());
+        }
+        return new Declarables(queues);
+    }
+
     @Bean
     public MessageConverter jsonMessageConverter() {
         return new Jackson2JsonMessageConverter();
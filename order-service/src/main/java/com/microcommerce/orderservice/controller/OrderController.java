@@ -1,12 +1,25 @@
 package com.microcommerce.orderservice.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microcommerce.orderservice.dto.OrderFilter;
+import com.microcommerce.orderservice.dto.OrderResponse;
 import com.microcommerce.orderservice.model.Order;
+import com.microcommerce.orderservice.model.OrderItem;
 import com.microcommerce.orderservice.service.OrderService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import reactor.core.publisher.Mono;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -14,23 +27,110 @@ import java.util.List;
 @RequiredArgsConstructor
 public class OrderController {
 
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    private static final int MAX_IDEMPOTENCY_KEY_LENGTH = 255;
+
     private final OrderService orderService;
+    private final ObjectMapper objectMapper;
+
+    @Value("${order.page.default-size:100}")
+    private int defaultPageSize;
+
+    @Value("${order.page.max-size:1000}")
+    private int maxPageSize;
+
+    @Value("${order.create.reactive:true}")
+    private boolean reactiveCreate;
 
+    /**
+     * One page of orders in id order, optionally only those of a customer, in a status or placed
+     * between {@code from} and {@code to} (inclusive). When the page is full, the id to pass as
+     * {@code afterId} for the next page is returned in the {@code X-Next-Cursor} header.
+     */
     @GetMapping
-    public List<Order> getAllOrders() {
-        return orderService.getAllOrders();
+    public ResponseEntity<List<OrderResponse>> getOrders(@RequestParam(defaultValue = "0") long afterId,
+                                                 @RequestParam(required = false) Integer limit,
+                                                 @RequestParam(required = false) Long customerId,
+                                                 @RequestParam(required = false) String status,
+                                                 @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                 @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        int pageSize = limit == null ? defaultPageSize : limit;
+        if (pageSize < 1 || pageSize > maxPageSize) {
+            return ResponseEntity.badRequest().build();
+        }
+        List<OrderResponse> orders = orderService.getOrders(new OrderFilter(customerId, status, from, to), afterId, pageSize);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (orders.size() == pageSize) {
+            response.header(NEXT_CURSOR_HEADER, String.valueOf(orders.get(orders.size() - 1).getId()));
+        }
+        return response.body(orders);
+    }
+
+    /**
+     * Every order, with its items, as newline-delimited JSON written chunk by chunk.
+     */
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportOrders() {
+        StreamingResponseBody body = out -> orderService.forEachOrder(order -> {
+            try {
+                out.write(objectMapper.writeValueAsBytes(order));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Order> getOrderById(@PathVariable Long id) {
+    public ResponseEntity<OrderResponse> getOrderById(@PathVariable Long id) {
         return orderService.getOrderById(id)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    /**
+     * Creates an order. Retries carrying the same {@code Idempotency-Key} get the original
+     * response back instead of creating another order.
+     * <p>
+     * By default the request is handled asynchronously: the servlet thread is released while the
+     * order is validated and stored. With {@code order.create.reactive=false} the request thread
+     * waits for the whole placement instead.
+     */
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
-    public Order createOrder(@RequestBody Order order) {
-        return orderService.createOrder(order);
+    public Mono<OrderResponse> createOrder(@RequestBody Order order,
+                                           @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        if (idempotencyKey != null && (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_IDEMPOTENCY_KEY_LENGTH)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    IDEMPOTENCY_KEY_HEADER + " must be 1 to " + MAX_IDEMPOTENCY_KEY_LENGTH + " characters");
+        }
+        validate(order);
+        if (!reactiveCreate) {
+            return Mono.just(orderService.createOrder(order, idempotencyKey));
+        }
+        return orderService.submitOrder(order, idempotencyKey);
+    }
+
+    /**
+     * Rejects malformed requests with 400 before they reach validation or the submission queue.
+     */
+    private static void validate(Order order) {
+        if (order.getCustomerId() == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "customerId is required");
+        }
+        if (order.getOrderItems() == null || order.getOrderItems().isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "orderItems must not be empty");
+        }
+        for (OrderItem item : order.getOrderItems()) {
+            if (item == null || item.getProductId() == null) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Every order item needs a productId");
+            }
+            if (item.getQuantity() == null || item.getQuantity() < 1) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "Quantity of product " + item.getProductId() + " must be at least 1");
+            }
+        }
     }
 }
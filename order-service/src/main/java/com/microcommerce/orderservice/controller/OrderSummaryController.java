@@ -0,0 +1,67 @@
+package com.microcommerce.orderservice.controller;
+
+import com.microcommerce.orderservice.dto.OrderHistoryCursor;
+import com.microcommerce.orderservice.model.OrderSummary;
+import com.microcommerce.orderservice.service.OrderSummaryService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/orders/summaries")
+@RequiredArgsConstructor
+public class OrderSummaryController {
+
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    // Bounds that fit every database's date type
+    private static final LocalDate EARLIEST = LocalDate.of(1970, 1, 1);
+    private static final LocalDate LATEST = LocalDate.of(9999, 12, 31);
+
+    private final OrderSummaryService orderSummaryService;
+
+    @Value("${order.page.default-size:100}")
+    private int defaultPageSize;
+
+    @Value("${order.page.max-size:1000}")
+    private int maxPageSize;
+
+    /**
+     * A customer's order history, newest first, with totals and product names. Served from the
+     * order summary read model, which trails order creation by the event delivery delay. When the
+     * page is full, the cursor to pass as {@code after} is returned in the {@code X-Next-Cursor} header.
+     */
+    @GetMapping
+    public ResponseEntity<List<OrderSummary>> getOrderHistory(
+            @RequestParam Long customerId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit) {
+        int pageSize = limit == null ? defaultPageSize : limit;
+        if (pageSize < 1 || pageSize > maxPageSize) {
+            return ResponseEntity.badRequest().build();
+        }
+        OrderHistoryCursor cursor;
+        try {
+            cursor = after == null ? null : OrderHistoryCursor.parse(after);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        List<OrderSummary> orders = orderSummaryService.getHistory(customerId, from == null ? EARLIEST : from,
+                to == null ? LATEST : to, cursor, pageSize);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (orders.size() == pageSize) {
+            OrderSummary last = orders.get(orders.size() - 1);
+            response.header(NEXT_CURSOR_HEADER, new OrderHistoryCursor(last.getOrderDate(), last.getOrderId()).toString());
+        }
+        return response.body(orders);
+    }
+}
@@ -1,9 +1,11 @@
 package com.microcommerce.orderservice.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @Data
@@ -13,4 +15,18 @@ public class OrderDTO {
     private Long id;
     private Long customerId;
     private List<OrderItemDTO> orderItems;
+
+    // Carried by order.created events for the order summary read model; omitted when unset so
+    // request fingerprints stay the same
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private LocalDate orderDate;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String status;
+    // Lets product-service confirm the stock reserved for the order instead of taking it again
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String reservationId;
+
+    public OrderDTO(Long id, Long customerId, List<OrderItemDTO> orderItems) {
+        this(id, customerId, orderItems, null, null, null);
+    }
 }
@@ -0,0 +1,11 @@
+package com.microcommerce.orderservice.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Criteria for listing orders; null fields are not filtered on. The date range is inclusive.
+ */
+public record OrderFilter(Long customerId, String status, LocalDate from, LocalDate to) {
+
+    public static final OrderFilter NONE = new OrderFilter(null, null, null, null);
+}
@@ -0,0 +1,29 @@
+package com.microcommerce.orderservice.dto;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Position in a customer's order history: the date and id of the last order of a page, written
+ * as {@code 2024-05-31:1234}.
+ */
+public record OrderHistoryCursor(LocalDate orderDate, long orderId) {
+
+    public static OrderHistoryCursor parse(String cursor) {
+        int separator = cursor.indexOf(':');
+        if (separator < 0) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+        try {
+            return new OrderHistoryCursor(LocalDate.parse(cursor.substring(0, separator)),
+                    Long.parseLong(cursor.substring(separator + 1)));
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return orderDate + ":" + orderId;
+    }
+}
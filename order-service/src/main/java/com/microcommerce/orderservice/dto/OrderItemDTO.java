@@ -1,13 +1,26 @@
 package com.microcommerce.orderservice.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.math.BigDecimal;
+
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class OrderItemDTO {
     private Long productId;
     private Integer quantity;
+
+    // Set on order.created events only (see OrderDTO)
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String productName;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private BigDecimal price;
+
+    public OrderItemDTO(Long productId, Integer quantity) {
+        this(productId, quantity, null, null);
+    }
 }
@@ -0,0 +1,20 @@
+package com.microcommerce.orderservice.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderItemResponse {
+    @JsonIgnore
+    private Long orderId;
+    private Long id;
+    private Long productId;
+    private Integer quantity;
+    private BigDecimal price;
+}
@@ -0,0 +1,28 @@
+package com.microcommerce.orderservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read model returned by the order API, so responses never touch lazy JPA associations.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderResponse {
+    private Long id;
+    private Long customerId;
+    private LocalDate orderDate;
+    private String status;
+    private List<OrderItemResponse> orderItems;
+
+    // Used by the JPQL constructor projection in OrderRepository; items are attached afterwards
+    public OrderResponse(Long id, Long customerId, LocalDate orderDate, String status) {
+        this(id, customerId, orderDate, status, new ArrayList<>());
+    }
+}
@@ -0,0 +1,19 @@
+package com.microcommerce.orderservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductEvent {
+
+    public enum Type { UPDATED, DELETED }
+
+    private Long productId;
+    private Type type;
+    private Instant occurredAt;
+}
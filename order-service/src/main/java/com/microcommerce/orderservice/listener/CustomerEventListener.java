@@ -0,0 +1,26 @@
+package com.microcommerce.orderservice.listener;
+
+import com.microcommerce.orderservice.client.CustomerClient;
+import com.microcommerce.orderservice.dto.CustomerEvent;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+public class CustomerEventListener {
+
+    private static final Logger log = LoggerFactory.getLogger(CustomerEventListener.class);
+    private final CustomerClient customerClient;
+
+    @RabbitListener(queues = "#{customerEventsQueue.name}")
+    public void handleCustomerEvent(CustomerEvent event) {
+        log.debug("Customer {} {}", event.getCustomerId(), event.getType());
+        switch (event.getType()) {
+            case CREATED -> customerClient.customerCreated(event.getCustomerId());
+            case DELETED -> customerClient.customerDeleted(event.getCustomerId());
+        }
+    }
+}
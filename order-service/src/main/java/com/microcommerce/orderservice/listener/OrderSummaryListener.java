@@ -0,0 +1,33 @@
+package com.microcommerce.orderservice.listener;
+
+import com.microcommerce.orderservice.config.rabbitmq.RabbitMQConfig;
+import com.microcommerce.orderservice.dto.OrderDTO;
+import com.microcommerce.orderservice.service.OrderSummaryService;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpRejectAndDontRequeueException;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Feeds this service's own order.created events into the order summary read model.
+ */
+@Component
+@RequiredArgsConstructor
+public class OrderSummaryListener {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderSummaryListener.class);
+    private final OrderSummaryService orderSummaryService;
+
+    @RabbitListener(queues = RabbitMQConfig.ORDER_SUMMARY_QUEUE)
+    public void handleOrderCreated(OrderDTO order) {
+        log.debug("Summarizing order {}", order.getId());
+        try {
+            orderSummaryService.project(order);
+        } catch (RuntimeException e) {
+            // Requeueing would redeliver it forever; the DLQ keeps it and the backfill repairs the row
+            throw new AmqpRejectAndDontRequeueException("Could not summarize order " + order.getId(), e);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.microcommerce.orderservice.listener;
+
+import com.microcommerce.orderservice.client.ProductClient;
+import com.microcommerce.orderservice.dto.ProductEvent;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+public class ProductEventListener {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductEventListener.class);
+    private final ProductClient productClient;
+
+    @RabbitListener(queues = "#{productEventsQueue.name}")
+    public void handleProductEvent(ProductEvent event) {
+        log.debug("Product {} {}, evicting cached copy", event.getProductId(), event.getType());
+        productClient.invalidate(event.getProductId());
+    }
+}
@@ -0,0 +1,67 @@
+package com.microcommerce.orderservice.loadbalancer;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.EmptyResponse;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.loadbalancer.core.NoopServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Chooses one instance of a service by {@link BalancingPolicy}, skipping instances that
+ * {@link InstanceStats} has ejected. If every instance is ejected, all of them are considered
+ * again rather than failing the request outright.
+ * <p>
+ * gateway-service has an identical copy; the services share no library, so change both.
+ */
+public class PolicyLoadBalancer implements ReactorServiceInstanceLoadBalancer {
+
+    private final ObjectProvider<ServiceInstanceListSupplier> supplierProvider;
+    private final InstanceStats instanceStats;
+    private final BalancingPolicy policy;
+    private final AtomicInteger position = new AtomicInteger();
+
+    public PolicyLoadBalancer(ObjectProvider<ServiceInstanceListSupplier> supplierProvider,
+                              InstanceStats instanceStats, BalancingPolicy policy) {
+        this.supplierProvider = supplierProvider;
+        this.instanceStats = instanceStats;
+        this.policy = policy;
+    }
+
+    @Override
+    public Mono<Response<ServiceInstance>> choose(Request request) {
+        ServiceInstanceListSupplier supplier = supplierProvider.getIfAvailable(NoopServiceInstanceListSupplier::new);
+        return supplier.get(request).next().map(this::choose);
+    }
+
+    private Response<ServiceInstance> choose(List<ServiceInstance> instances) {
+        if (instances.isEmpty()) {
+            return new EmptyResponse();
+        }
+        List<ServiceInstance> healthy = instances.stream().filter(instance -> !instanceStats.isEjected(instance)).toList();
+        List<ServiceInstance> candidates = healthy.isEmpty() ? instances : healthy;
+
+        // Rotating start: round-robin order, and ties in outstanding requests are spread evenly
+        int start = (position.getAndIncrement() & Integer.MAX_VALUE) % candidates.size();
+        ServiceInstance chosen = candidates.get(start);
+        if (policy == BalancingPolicy.LEAST_OUTSTANDING_REQUESTS) {
+            int fewest = instanceStats.outstanding(chosen);
+            for (int i = 1; i < candidates.size() && fewest > 0; i++) {
+                ServiceInstance candidate = candidates.get((start + i) % candidates.size());
+                int outstanding = instanceStats.outstanding(candidate);
+                if (outstanding < fewest) {
+                    fewest = outstanding;
+                    chosen = candidate;
+                }
+            }
+        }
+        return new DefaultResponse(chosen);
+    }
+}
@@ -0,0 +1,29 @@
+package com.microcommerce.orderservice.loadbalancer;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.loadbalancer.core.ReactorLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+
+/**
+ * Per-service load balancer, created in each service's own load-balancer context. Deliberately
+ * not a {@code @Configuration}: it must not be picked up by component scanning. The policy is
+ * {@code loadbalancer.clients.<service>.policy}, falling back to {@code loadbalancer.default-policy}.
+ * <p>
+ * gateway-service has an identical copy; the services share no library, so change both.
+ */
+public class PolicyLoadBalancerConfiguration {
+
+    @Bean
+    public ReactorLoadBalancer<ServiceInstance> policyLoadBalancer(Environment environment,
+                                                                   ObjectProvider<ServiceInstanceListSupplier> suppliers,
+                                                                   InstanceStats instanceStats) {
+        String serviceId = environment.getProperty(LoadBalancerClientFactory.PROPERTY_NAME);
+        String policy = environment.getProperty("loadbalancer.clients." + serviceId + ".policy",
+                environment.getProperty("loadbalancer.default-policy", "least-outstanding-requests"));
+        return new PolicyLoadBalancer(suppliers, instanceStats, BalancingPolicy.of(policy));
+    }
+}
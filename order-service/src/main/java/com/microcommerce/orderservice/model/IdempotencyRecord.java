@@ -0,0 +1,74 @@
+package com.microcommerce.orderservice.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.domain.Persistable;
+
+import java.time.Instant;
+
+/**
+ * The outcome of an order submission, keyed by the client's {@code Idempotency-Key}. Completed in
+ * the same transaction as the order it points to.
+ */
+@Entity
+@Table(name = "idempotency_key", indexes = @Index(name = "idx_idempotency_key_completed", columnList = "status, completed_at"))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class IdempotencyRecord implements Persistable<String> {
+
+    public enum Status {
+        IN_PROGRESS,
+        COMPLETED
+    }
+
+    @Id
+    @Column(name = "idempotency_key")
+    private String idempotencyKey;
+
+    // Fingerprint of the request body, so a key cannot be reused for a different order
+    private String requestHash;
+
+    @Enumerated(EnumType.STRING)
+    private Status status;
+
+    // Set by each claim or takeover; only the request holding it may complete or release the key
+    private String claimToken;
+
+    private Long orderId;
+
+    @Column(columnDefinition = "text")
+    private String response;
+
+    private Instant createdAt;
+
+    @Column(name = "completed_at")
+    private Instant completedAt;
+
+    // Keys are assigned by the client; without this, save() would merge and race on the insert
+    @Transient
+    @Builder.Default
+    private boolean newRecord = true;
+
+    @Override
+    public String getId() {
+        return idempotencyKey;
+    }
+
+    @Override
+    public boolean isNew() {
+        return newRecord;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markPersisted() {
+        newRecord = false;
+    }
+}
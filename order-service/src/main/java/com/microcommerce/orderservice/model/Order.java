@@ -7,12 +7,14 @@ import lombok.Builder;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.BatchSize;
 
 import java.time.LocalDate;
 import java.util.List;
 
 @Entity
-@Table(name = "orders") // "order" is a reserved keyword in SQL
+@Table(name = "orders", // "order" is a reserved keyword in SQL
+        indexes = @Index(name = "idx_orders_customer_date", columnList = "customer_id, order_date"))
 @Getter
 @Setter
 @NoArgsConstructor
@@ -21,14 +23,21 @@ import java.util.List;
 public class Order {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_seq")
+    @SequenceGenerator(name = "order_seq", sequenceName = "orders_seq", allocationSize = 50)
     private Long id;
     private Long customerId;
     private LocalDate orderDate;
     private String status;
 
+    // Read paths fetch items explicitly (see OrderRepository); the batch size only bounds stray lazy loads
     @OneToMany(cascade = CascadeType.ALL, mappedBy = "order")
+    @BatchSize(size = 100)
     @JsonManagedReference
     private List<OrderItem> orderItems;
 
+    // Stock held in product-service while the order is placed; confirmed by its order.created event
+    @Transient
+    private String reservationId;
+
 }
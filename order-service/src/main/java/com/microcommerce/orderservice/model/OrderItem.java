@@ -11,6 +11,7 @@ import lombok.NoArgsConstructor;
 import java.math.BigDecimal;
 
 @Entity
+@Table(indexes = @Index(name = "idx_order_item_order", columnList = "order_id"))
 @Getter
 @Setter
 @NoArgsConstructor
@@ -19,12 +20,17 @@ import java.math.BigDecimal;
 public class OrderItem {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_item_seq")
+    @SequenceGenerator(name = "order_item_seq", sequenceName = "order_item_seq", allocationSize = 50)
     private Long id;
     private Long productId;
     private Integer quantity;
     private BigDecimal price;
 
+    // Looked up when the order is placed and published with order.created; not stored
+    @Transient
+    private String productName;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "order_id")
     @JsonBackReference
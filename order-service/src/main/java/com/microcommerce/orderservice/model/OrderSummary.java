@@ -0,0 +1,60 @@
+package com.microcommerce.orderservice.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Denormalized view of one order for history queries, built from its order.created event by
+ * {@code OrderSummaryService}. Totals, counts and product names are computed once, so a
+ * customer's history is read from this table alone.
+ */
+@Entity
+@Table(name = "order_summary", indexes = @Index(name = "idx_order_summary_customer_date",
+        columnList = "customer_id, order_date, order_id"))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderSummary {
+
+    @Id
+    @Column(name = "order_id")
+    private Long orderId;
+
+    @Column(name = "customer_id")
+    private Long customerId;
+
+    @Column(name = "order_date")
+    private LocalDate orderDate;
+
+    private String status;
+
+    // Units over all lines, and the number of lines
+    private Integer itemCount;
+    private Integer lineCount;
+    private BigDecimal total;
+
+    @Convert(converter = OrderSummaryLinesConverter.class)
+    @Column(columnDefinition = "text")
+    private List<Line> lines;
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Line {
+        private Long productId;
+        private String productName;
+        private Integer quantity;
+        private BigDecimal price;
+    }
+}
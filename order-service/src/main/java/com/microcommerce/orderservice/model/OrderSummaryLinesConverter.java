@@ -0,0 +1,39 @@
+package com.microcommerce.orderservice.model;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.util.List;
+
+/**
+ * Stores the lines of an {@link OrderSummary} as a JSON text column, which reads the same on
+ * PostgreSQL and on the H2 databases used in tests.
+ */
+@Converter
+public class OrderSummaryLinesConverter implements AttributeConverter<List<OrderSummary.Line>, String> {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final TypeReference<List<OrderSummary.Line>> LINES = new TypeReference<>() {
+    };
+
+    @Override
+    public String convertToDatabaseColumn(List<OrderSummary.Line> lines) {
+        try {
+            return lines == null ? null : MAPPER.writeValueAsString(lines);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize order summary lines", e);
+        }
+    }
+
+    @Override
+    public List<OrderSummary.Line> convertToEntityAttribute(String json) {
+        try {
+            return json == null ? null : MAPPER.readValue(json, LINES);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not read order summary lines", e);
+        }
+    }
+}
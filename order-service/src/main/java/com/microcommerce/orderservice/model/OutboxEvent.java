@@ -0,0 +1,42 @@
+package com.microcommerce.orderservice.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * A message waiting to be published to RabbitMQ. Written in the same transaction as the
+ * business change it describes and relayed to the broker by {@code OutboxRelay}.
+ */
+@Entity
+@Table(name = "outbox_event", indexes = @Index(name = "idx_outbox_event_pending", columnList = "published_at, id"))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_event_seq")
+    @SequenceGenerator(name = "outbox_event_seq", sequenceName = "outbox_event_seq", allocationSize = 50)
+    private Long id;
+    private String aggregateType;
+    private Long aggregateId;
+    private String exchange;
+    private String routingKey;
+    private String payloadType;
+
+    @Column(columnDefinition = "text")
+    private String payload;
+
+    private Instant createdAt;
+
+    @Column(name = "published_at")
+    private Instant publishedAt;
+}
@@ -0,0 +1,11 @@
+package com.microcommerce.orderservice.model;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class ProductBatchDTO {
+    private List<ProductDTO> products;
+    private List<Long> missingIds;
+}
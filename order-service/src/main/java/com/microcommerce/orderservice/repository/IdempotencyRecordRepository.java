@@ -0,0 +1,50 @@
+package com.microcommerce.orderservice.repository;
+
+import com.microcommerce.orderservice.model.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    @Modifying
+    @Query("update IdempotencyRecord r set r.status = :completed, r.orderId = :orderId, r.response = :response, " +
+            "r.completedAt = :now where r.idempotencyKey = :key and r.status = :inProgress and r.claimToken = :token")
+    int complete(@Param("key") String key,
+                 @Param("token") String token,
+                 @Param("orderId") Long orderId,
+                 @Param("response") String response,
+                 @Param("now") Instant now,
+                 @Param("inProgress") IdempotencyRecord.Status inProgress,
+                 @Param("completed") IdempotencyRecord.Status completed);
+
+    /**
+     * Takes over a key whose owner stopped without completing or releasing it (e.g. it crashed).
+     */
+    @Modifying
+    @Query("update IdempotencyRecord r set r.createdAt = :now, r.requestHash = :requestHash, r.claimToken = :token " +
+            "where r.idempotencyKey = :key and r.status = :inProgress and r.createdAt < :staleBefore")
+    int takeOver(@Param("key") String key,
+                 @Param("requestHash") String requestHash,
+                 @Param("token") String token,
+                 @Param("now") Instant now,
+                 @Param("staleBefore") Instant staleBefore,
+                 @Param("inProgress") IdempotencyRecord.Status inProgress);
+
+    /**
+     * Gives up a key this request still owns; a no-op once another request has taken it over.
+     */
+    @Modifying
+    @Query("delete from IdempotencyRecord r " +
+            "where r.idempotencyKey = :key and r.status = :inProgress and r.claimToken = :token")
+    int release(@Param("key") String key,
+                @Param("token") String token,
+                @Param("inProgress") IdempotencyRecord.Status inProgress);
+
+    @Modifying
+    @Query("delete from IdempotencyRecord r where r.status = :completed and r.completedAt < :cutoff")
+    int deleteCompletedBefore(@Param("cutoff") Instant cutoff, @Param("completed") IdempotencyRecord.Status completed);
+}
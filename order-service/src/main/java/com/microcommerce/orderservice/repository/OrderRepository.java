@@ -1,7 +1,29 @@
 package com.microcommerce.orderservice.repository;
 
+import com.microcommerce.orderservice.dto.OrderItemResponse;
 import com.microcommerce.orderservice.model.Order;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
-public interface OrderRepository extends JpaRepository<Order, Long> {
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface OrderRepository extends JpaRepository<Order, Long>, OrderRepositoryCustom {
+
+    @EntityGraph(attributePaths = "orderItems")
+    Optional<Order> findWithItemsById(Long id);
+
+    @EntityGraph(attributePaths = "orderItems")
+    List<Order> findWithItemsByIdInOrderById(Collection<Long> ids);
+
+    /**
+     * Items of a whole page of orders from {@link #findPage}, in one statement; a fetch join there
+     * would make Hibernate paginate in memory.
+     */
+    @Query("select new com.microcommerce.orderservice.dto.OrderItemResponse(i.order.id, i.id, i.productId, i.quantity, i.price) " +
+            "from OrderItem i where i.order.id in :orderIds order by i.id")
+    List<OrderItemResponse> findItemsByOrderIds(@Param("orderIds") Collection<Long> orderIds);
 }
@@ -0,0 +1,16 @@
+package com.microcommerce.orderservice.repository;
+
+import com.microcommerce.orderservice.dto.OrderFilter;
+import com.microcommerce.orderservice.dto.OrderResponse;
+
+import java.util.List;
+
+public interface OrderRepositoryCustom {
+
+    /**
+     * Keyset page of the orders matching {@code filter}, without their items. Only the given
+     * criteria end up in the statement, so each combination gets its own plan: a customer filter
+     * uses idx_orders_customer_date, the others walk the primary key.
+     */
+    List<OrderResponse> findPage(OrderFilter filter, long afterId, int limit);
+}
@@ -0,0 +1,50 @@
+package com.microcommerce.orderservice.repository;
+
+import com.microcommerce.orderservice.dto.OrderFilter;
+import com.microcommerce.orderservice.dto.OrderResponse;
+import com.microcommerce.orderservice.model.Order;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+import java.util.ArrayList;
+import java.util.List;
+
+class OrderRepositoryCustomImpl implements OrderRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<OrderResponse> findPage(OrderFilter filter, long afterId, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<OrderResponse> query = cb.createQuery(OrderResponse.class);
+        Root<Order> order = query.from(Order.class);
+
+        List<Predicate> predicates = new ArrayList<>();
+        predicates.add(cb.greaterThan(order.get("id"), afterId));
+        if (filter.customerId() != null) {
+            predicates.add(cb.equal(order.get("customerId"), filter.customerId()));
+        }
+        if (filter.status() != null) {
+            predicates.add(cb.equal(order.get("status"), filter.status()));
+        }
+        if (filter.from() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(order.get("orderDate"), filter.from()));
+        }
+        if (filter.to() != null) {
+            predicates.add(cb.lessThanOrEqualTo(order.get("orderDate"), filter.to()));
+        }
+
+        query.select(cb.construct(OrderResponse.class,
+                        order.get("id"), order.get("customerId"), order.get("orderDate"), order.get("status")))
+                .where(predicates.toArray(Predicate[]::new))
+                .orderBy(cb.asc(order.get("id")));
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+}
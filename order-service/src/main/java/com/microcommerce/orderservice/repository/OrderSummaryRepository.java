@@ -0,0 +1,69 @@
+package com.microcommerce.orderservice.repository;
+
+import com.microcommerce.orderservice.model.OrderSummary;
+import com.microcommerce.orderservice.model.OrderSummaryLinesConverter;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface OrderSummaryRepository extends JpaRepository<OrderSummary, Long> {
+
+    /**
+     * Ids of orders after {@code afterId} that have no summary yet, in id order.
+     */
+    @Query("select o.id from Order o where o.id > :afterId " +
+            "and not exists (select s.orderId from OrderSummary s where s.orderId = o.id) order by o.id")
+    List<Long> findUnsummarizedOrderIds(@Param("afterId") long afterId, Limit limit);
+
+    /**
+     * Inserts the summary unless its order already has one, which is then left as it is. Unlike
+     * {@link #save}, a row written in the meantime by the order.created listener is never merged
+     * over. Returns whether the row was inserted.
+     */
+    default boolean insertIfAbsent(OrderSummary summary) {
+        try {
+            return insertIfAbsent(summary.getOrderId(), summary.getCustomerId(), summary.getOrderDate(),
+                    summary.getStatus(), summary.getItemCount(), summary.getLineCount(), summary.getTotal(),
+                    new OrderSummaryLinesConverter().convertToDatabaseColumn(summary.getLines())) > 0;
+        } catch (DataIntegrityViolationException e) {
+            // The listener inserted it between the check and the insert
+            return false;
+        }
+    }
+
+    @Modifying
+    @Transactional
+    @Query(value = "insert into order_summary (order_id, customer_id, order_date, status, item_count, line_count, total, lines) " +
+            "select :orderId, :customerId, :orderDate, :status, :itemCount, :lineCount, :total, :lines " +
+            "where not exists (select 1 from order_summary where order_id = :orderId)", nativeQuery = true)
+    int insertIfAbsent(@Param("orderId") Long orderId,
+                       @Param("customerId") Long customerId,
+                       @Param("orderDate") LocalDate orderDate,
+                       @Param("status") String status,
+                       @Param("itemCount") Integer itemCount,
+                       @Param("lineCount") Integer lineCount,
+                       @Param("total") BigDecimal total,
+                       @Param("lines") String lines);
+
+    /**
+     * Keyset page of a customer's orders, newest first, from {@code from} up to the
+     * ({@code beforeDate}, {@code beforeId}) cursor. Served by idx_order_summary_customer_date.
+     */
+    @Query("select s from OrderSummary s where s.customerId = :customerId and s.orderDate >= :from " +
+            "and (s.orderDate < :beforeDate or (s.orderDate = :beforeDate and s.orderId < :beforeId)) " +
+            "order by s.orderDate desc, s.orderId desc")
+    List<OrderSummary> findHistoryPage(@Param("customerId") Long customerId,
+                                       @Param("from") LocalDate from,
+                                       @Param("beforeDate") LocalDate beforeDate,
+                                       @Param("beforeId") long beforeId,
+                                       Limit limit);
+}
@@ -0,0 +1,78 @@
+package com.microcommerce.orderservice.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.context.RequestAttributeSecurityContextRepository;
+import org.springframework.security.web.context.SecurityContextRepository;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Authenticates {@code Authorization: Bearer} service tokens ahead of HTTP Basic. A caller sends
+ * the same token for minutes, so verified tokens are cached and most requests skip even the HMAC.
+ * Requests without a bearer token fall through to the other authentication mechanisms.
+ * <p>
+ * product-service has an identical copy; the services share no library, so change both.
+ */
+public class ServiceTokenAuthenticationFilter extends OncePerRequestFilter {
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private final ServiceTokenCodec codec;
+    // Lets async dispatches (streaming responses) see the authentication too
+    private final SecurityContextRepository securityContextRepository = new RequestAttributeSecurityContextRepository();
+    private final Cache<String, ServiceTokenCodec.Claims> verified;
+
+    public ServiceTokenAuthenticationFilter(ServiceTokenCodec codec, long cacheSize, Duration maxTokenLifetime) {
+        this.codec = codec;
+        this.verified = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(maxTokenLifetime)
+                .build();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header == null || !header.startsWith(BEARER_PREFIX)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        String token = header.substring(BEARER_PREFIX.length());
+        Instant now = Instant.now();
+        Optional<ServiceTokenCodec.Claims> claims = Optional.ofNullable(verified.getIfPresent(token))
+                .filter(cached -> !now.isAfter(cached.expiresAt()))
+                .or(() -> codec.verify(token, now).map(fresh -> {
+                    verified.put(token, fresh);
+                    return fresh;
+                }));
+        if (claims.isEmpty()) {
+            verified.invalidate(token);
+            response.setHeader(HttpHeaders.WWW_AUTHENTICATE, "Bearer error=\"invalid_token\"");
+            response.sendError(HttpServletResponse.SC_UNAUTHORIZED);
+            return;
+        }
+
+        SecurityContext context = SecurityContextHolder.createEmptyContext();
+        context.setAuthentication(UsernamePasswordAuthenticationToken.authenticated(
+                claims.get().subject(), null, AuthorityUtils.createAuthorityList("ROLE_SERVICE")));
+        SecurityContextHolder.setContext(context);
+        securityContextRepository.saveContext(context, request, response);
+        filterChain.doFilter(request, response);
+    }
+}
@@ -0,0 +1,51 @@
+package com.microcommerce.orderservice.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Issues this service's own bearer token for outgoing calls. The header value is built once per
+ * half token lifetime and reused by every request in between.
+ */
+@Component
+public class ServiceTokenProvider {
+
+    private record Issued(String header, Instant refreshAfter) {
+    }
+
+    private final ServiceTokenCodec codec;
+    private final String serviceName;
+    private final Duration ttl;
+    private volatile Issued current;
+
+    public ServiceTokenProvider(ServiceTokenCodec codec,
+                                @Value("${spring.application.name}") String serviceName,
+                                @Value("${service.auth.token.ttl:5m}") Duration ttl) {
+        this.codec = codec;
+        this.serviceName = serviceName;
+        this.ttl = ttl;
+    }
+
+    public String authorizationHeader() {
+        Issued issued = current;
+        Instant now = Instant.now();
+        if (issued == null || now.isAfter(issued.refreshAfter())) {
+            // Racing threads may each issue a token; any of them is valid
+            issued = new Issued("Bearer " + codec.issue(serviceName, now, ttl), now.plus(ttl.dividedBy(2)));
+            current = issued;
+        }
+        return issued.header();
+    }
+
+    public ExchangeFilterFunction bearerAuthentication() {
+        return (request, next) -> next.exchange(ClientRequest.from(request)
+                .headers(headers -> headers.set(HttpHeaders.AUTHORIZATION, authorizationHeader()))
+                .build());
+    }
+}
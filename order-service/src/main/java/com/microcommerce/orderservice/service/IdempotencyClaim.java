@@ -0,0 +1,8 @@
+package com.microcommerce.orderservice.service;
+
+/**
+ * A request's hold on an {@code Idempotency-Key}. The token tells it apart from a later request
+ * that took the key over, so only the current owner can complete or release the key.
+ */
+public record IdempotencyClaim(String key, String token) {
+}
@@ -0,0 +1,280 @@
+package com.microcommerce.orderservice.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microcommerce.orderservice.dto.OrderResponse;
+import com.microcommerce.orderservice.model.IdempotencyRecord;
+import com.microcommerce.orderservice.repository.IdempotencyRecordRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+/**
+ * Runs an order submission at most once per {@code Idempotency-Key}.
+ * <p>
+ * Requests with the same key arriving at this instance while the first one is running wait for
+ * its result instead of executing. Across instances the key row acts as a lock: the first
+ * request inserts it as IN_PROGRESS, and the order transaction marks it COMPLETED together with
+ * the stored response, which later retries get back without any downstream call. Each claim
+ * carries its own token, so a request whose abandoned key was taken over can neither complete
+ * nor release it.
+ */
+@Component
+public class IdempotencyService {
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyService.class);
+
+    private record InFlight(String requestHash, CompletableFuture<OrderResponse> result) {
+    }
+
+    private final IdempotencyRecordRepository repository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final Duration lockTimeout;
+    private final Duration waitTimeout;
+    private final Duration retention;
+    private final Counter replayed;
+    private final Counter coalesced;
+
+    private final ConcurrentMap<String, InFlight> inFlight = new ConcurrentHashMap<>();
+
+    public IdempotencyService(IdempotencyRecordRepository repository,
+                              TransactionTemplate transactionTemplate,
+                              ObjectMapper objectMapper,
+                              MeterRegistry meterRegistry,
+                              @Value("${order.idempotency.lock-timeout:1m}") Duration lockTimeout,
+                              @Value("${order.idempotency.wait-timeout:10s}") Duration waitTimeout,
+                              @Value("${order.idempotency.retention:24h}") Duration retention) {
+        this.repository = repository;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.lockTimeout = lockTimeout;
+        this.waitTimeout = waitTimeout;
+        this.retention = retention;
+        this.replayed = Counter.builder("order.idempotency.replayed")
+                .description("Order submissions answered from a stored response")
+                .register(meterRegistry);
+        this.coalesced = Counter.builder("order.idempotency.coalesced")
+                .description("Order submissions that waited for an in-flight request with the same key")
+                .register(meterRegistry);
+    }
+
+    public OrderResponse execute(String key, String requestHash, Function<IdempotencyClaim, OrderResponse> action) {
+        InFlight mine = new InFlight(requestHash, new CompletableFuture<>());
+        InFlight running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            if (!running.requestHash().equals(requestHash)) {
+                throw new IdempotencyKeyMismatchException(key);
+            }
+            coalesced.increment();
+            return await(key, running.result());
+        }
+
+        try {
+            OrderResponse response = claimOrReplay(key, requestHash, action);
+            mine.result().complete(response);
+            return response;
+        } catch (RuntimeException e) {
+            mine.result().completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    /**
+     * Non-blocking variant of {@link #execute}: the key row is claimed (or released) on
+     * {@code jdbcScheduler}, and a request waiting for an in-flight one holds no thread.
+     */
+    public Mono<OrderResponse> executeAsync(String key, String requestHash,
+                                            Function<IdempotencyClaim, Mono<OrderResponse>> action,
+                                            Scheduler jdbcScheduler) {
+        return Mono.defer(() -> {
+            InFlight mine = new InFlight(requestHash, new CompletableFuture<>());
+            InFlight running = inFlight.putIfAbsent(key, mine);
+            if (running != null) {
+                if (!running.requestHash().equals(requestHash)) {
+                    return Mono.error(new IdempotencyKeyMismatchException(key));
+                }
+                coalesced.increment();
+                return Mono.fromFuture(running.result(), true)
+                        .timeout(waitTimeout, Mono.error(() -> new IdempotencyKeyInUseException(key)));
+            }
+
+            IdempotencyClaim claim = new IdempotencyClaim(key, UUID.randomUUID().toString());
+            return Mono.fromCallable(() -> claim(claim, requestHash))
+                    .subscribeOn(jdbcScheduler)
+                    .flatMap(stored -> {
+                        if (stored.isPresent()) {
+                            replayed.increment();
+                            return Mono.just(stored.get());
+                        }
+                        // Nothing was committed under this key on failure, so the client may retry with it
+                        return action.apply(claim).onErrorResume(e -> Mono.fromRunnable(() -> release(claim))
+                                .subscribeOn(jdbcScheduler)
+                                .then(Mono.error(e)));
+                    })
+                    // The entry goes before the caller is signalled, so its own retry starts afresh
+                    .doOnSuccess(response -> {
+                        inFlight.remove(key, mine);
+                        mine.result().complete(response);
+                    })
+                    .doOnError(e -> {
+                        inFlight.remove(key, mine);
+                        mine.result().completeExceptionally(e);
+                    })
+                    .doOnCancel(() -> {
+                        inFlight.remove(key, mine);
+                        // The order may still be placed, so waiters are sent to retry later
+                        mine.result().completeExceptionally(new IdempotencyKeyInUseException(key));
+                    });
+        });
+    }
+
+    /**
+     * Stores the response for a claimed key. Must run in the transaction that creates the order,
+     * so the order and its key are committed or rolled back together.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void complete(IdempotencyClaim claim, OrderResponse response) {
+        int updated = repository.complete(claim.key(), claim.token(), response.getId(), toJson(response),
+                Instant.now(), IdempotencyRecord.Status.IN_PROGRESS, IdempotencyRecord.Status.COMPLETED);
+        if (updated == 0) {
+            // Our claim expired and another request took the key over; let that one win
+            throw new IdempotencyKeyInUseException(claim.key());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${order.idempotency.cleanup.interval-ms:3600000}")
+    public void purgeCompleted() {
+        Integer deleted = transactionTemplate.execute(status ->
+                repository.deleteCompletedBefore(Instant.now().minus(retention), IdempotencyRecord.Status.COMPLETED));
+        log.debug("Purged {} completed idempotency keys", deleted);
+    }
+
+    private OrderResponse claimOrReplay(String key, String requestHash, Function<IdempotencyClaim, OrderResponse> action) {
+        IdempotencyClaim claim = new IdempotencyClaim(key, UUID.randomUUID().toString());
+        Optional<OrderResponse> stored = claim(claim, requestHash);
+        if (stored.isPresent()) {
+            replayed.increment();
+            return stored.get();
+        }
+        try {
+            return action.apply(claim);
+        } catch (RuntimeException e) {
+            // Nothing was committed under this key, so the client may retry with it
+            release(claim);
+            throw e;
+        }
+    }
+
+    /**
+     * Deletes the key row if this claim still owns it. After a takeover the row belongs to the
+     * new owner and is left alone.
+     */
+    private void release(IdempotencyClaim claim) {
+        Integer released = transactionTemplate.execute(status ->
+                repository.release(claim.key(), claim.token(), IdempotencyRecord.Status.IN_PROGRESS));
+        if (released == null || released == 0) {
+            log.warn("Idempotency-Key {} was taken over before this request failed; left to its new owner", claim.key());
+        }
+    }
+
+    /**
+     * Returns the stored response if the key was already completed, or empty once this request
+     * owns the key.
+     */
+    private Optional<OrderResponse> claim(IdempotencyClaim claim, String requestHash) {
+        String key = claim.key();
+        // Second attempt covers a key released by a failed request between our insert and read
+        for (int attempt = 0; attempt < 2; attempt++) {
+            Instant now = Instant.now();
+            try {
+                transactionTemplate.executeWithoutResult(status -> repository.saveAndFlush(IdempotencyRecord.builder()
+                        .idempotencyKey(key)
+                        .requestHash(requestHash)
+                        .claimToken(claim.token())
+                        .status(IdempotencyRecord.Status.IN_PROGRESS)
+                        .createdAt(now)
+                        .build()));
+                return Optional.empty();
+            } catch (DataIntegrityViolationException e) {
+                log.debug("Idempotency-Key {} already exists", key);
+            }
+
+            Optional<IdempotencyRecord> existing = repository.findById(key);
+            if (existing.isEmpty()) {
+                continue;
+            }
+            IdempotencyRecord record = existing.get();
+            if (!record.getRequestHash().equals(requestHash)) {
+                throw new IdempotencyKeyMismatchException(key);
+            }
+            if (record.getStatus() == IdempotencyRecord.Status.COMPLETED) {
+                return Optional.of(fromJson(record.getResponse()));
+            }
+            Integer takenOver = transactionTemplate.execute(status -> repository.takeOver(key, requestHash, claim.token(), now,
+                    now.minus(lockTimeout), IdempotencyRecord.Status.IN_PROGRESS));
+            if (takenOver != null && takenOver == 1) {
+                log.warn("Took over Idempotency-Key {} abandoned for more than {}", key, lockTimeout);
+                return Optional.empty();
+            }
+            throw new IdempotencyKeyInUseException(key);
+        }
+        throw new IdempotencyKeyInUseException(key);
+    }
+
+    private OrderResponse await(String key, CompletableFuture<OrderResponse> result) {
+        try {
+            return result.get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new IdempotencyKeyInUseException(key);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IdempotencyKeyInUseException(key);
+        }
+    }
+
+    private String toJson(OrderResponse response) {
+        try {
+            return objectMapper.writeValueAsString(response);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize response for order " + response.getId(), e);
+        }
+    }
+
+    private OrderResponse fromJson(String response) {
+        try {
+            return objectMapper.readValue(response, OrderResponse.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not read stored order response", e);
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.microcommerce.orderservice.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microcommerce.orderservice.client.CustomerClient;
+import com.microcommerce.orderservice.client.InsufficientStockException;
+import com.microcommerce.orderservice.client.ProductClient;
+import com.microcommerce.orderservice.config.rabbitmq.RabbitMQConfig;
+import com.microcommerce.orderservice.dto.OrderDTO;
+import com.microcommerce.orderservice.dto.OrderItemDTO;
+import com.microcommerce.orderservice.dto.OrderItemResponse;
+import com.microcommerce.orderservice.dto.OrderResponse;
+import com.microcommerce.orderservice.model.Order;
+import com.microcommerce.orderservice.model.OrderItem;
+import com.microcommerce.orderservice.model.OutboxEvent;
+import com.microcommerce.orderservice.model.ProductDTO;
+import com.microcommerce.orderservice.repository.OrderRepository;
+import com.microcommerce.orderservice.repository.OutboxEventRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * The steps of placing an order, shared by the blocking and the reactive submission paths:
+ * look up the customer and products, build the order from the request, reserve its stock, then
+ * store it with its outbox event in one transaction.
+ */
+@Component
+@RequiredArgsConstructor
+class OrderPlacement {
+
+    private static final String PRODUCT_SERVICE = "product-service";
+
+    private final OrderRepository orderRepository;
+    private final CustomerClient customerClient;
+    private final ProductClient productClient;
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final IdempotencyService idempotencyService;
+
+    private final DiscoveryClient discoveryClient;
+
+    @Value("${order.stock.reserve-on-create:false}")
+    private boolean reserveOnCreate;
+
+    /**
+     * Each product-service instance keeps its own stock counters, so reservations spread over
+     * several of them would admit the same stock more than once.
+     */
+    @PostConstruct
+    void checkReservationTarget() {
+        int instances = discoveryClient.getInstances(PRODUCT_SERVICE).size();
+        if (reserveOnCreate && instances > 1) {
+            throw new IllegalStateException("order.stock.reserve-on-create needs a single product-service instance, "
+                    + instances + " are configured");
+        }
+    }
+
+    /**
+     * Validates the customer and looks up every product concurrently; no thread is held while
+     * the calls are in flight.
+     */
+    Mono<Map<Long, ProductDTO>> lookUp(Order orderRequest) {
+        Mono<Boolean> customerCheck = customerClient.verifyExists(orderRequest.getCustomerId())
+                .thenReturn(true);
+        List<Long> productIds = orderRequest.getOrderItems().stream()
+                .map(OrderItem::getProductId)
+                .distinct()
+                .toList();
+        Mono<Map<Long, ProductDTO>> productLookups = productClient.getProducts(productIds);
+
+        return Mono.zip(customerCheck, productLookups)
+                .map(Tuple2::getT2);
+    }
+
+    Order assemble(Order orderRequest, Map<Long, ProductDTO> products) {
+        Order newOrder = new Order();
+        newOrder.setCustomerId(orderRequest.getCustomerId());
+        newOrder.setOrderDate(LocalDate.now());
+        newOrder.setStatus("CREATED");
+
+        List<OrderItem> newOrderItems = new ArrayList<>();
+        for (OrderItem requestedItem : orderRequest.getOrderItems()) {
+            ProductDTO product = products.get(requestedItem.getProductId());
+            if (product == null) {
+                throw new IllegalArgumentException("Product with id " + requestedItem.getProductId() + " not found.");
+            }
+            OrderItem newItem = new OrderItem();
+            newItem.setProductId(requestedItem.getProductId());
+            newItem.setQuantity(requestedItem.getQuantity());
+            newItem.setPrice(product.getPrice());
+            newItem.setProductName(product.getName());
+            newItem.setOrder(newOrder);
+            newOrderItems.add(newItem);
+        }
+
+        newOrder.setOrderItems(newOrderItems);
+        return newOrder;
+    }
+
+    /**
+     * Holds the order's stock in product-service before the order is stored, so no more orders
+     * are accepted than there is stock. Its order.created event confirms the reservation. If
+     * the call fails or is cancelled after it may have reserved, the reservation is released.
+     */
+    Mono<Order> reserveStock(Order order) {
+        if (!reserveOnCreate) {
+            return Mono.just(order);
+        }
+        Map<Long, Integer> quantities = new TreeMap<>();
+        for (OrderItem item : order.getOrderItems()) {
+            quantities.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+        }
+        order.setReservationId(UUID.randomUUID().toString());
+        return productClient.reserve(order.getReservationId(), quantities)
+                .doOnError(e -> !(e instanceof InsufficientStockException), e -> releaseStock(order))
+                .doOnCancel(() -> releaseStock(order))
+                .thenReturn(order);
+    }
+
+    void releaseStock(Order order) {
+        if (order.getReservationId() != null) {
+            productClient.release(order.getReservationId());
+        }
+    }
+
+    /**
+     * Blocking: stores the order, its order.created outbox event and, when given, the response
+     * under its idempotency key, in one transaction.
+     */
+    OrderResponse save(Order newOrder, IdempotencyClaim claim) {
+        return transactionTemplate.execute(status -> {
+            Order savedOrder = orderRepository.save(newOrder);
+
+            // Create DTO for the order.created event, with what the order summary read model needs
+            List<OrderItemDTO> orderItemDTOs = savedOrder.getOrderItems().stream()
+                    .map(item -> new OrderItemDTO(item.getProductId(), item.getQuantity(), item.getProductName(), item.getPrice()))
+                    .toList();
+            OrderDTO orderDTO = new OrderDTO(savedOrder.getId(), savedOrder.getCustomerId(), orderItemDTOs,
+                    savedOrder.getOrderDate(), savedOrder.getStatus(), newOrder.getReservationId());
+
+            // Recorded in the same transaction as the order; OutboxRelay publishes it after commit
+            outboxEventRepository.save(toOutboxEvent(savedOrder.getId(), orderDTO));
+
+            OrderResponse response = toResponse(savedOrder);
+            if (claim != null) {
+                idempotencyService.complete(claim, response);
+            }
+            return response;
+        });
+    }
+
+    static OrderResponse toResponse(Order order) {
+        List<OrderItemResponse> items = order.getOrderItems().stream()
+                .map(item -> new OrderItemResponse(order.getId(), item.getId(), item.getProductId(), item.getQuantity(), item.getPrice()))
+                .toList();
+        return new OrderResponse(order.getId(), order.getCustomerId(), order.getOrderDate(), order.getStatus(), items);
+    }
+
+    private OutboxEvent toOutboxEvent(Long orderId, OrderDTO orderDTO) {
+        try {
+            return OutboxEvent.builder()
+                    .aggregateType("order")
+                    .aggregateId(orderId)
+                    .exchange(RabbitMQConfig.EXCHANGE_NAME)
+                    .routingKey(RabbitMQConfig.ROUTING_KEY)
+                    .payloadType(OrderDTO.class.getName())
+                    .payload(objectMapper.writeValueAsString(orderDTO))
+                    .createdAt(Instant.now())
+                    .build();
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize order " + orderId + " for the outbox", e);
+        }
+    }
+}
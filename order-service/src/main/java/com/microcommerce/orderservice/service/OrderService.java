@@ -1,12 +1,21 @@
 package com.microcommerce.orderservice.service;
 
+import com.microcommerce.orderservice.dto.OrderFilter;
+import com.microcommerce.orderservice.dto.OrderResponse;
 import com.microcommerce.orderservice.model.Order;
+import reactor.core.publisher.Mono;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface OrderService {
-    List<Order> getAllOrders();
-    Optional<Order> getOrderById(Long id);
-    Order createOrder(Order order);
+    List<OrderResponse> getOrders(long afterId, int limit);
+    List<OrderResponse> getOrders(OrderFilter filter, long afterId, int limit);
+    void forEachOrder(Consumer<OrderResponse> action);
+    Optional<OrderResponse> getOrderById(Long id);
+    List<OrderResponse> getOrdersByIds(Collection<Long> ids);
+    OrderResponse createOrder(Order order, String idempotencyKey);
+    Mono<OrderResponse> submitOrder(Order order, String idempotencyKey);
 }
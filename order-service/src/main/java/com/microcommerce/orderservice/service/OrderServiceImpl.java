@@ -1,28 +1,35 @@
 package com.microcommerce.orderservice.service;
 
-import com.microcommerce.orderservice.config.rabbitmq.RabbitMQConfig;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.microcommerce.orderservice.model.Order;
-import com.microcommerce.orderservice.model.OrderItem;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import com.microcommerce.orderservice.dto.OrderDTO;
+import com.microcommerce.orderservice.dto.OrderFilter;
 import com.microcommerce.orderservice.dto.OrderItemDTO;
+import com.microcommerce.orderservice.dto.OrderItemResponse;
+import com.microcommerce.orderservice.dto.OrderResponse;
 import com.microcommerce.orderservice.model.ProductDTO;
 import com.microcommerce.orderservice.repository.OrderRepository;
 import lombok.RequiredArgsConstructor;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.HttpHeaders;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.reactive.function.client.WebClient;
-import org.springframework.web.reactive.function.client.WebClientResponseException;
-
-import java.time.LocalDate;
-import java.util.ArrayList;
-import java.util.Base64;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HexFormat;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -31,98 +38,120 @@ public class OrderServiceImpl implements OrderService {
     private static final Logger log = LoggerFactory.getLogger(OrderServiceImpl.class);
 
     private final OrderRepository orderRepository;
-    private final WebClient.Builder webClientBuilder;
-    private final RabbitTemplate rabbitTemplate;
+    private final OrderPlacement placement;
+    private final OrderSubmissionPipeline submissionPipeline;
+    private final Scheduler jdbcScheduler;
+    private final ObjectMapper objectMapper;
+    private final IdempotencyService idempotencyService;
 
-    @Value("${customer.service.url}")
-    private String customerServiceUrl;
+    @Value("${order.validation.timeout:5s}")
+    private Duration validationTimeout;
 
-    @Value("${product.service.url}")
-    private String productServiceUrl;
+    @Value("${order.export.chunk-size:500}")
+    private int exportChunkSize;
 
+    /**
+     * Two statements per page regardless of its size: the order rows, then all of their items.
+     */
     @Override
-    public List<Order> getAllOrders() {
-        return orderRepository.findAll();
+    public List<OrderResponse> getOrders(long afterId, int limit) {
+        return getOrders(OrderFilter.NONE, afterId, limit);
     }
 
     @Override
-    public Optional<Order> getOrderById(Long id) {
-        return orderRepository.findById(id);
+    public List<OrderResponse> getOrders(OrderFilter filter, long afterId, int limit) {
+        List<OrderResponse> orders = orderRepository.findPage(filter, afterId, limit);
+        if (orders.isEmpty()) {
+            return orders;
+        }
+        Map<Long, OrderResponse> byId = orders.stream()
+                .collect(Collectors.toMap(OrderResponse::getId, Function.identity()));
+        for (OrderItemResponse item : orderRepository.findItemsByOrderIds(byId.keySet())) {
+            byId.get(item.getOrderId()).getOrderItems().add(item);
+        }
+        return orders;
     }
 
+    /**
+     * Walks the table in keyset pages, so only one page is held at a time and no transaction
+     * stays open for the whole export.
+     */
     @Override
-    @Transactional
-    public Order createOrder(Order orderRequest) {
-        log.info("Attempting to create an order...");
+    public void forEachOrder(Consumer<OrderResponse> action) {
+        long afterId = 0;
+        List<OrderResponse> chunk;
+        do {
+            chunk = getOrders(afterId, exportChunkSize);
+            chunk.forEach(action);
+            if (!chunk.isEmpty()) {
+                afterId = chunk.get(chunk.size() - 1).getId();
+            }
+        } while (chunk.size() == exportChunkSize);
+    }
 
-        String credentials = "admin:password";
-        String encodedCredentials = Base64.getEncoder().encodeToString(credentials.getBytes());
-        String authHeader = "Basic " + encodedCredentials;
+    @Override
+    public Optional<OrderResponse> getOrderById(Long id) {
+        return orderRepository.findWithItemsById(id).map(OrderPlacement::toResponse);
+    }
 
-        // Validate customer existence
-        try {
-            webClientBuilder.build().get()
-                    .uri(customerServiceUrl + "/{customerId}", orderRequest.getCustomerId())
-                    .header(HttpHeaders.AUTHORIZATION, authHeader)
-                    .retrieve()
-                    .bodyToMono(String.class)
-                    .block(); // block() for simplicity in this demo
-        } catch (WebClientResponseException e) {
-            log.error("Error validating customer: {}, status code: {}", e.getResponseBodyAsString(), e.getStatusCode());
-            if (e.getStatusCode().is4xxClientError()) {
-                throw new IllegalArgumentException("Customer with id " + orderRequest.getCustomerId() + " not found.", e);
-            }
-            throw new IllegalStateException("Error during customer validation: " + e.getMessage(), e);
-        }
+    @Override
+    public List<OrderResponse> getOrdersByIds(Collection<Long> ids) {
+        return orderRepository.findWithItemsByIdInOrderById(ids).stream().map(OrderPlacement::toResponse).toList();
+    }
 
+    @Override
+    public OrderResponse createOrder(Order orderRequest, String idempotencyKey) {
+        if (idempotencyKey == null) {
+            return placeOrder(orderRequest, null);
+        }
+        return idempotencyService.execute(idempotencyKey, fingerprint(orderRequest),
+                claim -> placeOrder(orderRequest, claim));
+    }
 
-        // Validate product existence for each order item
-        Order newOrder = new Order();
-        newOrder.setCustomerId(orderRequest.getCustomerId());
-        newOrder.setOrderDate(LocalDate.now());
-        newOrder.setStatus("CREATED");
-
-        List<OrderItem> newOrderItems = new ArrayList<>();
-        for (OrderItem requestedItem : orderRequest.getOrderItems()) {
-            try {
-                ProductDTO product = webClientBuilder.build().get()
-                        .uri(productServiceUrl + "/{productId}", requestedItem.getProductId())
-                        .header(HttpHeaders.AUTHORIZATION, authHeader)
-                        .retrieve()
-                        .bodyToMono(ProductDTO.class)
-                        .block();
-
-                if (product != null) {
-                    OrderItem newItem = new OrderItem();
-                    newItem.setProductId(requestedItem.getProductId());
-                    newItem.setQuantity(requestedItem.getQuantity());
-                    newItem.setPrice(product.getPrice());
-                    newItem.setOrder(newOrder);
-                    newOrderItems.add(newItem);
-                } else {
-                    throw new IllegalArgumentException("Product with id " + requestedItem.getProductId() + " not found or returned null.");
-                }
-            } catch (WebClientResponseException e) {
-                log.error("Error validating product: {}, status code: {}", e.getResponseBodyAsString(), e.getStatusCode());
-                if (e.getStatusCode().is4xxClientError()) {
-                    throw new IllegalArgumentException("Product with id " + requestedItem.getProductId() + " not found.", e);
-                }
-                throw new IllegalStateException("Error during product validation: " + e.getMessage(), e);
-            }
+    /**
+     * Reactive counterpart of {@link #createOrder}: the order goes through the submission
+     * pipeline and the caller's thread is never blocked.
+     */
+    @Override
+    public Mono<OrderResponse> submitOrder(Order orderRequest, String idempotencyKey) {
+        if (idempotencyKey == null) {
+            return submissionPipeline.submit(orderRequest, null);
         }
+        return idempotencyService.executeAsync(idempotencyKey, fingerprint(orderRequest),
+                        claim -> submissionPipeline.submit(orderRequest, claim), jdbcScheduler)
+                .onErrorMap(RejectedExecutionException.class, e ->
+                        new OrderSubmissionRejectedException("Too many orders waiting for the database, retry later."));
+    }
+
+    private OrderResponse placeOrder(Order orderRequest, IdempotencyClaim claim) {
+        log.info("Attempting to create an order...");
 
-        newOrder.setOrderItems(newOrderItems);
+        // Validate the customer and every product concurrently, under a single deadline
+        Map<Long, ProductDTO> products = placement.lookUp(orderRequest).block(validationTimeout);
+        Order newOrder = placement.assemble(orderRequest, products);
+        placement.reserveStock(newOrder).block(validationTimeout);
 
-        Order savedOrder = orderRepository.save(newOrder);
+        // Only the write path runs inside the transaction; validation above holds no connection
+        try {
+            return placement.save(newOrder, claim);
+        } catch (RuntimeException e) {
+            placement.releaseStock(newOrder);
+            throw e;
+        }
+    }
 
-        // Create DTO to send to RabbitMQ
-        List<OrderItemDTO> orderItemDTOs = savedOrder.getOrderItems().stream()
+    /**
+     * Hash of what the client asked for, used to reject an Idempotency-Key reused for another order.
+     */
+    private String fingerprint(Order orderRequest) {
+        List<OrderItemDTO> items = orderRequest.getOrderItems().stream()
                 .map(item -> new OrderItemDTO(item.getProductId(), item.getQuantity()))
                 .toList();
-        OrderDTO orderDTO = new OrderDTO(savedOrder.getId(), savedOrder.getCustomerId(), orderItemDTOs);
-
-        rabbitTemplate.convertAndSend(RabbitMQConfig.EXCHANGE_NAME, RabbitMQConfig.ROUTING_KEY, orderDTO);
-
-        return savedOrder;
+        try {
+            byte[] request = objectMapper.writeValueAsBytes(new OrderDTO(null, orderRequest.getCustomerId(), items));
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(request));
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Could not fingerprint order request", e);
+        }
     }
 }
@@ -0,0 +1,138 @@
+package com.microcommerce.orderservice.service;
+
+import com.microcommerce.orderservice.client.DownstreamUnavailableException;
+import com.microcommerce.orderservice.dto.OrderResponse;
+import com.microcommerce.orderservice.model.Order;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Scheduler;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Non-blocking order placement. Submissions wait in a bounded queue, at most
+ * {@code validation-concurrency} of them are validated at a time, and validated orders are
+ * written on the JDBC scheduler, no more at once than there are connections.
+ * <p>
+ * Each stage only pulls from the one before when it has room, so when downstream services or
+ * the database slow down the queue fills up and further orders are rejected with 503 instead of
+ * piling up. Waiting orders hold no thread.
+ */
+@Component
+public class OrderSubmissionPipeline {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderSubmissionPipeline.class);
+
+    private record Submission(Order request, IdempotencyClaim claim, MonoSink<OrderResponse> result) {
+    }
+
+    private record Validated(Submission submission, Order order) {
+    }
+
+    private final OrderPlacement placement;
+    private final Scheduler jdbcScheduler;
+    private final Duration validationTimeout;
+    private final Sinks.Many<Submission> queue;
+    private final AtomicInteger queued = new AtomicInteger();
+    private final Counter rejected;
+    private final Disposable pipeline;
+
+    public OrderSubmissionPipeline(OrderPlacement placement,
+                                   Scheduler jdbcScheduler,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${order.validation.timeout:5s}") Duration validationTimeout,
+                                   @Value("${order.pipeline.queue-capacity:10000}") int queueCapacity,
+                                   @Value("${order.pipeline.validation-concurrency:64}") int validationConcurrency,
+                                   @Value("${spring.datasource.hikari.maximum-pool-size:10}") int writeConcurrency) {
+        this.placement = placement;
+        this.jdbcScheduler = jdbcScheduler;
+        this.validationTimeout = validationTimeout;
+        this.queue = Sinks.many().unicast().onBackpressureBuffer(new ArrayBlockingQueue<>(queueCapacity));
+        Gauge.builder("order.pipeline.queued", queued, AtomicInteger::get)
+                .description("Orders waiting to be validated")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("order.pipeline.rejected")
+                .description("Orders turned away because the pipeline was full")
+                .register(meterRegistry);
+        this.pipeline = queue.asFlux()
+                .doOnNext(submission -> queued.decrementAndGet())
+                .flatMap(this::validate, validationConcurrency)
+                .flatMap(this::write, writeConcurrency)
+                // Last line of defence: a failure that escapes a stage fails that order, never the
+                // subscription, which would turn every later submission away
+                .onErrorContinue((e, element) -> {
+                    log.error("Order submission failed outside its pipeline stage", e);
+                    if (element instanceof Submission submission) {
+                        submission.result().error(e);
+                    } else if (element instanceof Validated validated) {
+                        validated.submission().result().error(e);
+                    }
+                })
+                .subscribe();
+    }
+
+    public Mono<OrderResponse> submit(Order orderRequest, IdempotencyClaim claim) {
+        return Mono.create(sink -> {
+            queued.incrementAndGet();
+            Sinks.EmitResult result;
+            // The sink takes one emitter at a time; the section is a queue offer, never a wait
+            synchronized (queue) {
+                result = queue.tryEmitNext(new Submission(orderRequest, claim, sink));
+            }
+            if (result.isFailure()) {
+                queued.decrementAndGet();
+                rejected.increment();
+                sink.error(new OrderSubmissionRejectedException("Too many orders waiting to be placed, retry later."));
+            }
+        });
+    }
+
+    @PreDestroy
+    void stop() {
+        pipeline.dispose();
+    }
+
+    private Mono<Validated> validate(Submission submission) {
+        // Deferred so an exception thrown while building the lookups reaches onErrorResume below
+        return Mono.defer(() -> placement.lookUp(submission.request()))
+                .map(products -> placement.assemble(submission.request(), products))
+                .flatMap(placement::reserveStock)
+                .map(order -> new Validated(submission, order))
+                .timeout(validationTimeout)
+                .onErrorMap(TimeoutException.class, e -> new DownstreamUnavailableException(
+                        "Order validation did not finish within " + validationTimeout.toMillis() + "ms", e))
+                .onErrorResume(e -> {
+                    submission.result().error(e);
+                    return Mono.empty();
+                });
+    }
+
+    private Mono<Void> write(Validated validated) {
+        Submission submission = validated.submission();
+        return Mono.defer(() -> Mono.fromCallable(() -> placement.save(validated.order(), submission.claim()))
+                        .subscribeOn(jdbcScheduler))
+                .doOnNext(submission.result()::success)
+                .onErrorResume(e -> {
+                    placement.releaseStock(validated.order());
+                    submission.result().error(e instanceof RejectedExecutionException
+                            ? new OrderSubmissionRejectedException("Too many orders waiting for the database, retry later.")
+                            : e);
+                    return Mono.empty();
+                })
+                .then();
+    }
+}
@@ -0,0 +1,16 @@
+package com.microcommerce.orderservice.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * The reactive order pipeline is full: its queue of orders waiting for validation, or the
+ * queue in front of the database, has no room left.
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class OrderSubmissionRejectedException extends IllegalStateException {
+
+    public OrderSubmissionRejectedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,132 @@
+package com.microcommerce.orderservice.service;
+
+import com.microcommerce.orderservice.dto.OrderDTO;
+import com.microcommerce.orderservice.dto.OrderHistoryCursor;
+import com.microcommerce.orderservice.dto.OrderResponse;
+import com.microcommerce.orderservice.model.OrderSummary;
+import com.microcommerce.orderservice.repository.OrderSummaryRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Maintains the order summary read model from order.created events and answers order history
+ * queries from it, without touching the order tables.
+ */
+@Service
+public class OrderSummaryService {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderSummaryService.class);
+
+    private final OrderSummaryRepository summaryRepository;
+    private final OrderService orderService;
+    private final boolean backfillOnStartup;
+    private final int backfillChunkSize;
+
+    public OrderSummaryService(OrderSummaryRepository summaryRepository,
+                               OrderService orderService,
+                               @Value("${order.summary.backfill-on-startup:true}") boolean backfillOnStartup,
+                               @Value("${order.summary.backfill-chunk-size:500}") int backfillChunkSize) {
+        this.summaryRepository = summaryRepository;
+        this.orderService = orderService;
+        this.backfillOnStartup = backfillOnStartup;
+        this.backfillChunkSize = backfillChunkSize;
+    }
+
+    /**
+     * Stores the summary of an order.created event. The summary depends on the event alone, so a
+     * redelivered event just writes the same row again.
+     */
+    public void project(OrderDTO event) {
+        if (event.getOrderDate() == null) {
+            // Published before events carried the order; build it from the order tables once
+            orderService.getOrderById(event.getId())
+                    .ifPresentOrElse(order -> summaryRepository.save(toSummary(order)),
+                            () -> log.warn("Order {} from order.created event not found, no summary stored", event.getId()));
+            return;
+        }
+        List<OrderSummary.Line> lines = event.getOrderItems().stream()
+                .map(item -> new OrderSummary.Line(item.getProductId(), item.getProductName(), item.getQuantity(), item.getPrice()))
+                .toList();
+        summaryRepository.save(summarize(event.getId(), event.getCustomerId(), event.getOrderDate(), event.getStatus(), lines));
+    }
+
+    /**
+     * One page of a customer's orders between {@code from} and {@code to} (inclusive), newest
+     * first. Pass the cursor of the last summary of a page as {@code after} to get the next one.
+     */
+    public List<OrderSummary> getHistory(Long customerId, LocalDate from, LocalDate to, OrderHistoryCursor after, int limit) {
+        LocalDate beforeDate = after == null ? to : after.orderDate();
+        long beforeId = after == null ? Long.MAX_VALUE : after.orderId();
+        return summaryRepository.findHistoryPage(customerId, from, beforeDate, beforeId, Limit.of(limit));
+    }
+
+    /**
+     * Summarizes every order that has no summary: orders placed before the read model existed,
+     * those whose event was dead-lettered, and whatever an interrupted backfill did not reach.
+     * Runs on each start; orders that already have a summary are left alone, including those the
+     * listener summarizes while a chunk is being built, since the backfill only ever inserts.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        if (!backfillOnStartup) {
+            return;
+        }
+        long afterId = 0;
+        long created = 0;
+        List<Long> chunk;
+        do {
+            chunk = summaryRepository.findUnsummarizedOrderIds(afterId, Limit.of(backfillChunkSize));
+            if (chunk.isEmpty()) {
+                break;
+            }
+            for (OrderResponse order : orderService.getOrdersByIds(chunk)) {
+                if (summaryRepository.insertIfAbsent(toSummary(order))) {
+                    created++;
+                }
+            }
+            afterId = chunk.get(chunk.size() - 1);
+        } while (chunk.size() == backfillChunkSize);
+        if (created > 0) {
+            log.info("Backfilled {} order summaries", created);
+        }
+    }
+
+    // Product names are not stored with the order, so summaries built from it have none
+    private OrderSummary toSummary(OrderResponse order) {
+        List<OrderSummary.Line> lines = order.getOrderItems().stream()
+                .map(item -> new OrderSummary.Line(item.getProductId(), null, item.getQuantity(), item.getPrice()))
+                .toList();
+        return summarize(order.getId(), order.getCustomerId(), order.getOrderDate(), order.getStatus(), lines);
+    }
+
+    private static OrderSummary summarize(Long orderId, Long customerId, LocalDate orderDate, String status,
+                                          List<OrderSummary.Line> lines) {
+        int itemCount = 0;
+        BigDecimal total = BigDecimal.ZERO;
+        for (OrderSummary.Line line : lines) {
+            itemCount += line.getQuantity();
+            if (line.getPrice() != null) {
+                total = total.add(line.getPrice().multiply(BigDecimal.valueOf(line.getQuantity())));
+            }
+        }
+        return OrderSummary.builder()
+                .orderId(orderId)
+                .customerId(customerId)
+                .orderDate(orderDate)
+                .status(status)
+                .itemCount(itemCount)
+                .lineCount(lines.size())
+                .total(total)
+                .lines(lines)
+                .build();
+    }
+}
@@ -0,0 +1,165 @@
+package com.microcommerce.orderservice.service;
+
+import com.microcommerce.orderservice.model.OutboxEvent;
+import com.microcommerce.orderservice.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageBuilder;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publishes pending {@link OutboxEvent}s to RabbitMQ in batches and marks them published once
+ * the broker has confirmed them. Events are claimed with SKIP LOCKED so several order-service
+ * instances can relay side by side; delivery is at-least-once.
+ */
+@Component
+public class OutboxRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final RabbitTemplate rabbitTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final Duration confirmTimeout;
+    private final Duration retention;
+
+    private final AtomicLong pendingEvents = new AtomicLong();
+    private final AtomicLong lagMillis = new AtomicLong();
+    private final Counter publishedCounter;
+    private final Counter failedCounter;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+                       RabbitTemplate rabbitTemplate,
+                       TransactionTemplate transactionTemplate,
+                       MeterRegistry meterRegistry,
+                       @Value("${order.outbox.relay.batch-size:100}") int batchSize,
+                       @Value("${order.outbox.relay.confirm-timeout:5s}") Duration confirmTimeout,
+                       @Value("${order.outbox.retention:24h}") Duration retention) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.rabbitTemplate = rabbitTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.confirmTimeout = confirmTimeout;
+        this.retention = retention;
+
+        Gauge.builder("order.outbox.pending", pendingEvents, AtomicLong::get)
+                .description("Outbox events not yet confirmed by the broker")
+                .register(meterRegistry);
+        Gauge.builder("order.outbox.lag", lagMillis, lag -> lag.get() / 1000.0)
+                .description("Age of the oldest unpublished outbox event")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        this.publishedCounter = Counter.builder("order.outbox.published")
+                .description("Outbox events confirmed by the broker")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("order.outbox.failed")
+                .description("Outbox events nacked or not confirmed in time")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${order.outbox.relay.interval-ms:200}")
+    public void relay() {
+        try {
+            Integer confirmed;
+            do {
+                confirmed = transactionTemplate.execute(status -> publishBatch());
+            } while (confirmed != null && confirmed == batchSize);
+        } catch (RuntimeException e) {
+            log.error("Outbox relay failed, will retry on next run", e);
+        } finally {
+            refreshLag();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${order.outbox.cleanup.interval-ms:3600000}")
+    public void purgePublished() {
+        Integer deleted = transactionTemplate.execute(status ->
+                outboxEventRepository.deletePublishedBefore(Instant.now().minus(retention)));
+        log.debug("Purged {} published outbox events", deleted);
+    }
+
+    private int publishBatch() {
+        List<OutboxEvent> events = outboxEventRepository.claimPending(PageRequest.of(0, batchSize));
+        if (events.isEmpty()) {
+            return 0;
+        }
+
+        // Publish the whole batch first, then wait for the confirms together
+        List<CorrelationData> confirms = new ArrayList<>(events.size());
+        for (OutboxEvent event : events) {
+            CorrelationData correlationData = new CorrelationData(String.valueOf(event.getId()));
+            rabbitTemplate.send(event.getExchange(), event.getRoutingKey(), toMessage(event), correlationData);
+            confirms.add(correlationData);
+        }
+
+        List<Long> acked = new ArrayList<>(events.size());
+        long deadline = System.nanoTime() + confirmTimeout.toNanos();
+        for (int i = 0; i < events.size(); i++) {
+            Long eventId = events.get(i).getId();
+            try {
+                long remaining = Math.max(0, deadline - System.nanoTime());
+                CorrelationData.Confirm confirm = confirms.get(i).getFuture().get(remaining, TimeUnit.NANOSECONDS);
+                if (confirm.isAck()) {
+                    acked.add(eventId);
+                } else {
+                    failedCounter.increment();
+                    log.warn("Broker nacked outbox event {}: {}", eventId, confirm.getReason());
+                }
+            } catch (TimeoutException | ExecutionException e) {
+                failedCounter.increment();
+                log.warn("No confirm for outbox event {} within {}", eventId, confirmTimeout);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+
+        if (!acked.isEmpty()) {
+            outboxEventRepository.markPublished(acked, Instant.now());
+            publishedCounter.increment(acked.size());
+        }
+        return acked.size();
+    }
+
+    private Message toMessage(OutboxEvent event) {
+        return MessageBuilder.withBody(event.getPayload().getBytes(StandardCharsets.UTF_8))
+                .setContentType(MessageProperties.CONTENT_TYPE_JSON)
+                .setContentEncoding(StandardCharsets.UTF_8.name())
+                .setMessageId(event.getAggregateType() + "-" + event.getAggregateId() + "-" + event.getId())
+                .setHeader("__TypeId__", event.getPayloadType())
+                .build();
+    }
+
+    private void refreshLag() {
+        try {
+            pendingEvents.set(outboxEventRepository.countByPublishedAtIsNull());
+            lagMillis.set(outboxEventRepository.findFirstByPublishedAtIsNullOrderByIdAsc()
+                    .map(oldest -> Duration.between(oldest.getCreatedAt(), Instant.now()).toMillis())
+                    .orElse(0L));
+        } catch (RuntimeException e) {
+            log.warn("Could not refresh outbox lag metrics", e);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Map;
+
+/**
+ * Moves the id sequences from V3 past the ids a baselined database already holds. Hibernate's
+ * pooled optimizer hands out the 50 ids up to each value it reads, so the next value must be at
+ * least the highest id plus 50. Written in Java because Postgres and H2 share no way to set a
+ * sequence from a query.
+ */
+public class V4__AdvanceIdSequences extends BaseJavaMigration {
+
+    private static final int ALLOCATION_SIZE = 50;
+
+    private static final Map<String, String> SEQUENCES = Map.of(
+            "orders", "orders_seq",
+            "order_item", "order_item_seq");
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        try (Statement statement = context.getConnection().createStatement()) {
+            for (Map.Entry<String, String> sequence : SEQUENCES.entrySet()) {
+                long maxId;
+                try (ResultSet result = statement.executeQuery("select coalesce(max(id), 0) from " + sequence.getKey())) {
+                    result.next();
+                    maxId = result.getLong(1);
+                }
+                if (maxId > 0) {
+                    statement.execute("alter sequence " + sequence.getValue() + " restart with " + (maxId + ALLOCATION_SIZE));
+                }
+            }
+        }
+    }
+}
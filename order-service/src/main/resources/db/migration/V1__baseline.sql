@@ -0,0 +1,22 @@
+-- Schema as created by ddl-auto=update in the last release before Flyway: orders and order_item
+-- with identity ids. Databases from that release are baselined at this version
+-- (spring.flyway.baseline-on-migrate) and pick up everything else from V2 on.
+
+create table orders (
+    id bigint generated by default as identity,
+    customer_id bigint,
+    order_date date,
+    status varchar(255),
+    primary key (id)
+);
+
+create table order_item (
+    id bigint generated by default as identity,
+    order_id bigint,
+    product_id bigint,
+    quantity integer,
+    price numeric(38,2),
+    primary key (id)
+);
+
+alter table order_item add constraint fk_order_item_order foreign key (order_id) references orders (id);
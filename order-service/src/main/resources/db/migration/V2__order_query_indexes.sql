@@ -0,0 +1,3 @@
+-- Filtered order queries: a customer's orders by date, and the items of a page of orders
+create index if not exists idx_orders_customer_date on orders (customer_id, order_date);
+create index if not exists idx_order_item_order on order_item (order_id);
@@ -0,0 +1,7 @@
+-- Ids come from sequences handing out blocks of 50 (allocationSize 50), so inserts can be batched.
+-- V4 moves the sequences past the ids already in the tables.
+alter table orders alter column id drop identity;
+alter table order_item alter column id drop identity;
+
+create sequence if not exists orders_seq start with 1 increment by 50;
+create sequence if not exists order_item_seq start with 1 increment by 50;
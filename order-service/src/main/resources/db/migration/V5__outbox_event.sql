@@ -0,0 +1,17 @@
+-- Events written in the order transaction and published to RabbitMQ by the outbox relay
+create sequence if not exists outbox_event_seq start with 1 increment by 50;
+
+create table if not exists outbox_event (
+    id bigint not null,
+    aggregate_type varchar(255),
+    aggregate_id bigint,
+    exchange varchar(255),
+    routing_key varchar(255),
+    payload_type varchar(255),
+    payload text,
+    created_at timestamp(6) with time zone,
+    published_at timestamp(6) with time zone,
+    primary key (id)
+);
+
+create index if not exists idx_outbox_event_pending on outbox_event (published_at, id);
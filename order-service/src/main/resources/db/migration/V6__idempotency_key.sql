@@ -0,0 +1,17 @@
+-- Idempotency-Key claims and stored responses. claim_token identifies the request that holds an
+-- IN_PROGRESS key, so a request whose claim was taken over cannot complete or release it.
+create table if not exists idempotency_key (
+    idempotency_key varchar(255) not null,
+    request_hash varchar(255),
+    status varchar(255) check (status in ('IN_PROGRESS', 'COMPLETED')),
+    order_id bigint,
+    response text,
+    claim_token varchar(36),
+    created_at timestamp(6) with time zone,
+    completed_at timestamp(6) with time zone,
+    primary key (idempotency_key)
+);
+
+alter table idempotency_key add column if not exists claim_token varchar(36);
+
+create index if not exists idx_idempotency_key_completed on idempotency_key (status, completed_at);
@@ -0,0 +1,17 @@
+-- Read model for order history, one row per order with its lines as JSON text
+create table if not exists order_summary (
+    order_id bigint not null,
+    customer_id bigint,
+    order_date date,
+    status varchar(255),
+    item_count integer,
+    line_count integer,
+    total numeric(38,2),
+    lines text,
+    primary key (order_id)
+);
+
+-- A table created by ddl-auto has lines as jsonb
+alter table order_summary alter column lines set data type text;
+
+create index if not exists idx_order_summary_customer_date on order_summary (customer_id, order_date, order_id);
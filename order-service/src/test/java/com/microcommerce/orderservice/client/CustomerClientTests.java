@@ -0,0 +1,106 @@
+package com.microcommerce.orderservice.client;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Runs the client against a local stub of customer-service's id snapshot and HEAD endpoints.
+ */
+class CustomerClientTests {
+
+    private static final int PAGE_SIZE = 10;
+
+    private HttpServer server;
+    private final Set<Long> customers = new ConcurrentSkipListSet<>();
+    private final AtomicInteger snapshotRequests = new AtomicInteger();
+    private final AtomicInteger headRequests = new AtomicInteger();
+    private CustomerClient client;
+
+    @BeforeEach
+    void startStub() throws IOException {
+        LongStream.rangeClosed(1, 25).map(id -> id * 2).forEach(customers::add);
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/ids", this::ids);
+        server.createContext("/", exchange -> {
+            headRequests.incrementAndGet();
+            long id = Long.parseLong(exchange.getRequestURI().getPath().substring(1));
+            exchange.sendResponseHeaders(customers.contains(id) ? 200 : 404, -1);
+            exchange.close();
+        });
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        Duration timeout = Duration.ofSeconds(5);
+        DownstreamGuard guard = new DownstreamGuard("customer-service", CircuitBreaker.ofDefaults("customer-service"),
+                Bulkhead.ofDefaults("customer-service"), new AdaptiveTimeout(timeout, timeout, timeout), meterRegistry);
+        client = new CustomerClient(WebClient.create("http://localhost:" + server.getAddress().getPort()), guard,
+                meterRegistry, 1000, Duration.ofMinutes(30), true, 1000, 0.01, timeout, PAGE_SIZE);
+    }
+
+    @AfterEach
+    void stopStub() {
+        server.stop(0);
+    }
+
+    @Test
+    void snapshotIsReadPageByPageAndRejectsUnknownIdsWithoutACall() {
+        client.rebuildFilter();
+
+        assertThat(snapshotRequests.get()).isEqualTo(3);
+        client.verifyExists(2L).block();
+        client.verifyExists(50L).block();
+        assertThat(headRequests.get()).isEqualTo(2);
+        // Below the snapshot's highest id and not in it
+        assertThatThrownBy(() -> client.verifyExists(3L).block()).isInstanceOf(IllegalArgumentException.class);
+        assertThat(headRequests.get()).isEqualTo(2);
+    }
+
+    @Test
+    void idsAboveTheSnapshotAreCheckedDownstream() {
+        client.rebuildFilter();
+        // Created after the snapshot, and its customer.created event has not arrived
+        customers.add(51L);
+
+        client.verifyExists(51L).block();
+        assertThatThrownBy(() -> client.verifyExists(53L).block()).isInstanceOf(IllegalArgumentException.class);
+        assertThat(headRequests.get()).isEqualTo(2);
+    }
+
+    private void ids(HttpExchange exchange) throws IOException {
+        snapshotRequests.incrementAndGet();
+        String query = exchange.getRequestURI().getQuery();
+        long afterId = Long.parseLong(query.replaceAll(".*afterId=(\\d+).*", "$1"));
+        int limit = Integer.parseInt(query.replaceAll(".*limit=(\\d+).*", "$1"));
+        List<Long> page = customers.stream().filter(id -> id > afterId).limit(limit).toList();
+        byte[] body = page.stream().map(String::valueOf).collect(Collectors.joining(",", "[", "]"))
+                .getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, body.length);
+        exchange.getResponseBody().write(body);
+        exchange.close();
+    }
+}
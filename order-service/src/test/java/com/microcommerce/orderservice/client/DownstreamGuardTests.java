@@ -0,0 +1,136 @@
+package com.microcommerce.orderservice.client;
+
+import com.sun.net.httpserver.HttpServer;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Runs the guard against a local stub server whose latency can be changed between calls.
+ */
+class DownstreamGuardTests {
+
+    private HttpServer server;
+    private final AtomicLong latencyMs = new AtomicLong();
+    private final AtomicInteger requests = new AtomicInteger();
+    private WebClient webClient;
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void startStub() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", exchange -> {
+            requests.incrementAndGet();
+            try {
+                Thread.sleep(latencyMs.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] body = "ok".getBytes();
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+        webClient = WebClient.create("http://localhost:" + server.getAddress().getPort());
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void stopStub() {
+        server.stop(0);
+    }
+
+    @Test
+    void slowDownstreamOpensBreakerAndLaterCallsFailFast() {
+        CircuitBreaker breaker = CircuitBreaker.of("stub", CircuitBreakerConfig.custom()
+                .slidingWindowSize(4)
+                .minimumNumberOfCalls(4)
+                .waitDurationInOpenState(Duration.ofMinutes(1))
+                .build());
+        DownstreamGuard guard = guard(breaker, 8, Duration.ofMillis(100), Duration.ofMillis(300));
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(guard.protect(call()).block()).isEqualTo("ok");
+        }
+
+        latencyMs.set(2000);
+        // Two timeouts in a window of four calls reach the default 50% failure threshold
+        for (int i = 0; i < 2; i++) {
+            assertThatThrownBy(() -> guard.protect(call()).block())
+                    .isInstanceOf(DownstreamUnavailableException.class)
+                    .hasMessageContaining("did not answer");
+        }
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+
+        int before = requests.get();
+        long start = System.nanoTime();
+        assertThatThrownBy(() -> guard.protect(call()).block())
+                .isInstanceOf(DownstreamUnavailableException.class)
+                .hasMessageContaining("circuit breaker open");
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofMillis(50));
+        assertThat(requests.get()).isEqualTo(before);
+        assertThat(meterRegistry.get("downstream.rejected").tag("reason", "circuit_open").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("downstream.rejected").tag("reason", "timeout").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    void fullBulkheadRejectsWithoutWaiting() {
+        DownstreamGuard guard = guard(CircuitBreaker.ofDefaults("stub"), 1, Duration.ofMillis(100), Duration.ofSeconds(5));
+        latencyMs.set(500);
+
+        Mono<String> inFlight = guard.protect(call()).cache();
+        inFlight.subscribe();
+
+        assertThatThrownBy(() -> guard.protect(call()).block())
+                .isInstanceOf(DownstreamUnavailableException.class)
+                .hasMessageContaining("saturated");
+        assertThat(inFlight.block()).isEqualTo("ok");
+        assertThat(meterRegistry.get("downstream.rejected").tag("reason", "bulkhead_full").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void timeoutTracksObservedLatency() {
+        AdaptiveTimeout timeout = new AdaptiveTimeout(Duration.ofSeconds(3), Duration.ofMillis(50), Duration.ofSeconds(3));
+        for (int i = 0; i < 50; i++) {
+            timeout.record(Duration.ofMillis(20));
+        }
+        assertThat(timeout.current()).isLessThan(Duration.ofMillis(200));
+
+        for (int i = 0; i < 50; i++) {
+            timeout.record(Duration.ofMillis(400));
+        }
+        assertThat(timeout.current()).isBetween(Duration.ofMillis(400), Duration.ofSeconds(3));
+    }
+
+    private Mono<String> call() {
+        return webClient.get().uri("/").retrieve().bodyToMono(String.class);
+    }
+
+    private DownstreamGuard guard(CircuitBreaker breaker, int maxConcurrentCalls, Duration min, Duration max) {
+        Bulkhead bulkhead = Bulkhead.of("stub", BulkheadConfig.custom()
+                .maxConcurrentCalls(maxConcurrentCalls)
+                .maxWaitDuration(Duration.ZERO)
+                .build());
+        return new DownstreamGuard("stub", breaker, bulkhead, new AdaptiveTimeout(max, min, max), meterRegistry);
+    }
+}
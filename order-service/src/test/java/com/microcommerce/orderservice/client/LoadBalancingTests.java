@@ -0,0 +1,124 @@
+package com.microcommerce.orderservice.client;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Sends calls through the product-service WebClient to three local stub instances of product-service.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.rabbitmq.listener.simple.auto-startup=false",
+        "order.outbox.relay.interval-ms=3600000",
+        "order.outbox.cleanup.interval-ms=3600000",
+        "loadbalancer.clients.product-service.policy=round-robin",
+        "loadbalancer.ejection.consecutive-failures=3",
+        "loadbalancer.ejection.duration=1m"
+})
+class LoadBalancingTests {
+
+    private static final List<Stub> stubs = List.of(new Stub(), new Stub(), new Stub());
+
+    @Autowired
+    @Qualifier("productWebClient")
+    private WebClient productWebClient;
+
+    @DynamicPropertySource
+    static void instances(DynamicPropertyRegistry registry) {
+        for (int i = 0; i < stubs.size(); i++) {
+            Stub stub = stubs.get(i);
+            registry.add("spring.cloud.discovery.client.simple.instances.product-service[" + i + "].uri", stub::uri);
+        }
+    }
+
+    @AfterAll
+    static void stopStubs() {
+        stubs.forEach(stub -> stub.server.stop(0));
+    }
+
+    @BeforeEach
+    void resetStubs() {
+        stubs.forEach(Stub::reset);
+    }
+
+    @Test
+    void callsAreSpreadOverAllInstances() {
+        for (int i = 0; i < 30; i++) {
+            assertThat(get()).isEqualTo("ok");
+        }
+
+        assertThat(stubs).allSatisfy(stub -> assertThat(stub.requests.get()).isEqualTo(10));
+    }
+
+    @Test
+    @DirtiesContext
+    void failingInstanceIsRetriedAroundAndThenEjected() {
+        Stub failing = stubs.get(0);
+        failing.failing.set(true);
+
+        for (int i = 0; i < 30; i++) {
+            // A 503 from the failing instance is retried on the next one
+            assertThat(get()).isEqualTo("ok");
+        }
+
+        // Three consecutive failures eject it; the remaining calls only reach the healthy two
+        assertThat(failing.requests.get()).isEqualTo(3);
+        assertThat(stubs.get(1).requests.get() + stubs.get(2).requests.get()).isEqualTo(30);
+    }
+
+    private String get() {
+        return productWebClient.get().uri("/ping").retrieve().bodyToMono(String.class).block();
+    }
+
+    private static class Stub {
+
+        private final HttpServer server;
+        private final AtomicInteger requests = new AtomicInteger();
+        private final AtomicBoolean failing = new AtomicBoolean();
+
+        Stub() {
+            try {
+                server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+            server.createContext("/", exchange -> {
+                requests.incrementAndGet();
+                int status = failing.get() ? 503 : 200;
+                byte[] body = (failing.get() ? "unavailable" : "ok").getBytes();
+                exchange.sendResponseHeaders(status, body.length);
+                exchange.getResponseBody().write(body);
+                exchange.close();
+            });
+            server.setExecutor(Executors.newCachedThreadPool());
+            server.start();
+        }
+
+        String uri() {
+            return "http://localhost:" + server.getAddress().getPort();
+        }
+
+        void reset() {
+            requests.set(0);
+            failing.set(false);
+        }
+    }
+}
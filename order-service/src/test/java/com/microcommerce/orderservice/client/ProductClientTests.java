@@ -0,0 +1,118 @@
+package com.microcommerce.orderservice.client;
+
+import com.microcommerce.orderservice.model.ProductDTO;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the client against a local stub of product-service's batch lookup.
+ */
+class ProductClientTests {
+
+    private HttpServer server;
+    private final AtomicInteger lookups = new AtomicInteger();
+    private final AtomicReference<String> price = new AtomicReference<>("1.00");
+    private volatile CountDownLatch lookupStarted = new CountDownLatch(0);
+    private volatile CountDownLatch lookupProceeds = new CountDownLatch(0);
+    private ProductClient client;
+
+    @BeforeEach
+    void startStub() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", this::lookup);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        Duration timeout = Duration.ofSeconds(5);
+        DownstreamGuard guard = new DownstreamGuard("product-service", CircuitBreaker.ofDefaults("product-service"),
+                Bulkhead.ofDefaults("product-service"), new AdaptiveTimeout(timeout, timeout, timeout), meterRegistry);
+        client = new ProductClient(WebClient.create("http://localhost:" + server.getAddress().getPort()), guard,
+                meterRegistry, 500, 4, 1000, Duration.ofMinutes(10), Duration.ofMinutes(1), false);
+    }
+
+    @AfterEach
+    void stopStub() {
+        server.stop(0);
+    }
+
+    @Test
+    void lookupsAreServedFromTheCacheUntilInvalidated() {
+        assertThat(priceOf(1L)).isEqualByComparingTo("1.00");
+        price.set("2.00");
+        assertThat(priceOf(1L)).isEqualByComparingTo("1.00");
+        assertThat(lookups.get()).isEqualTo(1);
+
+        client.invalidate(1L);
+
+        assertThat(priceOf(1L)).isEqualByComparingTo("2.00");
+        assertThat(lookups.get()).isEqualTo(2);
+    }
+
+    @Test
+    void invalidationDuringALookupIsNotUndoneByItsResult() throws Exception {
+        lookupStarted = new CountDownLatch(1);
+        lookupProceeds = new CountDownLatch(1);
+        CompletableFuture<BigDecimal> inFlight = CompletableFuture.supplyAsync(() -> priceOf(1L));
+        assertThat(lookupStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // The update lands after product-service answered the lookup but before its result is cached
+        client.invalidate(1L);
+        price.set("2.00");
+        lookupProceeds.countDown();
+
+        assertThat(inFlight.get(5, TimeUnit.SECONDS)).isEqualByComparingTo("1.00");
+        assertThat(priceOf(1L)).isEqualByComparingTo("2.00");
+        assertThat(lookups.get()).isEqualTo(2);
+        // A lookup started after the invalidation is cached as usual
+        assertThat(priceOf(1L)).isEqualByComparingTo("2.00");
+        assertThat(lookups.get()).isEqualTo(2);
+    }
+
+    private BigDecimal priceOf(Long productId) {
+        Map<Long, ProductDTO> products = client.getProducts(List.of(productId)).block(Duration.ofSeconds(5));
+        return products.get(productId).getPrice();
+    }
+
+    private void lookup(HttpExchange exchange) throws IOException {
+        lookups.incrementAndGet();
+        String query = exchange.getRequestURI().getQuery();
+        long id = Long.parseLong(query.replaceAll(".*ids=(\\d+).*", "$1"));
+        byte[] body = ("{\"products\":[{\"id\":" + id + ",\"name\":\"p" + id + "\",\"price\":" + price.get()
+                + ",\"stock\":10}],\"missingIds\":[]}").getBytes(StandardCharsets.UTF_8);
+        lookupStarted.countDown();
+        try {
+            lookupProceeds.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, body.length);
+        exchange.getResponseBody().write(body);
+        exchange.close();
+    }
+}
@@ -0,0 +1,176 @@
+package com.microcommerce.orderservice.controller;
+
+import com.microcommerce.orderservice.client.CustomerClient;
+import com.microcommerce.orderservice.client.ProductClient;
+import com.microcommerce.orderservice.model.ProductDTO;
+import com.microcommerce.orderservice.security.ServiceTokenProvider;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.BDDMockito.given;
+
+/**
+ * Drives blocking order creation with more concurrent clients than Tomcat has platform threads,
+ * once per threading mode. Each order waits on customer and product lookups that take
+ * {@link #DOWNSTREAM_LATENCY}, so with platform threads throughput is capped at
+ * {@code threads / latency}; with virtual threads it is bounded by the clients instead.
+ * The virtual-thread run needs Java 21 and is skipped on older JVMs.
+ */
+@Tag("benchmark")
+class ThreadingModeLoadTests {
+
+    // Small enough that the thread cap, not the machine running both parties, is the bottleneck
+    private static final int TOMCAT_THREADS = 16;
+    private static final int CLIENTS = 64;
+    private static final Duration DOWNSTREAM_LATENCY = Duration.ofMillis(200);
+    private static final Duration PHASE = Duration.ofSeconds(5);
+
+    private static final Logger log = LoggerFactory.getLogger(ThreadingModeLoadTests.class);
+
+    private static final Map<String, Double> ordersPerSecond = new ConcurrentHashMap<>();
+
+    @AfterAll
+    static void compareModes() {
+        log.info("Orders per second with {} clients: {}", CLIENTS, ordersPerSecond);
+        Double platform = ordersPerSecond.get("platform");
+        Double virtual = ordersPerSecond.get("virtual");
+        if (platform != null && virtual != null) {
+            // Platform threads top out near 16 / 0.2 s = 80 orders/s, virtual threads near 64 / 0.2 s = 320;
+            // the margin is kept loose for small machines, where CPU caps the virtual run first
+            assertThat(virtual).isGreaterThan(platform * 1.5);
+        }
+    }
+
+    @Nested
+    @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+            "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+            "spring.rabbitmq.listener.simple.auto-startup=false",
+            "order.outbox.relay.interval-ms=3600000",
+            "order.outbox.cleanup.interval-ms=3600000",
+            "order.create.reactive=false",
+            "server.tomcat.threads.max=" + TOMCAT_THREADS
+    })
+    class PlatformThreads extends LoadRun {
+
+        @Test
+        void createOrderThroughput() throws Exception {
+            ordersPerSecond.put("platform", drive());
+        }
+    }
+
+    @Nested
+    @EnabledForJreRange(min = JRE.JAVA_21)
+    @ActiveProfiles("virtual-threads")
+    @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+            "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+            "spring.rabbitmq.listener.simple.auto-startup=false",
+            "order.outbox.relay.interval-ms=3600000",
+            "order.outbox.cleanup.interval-ms=3600000",
+            "order.create.reactive=false",
+            // Ignored by Tomcat in this mode; kept so the only difference is the profile
+            "server.tomcat.threads.max=" + TOMCAT_THREADS
+    })
+    class VirtualThreads extends LoadRun {
+
+        @Test
+        void createOrderThroughput() throws Exception {
+            ordersPerSecond.put("virtual", drive());
+        }
+    }
+
+    abstract static class LoadRun {
+
+        @MockBean
+        private CustomerClient customerClient;
+
+        @MockBean
+        private ProductClient productClient;
+
+        @Autowired
+        private ServiceTokenProvider serviceTokenProvider;
+
+        @LocalServerPort
+        private int port;
+
+        private final HttpClient client = HttpClient.newBuilder()
+                .executor(Executors.newFixedThreadPool(CLIENTS))
+                .build();
+
+        double drive() throws Exception {
+            ProductDTO product = new ProductDTO();
+            product.setId(1L);
+            product.setPrice(BigDecimal.TEN);
+            given(customerClient.verifyExists(any())).willReturn(Mono.delay(DOWNSTREAM_LATENCY).then());
+            given(productClient.getProducts(anyCollection()))
+                    .willReturn(Mono.delay(DOWNSTREAM_LATENCY).thenReturn(Map.of(1L, product)));
+            given(productClient.reserve(any(), any())).willReturn(Mono.empty());
+
+            // Warm-up, so JIT compilation does not land in the measurement
+            run(Duration.ofSeconds(2));
+            AtomicInteger created = run(PHASE);
+            return created.get() / (PHASE.toMillis() / 1000.0);
+        }
+
+        private AtomicInteger run(Duration phase) throws Exception {
+            AtomicInteger created = new AtomicInteger();
+            long deadline = System.nanoTime() + phase.toNanos();
+            ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+            List<Future<?>> running = new ArrayList<>();
+            for (int i = 0; i < CLIENTS; i++) {
+                running.add(clients.submit(() -> {
+                    while (System.nanoTime() < deadline) {
+                        HttpResponse<Void> response = send();
+                        assertThat(response.statusCode()).isEqualTo(201);
+                        created.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : running) {
+                future.get();
+            }
+            clients.shutdown();
+            return created;
+        }
+
+        private HttpResponse<Void> send() throws Exception {
+            HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/orders"))
+                    .header("Authorization", serviceTokenProvider.authorizationHeader())
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(
+                            "{\"customerId\":1,\"orderItems\":[{\"productId\":1,\"quantity\":1}]}"))
+                    .build();
+            return client.send(request, HttpResponse.BodyHandlers.discarding());
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.microcommerce.orderservice.repository;
+
+import com.microcommerce.orderservice.model.Order;
+import com.microcommerce.orderservice.model.OrderItem;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Starts the service on a database left by the last release before Flyway, whose schema
+ * ddl-auto=update built from the entities of that release: orders and order_item with identity
+ * ids and nothing else.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.rabbitmq.listener.simple.auto-startup=false",
+        "order.outbox.relay.interval-ms=3600000",
+        "order.outbox.cleanup.interval-ms=3600000"
+})
+class SchemaUpgradeTests {
+
+    private static final String URL = "jdbc:h2:mem:schemaupgrade;MODE=PostgreSQL;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderSummaryRepository orderSummaryRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @DynamicPropertySource
+    static void releasedDatabase(DynamicPropertyRegistry registry) throws SQLException {
+        try (Connection connection = DriverManager.getConnection(URL, "sa", "");
+             Statement statement = connection.createStatement()) {
+            // As logged by Hibernate for PostgreSQL at that release
+            statement.execute("create table order_item (id bigint generated by default as identity, price numeric(38,2), "
+                    + "quantity integer, order_id bigint, product_id bigint, primary key (id))");
+            statement.execute("create table orders (id bigint generated by default as identity, customer_id bigint, "
+                    + "order_date date, status varchar(255), primary key (id))");
+            statement.execute("alter table if exists order_item add constraint FKt4dc2r9nbvbujrljv3e23iibt "
+                    + "foreign key (order_id) references orders");
+            statement.execute("insert into orders (customer_id, order_date, status) values (7, date '2024-03-01', 'CREATED')");
+            statement.execute("insert into orders (id, customer_id, order_date, status) values (120, 7, date '2024-03-02', 'CREATED')");
+            statement.execute("insert into order_item (price, quantity, order_id, product_id) values (2.50, 2, 120, 1)");
+            statement.execute("insert into order_item (id, price, quantity, order_id, product_id) values (340, 1.00, 1, 120, 2)");
+        }
+        registry.add("spring.datasource.url", () -> URL);
+    }
+
+    @Test
+    void releasedDatabaseIsBaselinedAndMigrated() {
+        // Flyway quotes its history table, which H2 then keeps in lower case
+        List<String> applied = jdbcTemplate.queryForList(
+                "select \"version\" from \"flyway_schema_history\" where \"success\" and \"version\" is not null order by \"installed_rank\"",
+                String.class);
+
+        assertThat(applied).containsExactly("1", "2", "3", "4", "5", "6", "7");
+        assertThat(jdbcTemplate.queryForObject(
+                "select \"type\" from \"flyway_schema_history\" where \"version\" = '1'", String.class))
+                .isEqualTo("BASELINE");
+    }
+
+    @Test
+    void existingOrdersAreKeptAndSummarized() {
+        Order existing = orderRepository.findWithItemsById(120L).orElseThrow();
+
+        assertThat(existing.getOrderItems()).extracting(OrderItem::getId).containsExactlyInAnyOrder(1L, 340L);
+        // The startup backfill reads them through the new schema
+        assertThat(orderSummaryRepository.findById(120L).orElseThrow().getItemCount()).isEqualTo(3);
+    }
+
+    @Test
+    void newIdsComeAfterTheExistingOnes() {
+        Order order = Order.builder().customerId(8L).orderDate(LocalDate.now()).status("CREATED").build();
+        order.setOrderItems(List.of(OrderItem.builder()
+                .productId(3L)
+                .quantity(1)
+                .price(BigDecimal.ONE)
+                .order(order)
+                .build()));
+
+        Order saved = orderRepository.save(order);
+
+        assertThat(saved.getId()).isGreaterThan(120L);
+        assertThat(saved.getOrderItems().get(0).getId()).isGreaterThan(340L);
+    }
+}
@@ -0,0 +1,199 @@
+package com.microcommerce.orderservice.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microcommerce.orderservice.dto.OrderResponse;
+import com.microcommerce.orderservice.model.IdempotencyRecord;
+import com.microcommerce.orderservice.repository.IdempotencyRecordRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Runs submissions through {@link IdempotencyService} with stand-in actions that only complete
+ * the key. Other instances sharing the database are separate service objects.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.rabbitmq.listener.simple.auto-startup=false",
+        "order.outbox.relay.interval-ms=3600000",
+        "order.outbox.cleanup.interval-ms=3600000"
+})
+class IdempotencyServiceTests {
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private IdempotencyRecordRepository repository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private Scheduler jdbcScheduler;
+
+    @Test
+    void concurrentRequestsWithTheSameKeyRunOnce() throws Exception {
+        String key = newKey();
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch proceed = new CountDownLatch(1);
+        double coalescedBefore = meterRegistry.counter("order.idempotency.coalesced").count();
+
+        CompletableFuture<OrderResponse> first = CompletableFuture.supplyAsync(() ->
+                idempotencyService.execute(key, "hash", claim -> {
+                    runs.incrementAndGet();
+                    started.countDown();
+                    await(proceed);
+                    return completeWith(claim, 1L);
+                }));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<OrderResponse> second = CompletableFuture.supplyAsync(() ->
+                idempotencyService.execute(key, "hash", claim -> {
+                    runs.incrementAndGet();
+                    return completeWith(claim, 2L);
+                }));
+        while (meterRegistry.counter("order.idempotency.coalesced").count() == coalescedBefore) {
+            Thread.sleep(10);
+        }
+        // A different body under the same key is turned away while the first is still running
+        assertThatThrownBy(() -> idempotencyService.execute(key, "other", claim -> completeWith(claim, 3L)))
+                .isInstanceOf(IdempotencyKeyMismatchException.class);
+        proceed.countDown();
+
+        assertThat(first.get(5, TimeUnit.SECONDS).getId()).isEqualTo(1L);
+        assertThat(second.get(5, TimeUnit.SECONDS).getId()).isEqualTo(1L);
+        assertThat(runs.get()).isEqualTo(1);
+    }
+
+    @Test
+    void retryGetsTheStoredResponse() {
+        String key = newKey();
+        idempotencyService.execute(key, "hash", claim -> completeWith(claim, 10L));
+
+        OrderResponse replayed = idempotencyService.execute(key, "hash", claim -> {
+            throw new AssertionError("a completed key must not run again");
+        });
+        OrderResponse replayedAsync = idempotencyService.executeAsync(key, "hash",
+                claim -> Mono.error(new AssertionError("a completed key must not run again")), jdbcScheduler)
+                .block(Duration.ofSeconds(5));
+
+        assertThat(replayed.getId()).isEqualTo(10L);
+        assertThat(replayedAsync.getId()).isEqualTo(10L);
+    }
+
+    @Test
+    void keyReusedForAnotherOrderIsRejected() {
+        String key = newKey();
+        idempotencyService.execute(key, "hash", claim -> completeWith(claim, 20L));
+
+        assertThatThrownBy(() -> idempotencyService.execute(key, "other", claim -> completeWith(claim, 21L)))
+                .isInstanceOf(IdempotencyKeyMismatchException.class);
+        assertThat(repository.findById(key).orElseThrow().getOrderId()).isEqualTo(20L);
+    }
+
+    @Test
+    void failedRequestReleasesItsKey() {
+        String key = newKey();
+        assertThatThrownBy(() -> idempotencyService.executeAsync(key, "hash",
+                claim -> Mono.error(new IllegalStateException("downstream failed")), jdbcScheduler)
+                .block(Duration.ofSeconds(5)))
+                .hasMessage("downstream failed");
+        assertThat(repository.findById(key)).isEmpty();
+
+        assertThat(idempotencyService.execute(key, "hash", claim -> completeWith(claim, 30L)).getId()).isEqualTo(30L);
+    }
+
+    @Test
+    void abandonedKeyIsTakenOverAndTheFormerOwnerCanNeitherCompleteNorReleaseIt() throws Exception {
+        String key = newKey();
+        IdempotencyService stalled = instance(Duration.ofMillis(200));
+        IdempotencyService takingOver = instance(Duration.ofMillis(200));
+        IdempotencyService retrying = instance(Duration.ofMinutes(1));
+        CountDownLatch stalledStarted = new CountDownLatch(1);
+        CountDownLatch stalledProceeds = new CountDownLatch(1);
+        CountDownLatch takenOver = new CountDownLatch(1);
+        CountDownLatch takeOverProceeds = new CountDownLatch(1);
+
+        CompletableFuture<OrderResponse> stalledRequest = CompletableFuture.supplyAsync(() ->
+                stalled.execute(key, "hash", claim -> {
+                    stalledStarted.countDown();
+                    await(stalledProceeds);
+                    return completeWith(claim, 40L);
+                }));
+        assertThat(stalledStarted.await(5, TimeUnit.SECONDS)).isTrue();
+        Thread.sleep(300);
+        CompletableFuture<OrderResponse> takeOverRequest = CompletableFuture.supplyAsync(() ->
+                takingOver.execute(key, "hash", claim -> {
+                    takenOver.countDown();
+                    await(takeOverProceeds);
+                    return completeWith(claim, 41L);
+                }));
+        assertThat(takenOver.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // The stalled request wakes up: its completion fails and its release must leave the new claim alone
+        stalledProceeds.countDown();
+        assertThatThrownBy(() -> stalledRequest.get(5, TimeUnit.SECONDS))
+                .hasCauseInstanceOf(IdempotencyKeyInUseException.class);
+        IdempotencyRecord record = repository.findById(key).orElseThrow();
+        assertThat(record.getStatus()).isEqualTo(IdempotencyRecord.Status.IN_PROGRESS);
+        assertThatThrownBy(() -> retrying.execute(key, "hash", claim -> completeWith(claim, 42L)))
+                .isInstanceOf(IdempotencyKeyInUseException.class);
+
+        takeOverProceeds.countDown();
+        assertThat(takeOverRequest.get(5, TimeUnit.SECONDS).getId()).isEqualTo(41L);
+        assertThat(retrying.execute(key, "hash", claim -> completeWith(claim, 43L)).getId()).isEqualTo(41L);
+    }
+
+    private IdempotencyService instance(Duration lockTimeout) {
+        return new IdempotencyService(repository, transactionTemplate, objectMapper, new SimpleMeterRegistry(),
+                lockTimeout, Duration.ofSeconds(5), Duration.ofHours(24));
+    }
+
+    /**
+     * Stands in for the order transaction, which stores the response under the claimed key.
+     */
+    private OrderResponse completeWith(IdempotencyClaim claim, Long orderId) {
+        OrderResponse response = new OrderResponse(orderId, 1L, LocalDate.now(), "CREATED", List.of());
+        transactionTemplate.executeWithoutResult(status -> idempotencyService.complete(claim, response));
+        return response;
+    }
+
+    private static String newKey() {
+        return UUID.randomUUID().toString();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            if (!latch.await(5, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("Timed out waiting for the test to proceed");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
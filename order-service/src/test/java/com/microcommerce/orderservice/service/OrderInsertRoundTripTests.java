@@ -0,0 +1,140 @@
+package com.microcommerce.orderservice.service;
+
+import com.microcommerce.orderservice.client.CustomerClient;
+import com.microcommerce.orderservice.client.ProductClient;
+import com.microcommerce.orderservice.model.Order;
+import com.microcommerce.orderservice.model.OrderItem;
+import com.microcommerce.orderservice.model.ProductDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import reactor.core.publisher.Mono;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.BDDMockito.given;
+
+/**
+ * Counts the statements order-service sends to the database while persisting one order.
+ * Each execute and executeBatch call is one round trip to order-db.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.rabbitmq.listener.simple.auto-startup=false",
+        "order.outbox.relay.interval-ms=3600000",
+        "order.outbox.cleanup.interval-ms=3600000"
+})
+class OrderInsertRoundTripTests {
+
+    private static final AtomicInteger roundTrips = new AtomicInteger();
+    private static volatile boolean counting;
+
+    @MockBean
+    private CustomerClient customerClient;
+
+    @MockBean
+    private ProductClient productClient;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Test
+    void fiftyLineOrderIsWrittenInAHandfulOfRoundTrips() {
+        int lines = 50;
+        given(customerClient.verifyExists(any())).willReturn(Mono.empty());
+        Map<Long, ProductDTO> products = LongStream.rangeClosed(1, lines).boxed()
+                .collect(Collectors.toMap(Function.identity(), OrderInsertRoundTripTests::product));
+        given(productClient.getProducts(anyCollection())).willReturn(Mono.just(products));
+        given(productClient.reserve(any(), any())).willReturn(Mono.empty());
+
+        // Warm-up order: the first one also pays for the initial sequence allocation
+        orderService.createOrder(order(lines), null);
+
+        int total = 0;
+        int orders = 10;
+        for (int i = 0; i < orders; i++) {
+            roundTrips.set(0);
+            counting = true;
+            orderService.createOrder(order(lines), null);
+            counting = false;
+            total += roundTrips.get();
+        }
+        double perOrder = (double) total / orders;
+
+        // One insert batch each for orders, order_item and outbox_event, one order_item_seq fetch
+        // per 50 items and an occasional fetch of the other sequences. With IDENTITY ids this
+        // was 52: one statement per row.
+        assertThat(perOrder).isLessThan(5.0);
+    }
+
+    private static ProductDTO product(Long id) {
+        ProductDTO product = new ProductDTO();
+        product.setId(id);
+        product.setPrice(BigDecimal.ONE);
+        return product;
+    }
+
+    private Order order(int lines) {
+        List<OrderItem> items = new ArrayList<>();
+        for (long productId = 1; productId <= lines; productId++) {
+            items.add(OrderItem.builder().productId(productId).quantity(1).build());
+        }
+        return Order.builder().customerId(1L).orderItems(items).build();
+    }
+
+    @TestConfiguration
+    static class CountingDataSourceConfig {
+
+        @Bean
+        static BeanPostProcessor countingDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource ? wrap(dataSource, DataSource.class) : bean;
+                }
+            };
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <T> T wrap(T target, Class<T> type) {
+            return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+                Object result;
+                try {
+                    result = method.invoke(target, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+                String name = method.getName();
+                if (target instanceof Statement && name.startsWith("execute") && counting) {
+                    roundTrips.incrementAndGet();
+                }
+                if (result instanceof Connection connection) {
+                    return wrap(connection, Connection.class);
+                }
+                if (result instanceof Statement statement) {
+                    return wrap(statement, (Class<Statement>) method.getReturnType());
+                }
+                return result;
+            });
+        }
+    }
+}
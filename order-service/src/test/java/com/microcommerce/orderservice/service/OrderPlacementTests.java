@@ -0,0 +1,46 @@
+package com.microcommerce.orderservice.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+class OrderPlacementTests {
+
+    private final DiscoveryClient discoveryClient = mock(DiscoveryClient.class);
+
+    @Test
+    void stockReservationsRefuseSeveralProductServiceInstances() {
+        given(discoveryClient.getInstances("product-service")).willReturn(List.of(instance(1), instance(2)));
+
+        assertThatThrownBy(() -> placement(true).checkReservationTarget())
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("2 are configured");
+        assertThatCode(() -> placement(false).checkReservationTarget()).doesNotThrowAnyException();
+    }
+
+    @Test
+    void stockReservationsAcceptASingleProductServiceInstance() {
+        given(discoveryClient.getInstances("product-service")).willReturn(List.of(instance(1)));
+
+        assertThatCode(() -> placement(true).checkReservationTarget()).doesNotThrowAnyException();
+    }
+
+    private OrderPlacement placement(boolean reserveOnCreate) {
+        OrderPlacement placement = new OrderPlacement(null, null, null, null, null, null, null, discoveryClient);
+        ReflectionTestUtils.setField(placement, "reserveOnCreate", reserveOnCreate);
+        return placement;
+    }
+
+    private static ServiceInstance instance(int n) {
+        return new DefaultServiceInstance("product-service-" + n, "product-service", "product-service-" + n, 8081, false);
+    }
+}
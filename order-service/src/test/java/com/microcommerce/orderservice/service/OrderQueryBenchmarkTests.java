@@ -0,0 +1,138 @@
+package com.microcommerce.orderservice.service;
+
+import com.microcommerce.orderservice.dto.OrderFilter;
+import com.microcommerce.orderservice.dto.OrderResponse;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Filtered order listing on a million orders (two items each), without the indexes from the
+ * migrations and then with them. The database is an H2 file under target/, so the data set
+ * does not have to fit in the test JVM's heap.
+ */
+@Tag("benchmark")
+@DirtiesContext
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.rabbitmq.listener.simple.auto-startup=false",
+        "order.outbox.relay.interval-ms=3600000",
+        "order.outbox.cleanup.interval-ms=3600000",
+        "order.idempotency.cleanup.interval-ms=3600000",
+        "order.summary.backfill-on-startup=false"
+})
+class OrderQueryBenchmarkTests {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderQueryBenchmarkTests.class);
+
+    private static final int ORDERS = 1_000_000;
+    private static final int CUSTOMERS = 20_000;
+    private static final int DAYS = 730;
+    private static final Path DATABASE_DIR = Path.of("target", "order-query-benchmark");
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @DynamicPropertySource
+    static void benchmarkDatabase(DynamicPropertyRegistry registry) throws IOException {
+        FileSystemUtils.deleteRecursively(DATABASE_DIR);
+        registry.add("spring.datasource.url", () -> "jdbc:h2:file:./" + DATABASE_DIR.resolve("orders").toString().replace('\\', '/'));
+    }
+
+    @Test
+    void customerHistoryPagesUseTheCompositeIndexes() throws IOException {
+        // Loaded without the indexes (and the foreign key, which H2 backs with an index of its own),
+        // which also gives the baseline; they are then built from the migration itself
+        jdbcTemplate.execute("drop index idx_orders_customer_date");
+        jdbcTemplate.execute("drop index idx_order_item_order");
+        jdbcTemplate.execute("alter table order_item drop constraint fk_order_item_order");
+
+        long loadStart = System.nanoTime();
+        // 50 orders per customer spread over two years; one in twenty cancelled
+        jdbcTemplate.update("insert into orders (id, customer_id, order_date, status) " +
+                "select x, mod(x, " + CUSTOMERS + ") + 1, dateadd('DAY', -mod(x / " + CUSTOMERS + " * 13 + x, " + DAYS + "), current_date), " +
+                "case when mod(x, 20) = 0 then 'CANCELLED' else 'CREATED' end " +
+                "from system_range(1, " + ORDERS + ")");
+        jdbcTemplate.update("insert into order_item (id, order_id, product_id, quantity, price) " +
+                "select x, (x + 1) / 2, mod(x, 5000) + 1, 1, 9.99 from system_range(1, " + (2 * ORDERS) + ")");
+        log.info("Loaded {} orders in {} ms", ORDERS, (System.nanoTime() - loadStart) / 1_000_000);
+
+        double[] scanned = measure(5);
+
+        long indexStart = System.nanoTime();
+        String migration = new ClassPathResource("db/migration/V2__order_query_indexes.sql")
+                .getContentAsString(StandardCharsets.UTF_8);
+        migration.lines()
+                .filter(line -> line.startsWith("create index"))
+                .forEach(jdbcTemplate::execute);
+        jdbcTemplate.execute("analyze");
+        log.info("Built indexes in {} ms", (System.nanoTime() - indexStart) / 1_000_000);
+
+        assertThat(plan("select id from orders where customer_id = 42 and order_date >= dateadd('DAY', -90, current_date) order by id"))
+                .containsIgnoringCase("idx_orders_customer_date");
+        assertThat(plan("select id from order_item where order_id in (1, 2, 3)"))
+                .containsIgnoringCase("idx_order_item_order");
+
+        double[] indexed = measure(200);
+
+        log.info("Customer history page (last 90 days) among {} orders: without indexes p50 {} ms, p99 {} ms; " +
+                "indexed p50 {} ms, p99 {} ms", ORDERS, "%.2f".formatted(scanned[0]), "%.2f".formatted(scanned[1]),
+                "%.2f".formatted(indexed[0]), "%.2f".formatted(indexed[1]));
+        assertThat(indexed[0] * 10).isLessThan(scanned[0]);
+    }
+
+    private String plan(String query) {
+        return String.join("\n", jdbcTemplate.queryForList("explain " + query, String.class));
+    }
+
+    /**
+     * Fetches the last 90 days of random customers' orders and returns the p50 and p99 latency.
+     */
+    private double[] measure(int queries) {
+        Random random = new Random(7);
+        LocalDate from = LocalDate.now().minusDays(90);
+        // Warm-up, so JIT compilation and cold pages do not land in the measurement
+        for (int i = 0; i < Math.min(queries, 20); i++) {
+            orderService.getOrders(new OrderFilter(random.nextLong(1, CUSTOMERS + 1), null, from, null), 0, 100);
+        }
+        double[] millis = new double[queries];
+        int found = 0;
+        for (int i = 0; i < queries; i++) {
+            OrderFilter filter = new OrderFilter(random.nextLong(1, CUSTOMERS + 1), null, from, null);
+            long start = System.nanoTime();
+            List<OrderResponse> orders = orderService.getOrders(filter, 0, 100);
+            millis[i] = (System.nanoTime() - start) / 1_000_000.0;
+            found += orders.size();
+            assertThat(orders).allSatisfy(order -> {
+                assertThat(order.getCustomerId()).isEqualTo(filter.customerId());
+                assertThat(order.getOrderDate()).isAfterOrEqualTo(from);
+                assertThat(order.getOrderItems()).hasSize(2);
+            });
+        }
+        assertThat(found).isPositive();
+        Arrays.sort(millis);
+        return new double[]{millis[queries / 2], millis[Math.min(queries - 1, (int) (queries * 0.99))]};
+    }
+}
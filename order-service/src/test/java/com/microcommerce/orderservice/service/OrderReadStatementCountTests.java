@@ -0,0 +1,97 @@
+package com.microcommerce.orderservice.service;
+
+import com.microcommerce.orderservice.dto.OrderResponse;
+import com.microcommerce.orderservice.model.Order;
+import com.microcommerce.orderservice.model.OrderItem;
+import com.microcommerce.orderservice.repository.OrderRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.rabbitmq.listener.simple.auto-startup=false",
+        // Keep the outbox relay's polling out of the statement counts
+        "order.outbox.relay.interval-ms=3600000",
+        "order.outbox.cleanup.interval-ms=3600000"
+})
+class OrderReadStatementCountTests {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        orderRepository.deleteAll();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 10, 100})
+    void listingOrdersTakesTwoStatementsWhateverThePageSize(int orderCount) {
+        saveOrders(orderCount, 3);
+
+        statistics.clear();
+        List<OrderResponse> orders = orderService.getOrders(0, orderCount);
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(orders).hasSize(orderCount);
+        assertThat(orders).allSatisfy(order -> assertThat(order.getOrderItems()).hasSize(3));
+    }
+
+    @Test
+    void singleOrderIsLoadedWithItsItemsInOneStatement() {
+        Long id = saveOrders(1, 5).get(0).getId();
+
+        statistics.clear();
+        OrderResponse order = orderService.getOrderById(id).orElseThrow();
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(order.getOrderItems()).hasSize(5);
+    }
+
+    private List<Order> saveOrders(int orderCount, int itemsPerOrder) {
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < orderCount; i++) {
+            Order order = Order.builder()
+                    .customerId((long) i)
+                    .orderDate(LocalDate.now())
+                    .status("CREATED")
+                    .build();
+            List<OrderItem> items = new ArrayList<>();
+            for (int j = 0; j < itemsPerOrder; j++) {
+                items.add(OrderItem.builder()
+                        .productId((long) j)
+                        .quantity(1)
+                        .price(BigDecimal.TEN)
+                        .order(order)
+                        .build());
+            }
+            order.setOrderItems(items);
+            orders.add(order);
+        }
+        return orderRepository.saveAll(orders);
+    }
+}
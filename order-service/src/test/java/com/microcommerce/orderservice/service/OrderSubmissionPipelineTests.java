@@ -0,0 +1,194 @@
+package com.microcommerce.orderservice.service;
+
+import com.microcommerce.orderservice.client.CustomerClient;
+import com.microcommerce.orderservice.client.InsufficientStockException;
+import com.microcommerce.orderservice.client.ProductClient;
+import com.microcommerce.orderservice.dto.OrderResponse;
+import com.microcommerce.orderservice.model.Order;
+import com.microcommerce.orderservice.model.OrderItem;
+import com.microcommerce.orderservice.model.ProductDTO;
+import com.microcommerce.orderservice.security.ServiceTokenProvider;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Submits thousands of orders at once through the reactive path, against slow downstream lookups.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.rabbitmq.listener.simple.auto-startup=false",
+        "order.outbox.relay.interval-ms=3600000",
+        "order.outbox.cleanup.interval-ms=3600000",
+        "order.pipeline.validation-concurrency=500",
+        "order.pipeline.queue-capacity=1000",
+        "order.stock.reserve-on-create=true"
+})
+class OrderSubmissionPipelineTests {
+
+    @MockBean
+    private CustomerClient customerClient;
+
+    @MockBean
+    private ProductClient productClient;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ServiceTokenProvider serviceTokenProvider;
+
+    @LocalServerPort
+    private int port;
+
+    private final AtomicInteger lookupsInFlight = new AtomicInteger();
+    private final AtomicInteger maxLookupsInFlight = new AtomicInteger();
+
+    @BeforeEach
+    void slowDownstreams() {
+        downstreamLatency(Duration.ofMillis(100));
+    }
+
+    private void downstreamLatency(Duration latency) {
+        ProductDTO product = new ProductDTO();
+        product.setId(1L);
+        product.setPrice(BigDecimal.TEN);
+        given(customerClient.verifyExists(any())).willReturn(Mono.delay(latency).then());
+        given(productClient.reserve(any(), any())).willReturn(Mono.empty());
+        given(productClient.getProducts(anyCollection())).willReturn(Mono.defer(() -> {
+            maxLookupsInFlight.accumulateAndGet(lookupsInFlight.incrementAndGet(), Math::max);
+            return Mono.delay(latency)
+                    .thenReturn(Map.of(1L, product))
+                    .doOnNext(products -> lookupsInFlight.decrementAndGet());
+        }));
+    }
+
+    @Test
+    void thousandsOfOrdersInFlightOnAFewThreads() {
+        int orders = 1500;
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        int threadsBefore = threads.getThreadCount();
+        threads.resetPeakThreadCount();
+
+        List<OrderResponse> created = Flux.range(0, orders)
+                .flatMap(i -> orderService.submitOrder(order(), null), orders)
+                .collectList()
+                .block(Duration.ofSeconds(60));
+
+        assertThat(created).hasSize(orders).allSatisfy(order -> assertThat(order.getId()).isNotNull());
+        // Hundreds of lookups overlap, never more than the validation concurrency; the rest of the
+        // orders wait in the queue, or for a connection, without holding a thread
+        assertThat(maxLookupsInFlight.get()).isBetween(50, 500);
+        assertThat(threads.getPeakThreadCount() - threadsBefore).isLessThan(50);
+    }
+
+    @Test
+    void fullQueueRejectsOrdersInsteadOfBufferingThem() {
+        // Slow enough that nothing leaves the queue while the orders are being submitted
+        downstreamLatency(Duration.ofSeconds(2));
+        int orders = 3000;
+        AtomicInteger rejected = new AtomicInteger();
+
+        List<OrderResponse> created = Flux.range(0, orders)
+                .flatMap(i -> orderService.submitOrder(order(), null)
+                        .onErrorResume(OrderSubmissionRejectedException.class, e -> {
+                            rejected.incrementAndGet();
+                            return Mono.empty();
+                        }), orders)
+                .collectList()
+                .block(Duration.ofSeconds(60));
+
+        // 500 being validated plus 1000 queued; the rest is turned away at once
+        assertThat(created.size() + rejected.get()).isEqualTo(orders);
+        assertThat(created.size()).isGreaterThanOrEqualTo(1500);
+        assertThat(rejected.get()).isGreaterThan(1000);
+        assertThat(maxLookupsInFlight.get()).isLessThanOrEqualTo(500);
+    }
+
+    @Test
+    void postReturnsTheCreatedOrder() throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/orders"))
+                .header("Authorization", serviceTokenProvider.authorizationHeader())
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(
+                        "{\"customerId\":1,\"orderItems\":[{\"productId\":1,\"quantity\":2}]}"))
+                .build();
+
+        HttpResponse<String> response = HttpClient.newHttpClient().send(request, HttpResponse.BodyHandlers.ofString());
+
+        assertThat(response.statusCode()).isEqualTo(201);
+        assertThat(response.body()).contains("\"customerId\":1", "\"quantity\":2");
+    }
+
+    @Test
+    void malformedOrderDoesNotStopThePipeline() throws Exception {
+        assertThat(post("{\"customerId\":1}").statusCode()).isEqualTo(400);
+        assertThat(post("{\"orderItems\":[{\"productId\":1,\"quantity\":2}]}").statusCode()).isEqualTo(400);
+        assertThat(post("{\"customerId\":1,\"orderItems\":[{\"productId\":1,\"quantity\":0}]}").statusCode()).isEqualTo(400);
+
+        // Past the controller's checks, a broken order fails on its own
+        Order broken = Order.builder().customerId(1L).build();
+        assertThatThrownBy(() -> orderService.submitOrder(broken, null).block(Duration.ofSeconds(10)))
+                .isInstanceOf(NullPointerException.class);
+
+        assertThat(orderService.submitOrder(order(), null).block(Duration.ofSeconds(10)).getId()).isNotNull();
+        assertThat(post("{\"customerId\":1,\"orderItems\":[{\"productId\":1,\"quantity\":2}]}").statusCode()).isEqualTo(201);
+    }
+
+    @Test
+    void orderWithoutStockIsRejectedWithConflict() throws Exception {
+        given(productClient.reserve(any(), any())).willReturn(Mono.error(
+                new InsufficientStockException("Insufficient stock for product 1", null)));
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/orders"))
+                .header("Authorization", serviceTokenProvider.authorizationHeader())
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(
+                        "{\"customerId\":1,\"orderItems\":[{\"productId\":1,\"quantity\":2}]}"))
+                .build();
+
+        HttpResponse<String> response = HttpClient.newHttpClient().send(request, HttpResponse.BodyHandlers.ofString());
+
+        assertThat(response.statusCode()).isEqualTo(409);
+        // Nothing was reserved, so there is nothing to give back
+        verify(productClient, never()).release(any());
+    }
+
+    private HttpResponse<String> post(String body) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/orders"))
+                .header("Authorization", serviceTokenProvider.authorizationHeader())
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        return HttpClient.newHttpClient().send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private Order order() {
+        OrderItem item = OrderItem.builder().productId(1L).quantity(1).build();
+        return Order.builder().customerId(1L).orderItems(List.of(item)).build();
+    }
+}
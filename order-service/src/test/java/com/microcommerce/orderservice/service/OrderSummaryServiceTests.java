@@ -0,0 +1,164 @@
+package com.microcommerce.orderservice.service;
+
+import com.microcommerce.orderservice.dto.OrderDTO;
+import com.microcommerce.orderservice.dto.OrderHistoryCursor;
+import com.microcommerce.orderservice.dto.OrderItemDTO;
+import com.microcommerce.orderservice.dto.OrderResponse;
+import com.microcommerce.orderservice.model.Order;
+import com.microcommerce.orderservice.model.OrderItem;
+import com.microcommerce.orderservice.model.OrderSummary;
+import com.microcommerce.orderservice.repository.OrderRepository;
+import com.microcommerce.orderservice.repository.OrderSummaryRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.rabbitmq.listener.simple.auto-startup=false",
+        "order.outbox.relay.interval-ms=3600000",
+        "order.outbox.cleanup.interval-ms=3600000",
+        // Backfills are run by the tests
+        "order.summary.backfill-on-startup=false"
+})
+class OrderSummaryServiceTests {
+
+    @Autowired
+    private OrderSummaryService orderSummaryService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderSummaryRepository summaryRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Test
+    void eventIsProjectedWithTotalsAndProductNames() {
+        OrderDTO event = new OrderDTO(5001L, 501L, List.of(
+                new OrderItemDTO(1L, 2, "pen", new BigDecimal("1.50")),
+                new OrderItemDTO(2L, 1, "ink", new BigDecimal("4.00"))),
+                LocalDate.of(2024, 5, 1), "CREATED", null);
+
+        orderSummaryService.project(event);
+        // A redelivered event writes the same row again
+        orderSummaryService.project(event);
+
+        OrderSummary summary = summaryRepository.findById(5001L).orElseThrow();
+        assertThat(summary.getItemCount()).isEqualTo(3);
+        assertThat(summary.getLineCount()).isEqualTo(2);
+        assertThat(summary.getTotal()).isEqualByComparingTo("7.00");
+        assertThat(summary.getLines()).extracting(OrderSummary.Line::getProductName).containsExactly("pen", "ink");
+    }
+
+    @Test
+    void historyIsPagedNewestFirstByDateAndId() {
+        Long customerId = 502L;
+        project(6001L, customerId, LocalDate.of(2024, 1, 10));
+        project(6002L, customerId, LocalDate.of(2024, 1, 20));
+        project(6003L, customerId, LocalDate.of(2024, 1, 20));
+        project(6004L, customerId, LocalDate.of(2024, 2, 5));
+        project(6005L, customerId, LocalDate.of(2023, 12, 31));
+        project(6006L, 999L, LocalDate.of(2024, 1, 15));
+
+        LocalDate from = LocalDate.of(2024, 1, 1);
+        LocalDate to = LocalDate.of(2024, 12, 31);
+        List<Long> seen = new ArrayList<>();
+        OrderHistoryCursor after = null;
+        List<OrderSummary> page;
+        do {
+            page = orderSummaryService.getHistory(customerId, from, to, after, 2);
+            page.forEach(summary -> seen.add(summary.getOrderId()));
+            if (!page.isEmpty()) {
+                OrderSummary last = page.get(page.size() - 1);
+                after = new OrderHistoryCursor(last.getOrderDate(), last.getOrderId());
+            }
+        } while (page.size() == 2);
+
+        // Orders on the same day are ordered by id; the one before `from` and the other customer's are left out
+        assertThat(seen).containsExactly(6004L, 6003L, 6002L, 6001L);
+    }
+
+    @Test
+    void backfillSummarizesOnlyOrdersWithoutASummaryAndResumes() {
+        List<Order> orders = saveOrders(5);
+        Long projected = orders.get(1).getId();
+        orderSummaryService.project(new OrderDTO(projected, 1L,
+                List.of(new OrderItemDTO(1L, 1, "named", BigDecimal.TEN)), LocalDate.now(), "CREATED", null));
+        // As after an interrupted backfill: the last order already has its row
+        Long alreadyBackfilled = orders.get(4).getId();
+        summaryRepository.save(OrderSummary.builder().orderId(alreadyBackfilled).customerId(1L)
+                .orderDate(LocalDate.now()).status("CREATED").itemCount(0).lineCount(0)
+                .total(BigDecimal.ZERO).lines(List.of()).build());
+        OrderSummaryService backfilling = new OrderSummaryService(summaryRepository, orderService, true, 2);
+
+        backfilling.backfill();
+
+        for (Order order : orders) {
+            assertThat(summaryRepository.findById(order.getId())).isPresent();
+        }
+        OrderSummary backfilled = summaryRepository.findById(orders.get(0).getId()).orElseThrow();
+        assertThat(backfilled.getItemCount()).isEqualTo(2);
+        assertThat(backfilled.getTotal()).isEqualByComparingTo("20");
+        // Rows that existed are not rewritten
+        assertThat(summaryRepository.findById(projected).orElseThrow().getLines())
+                .extracting(OrderSummary.Line::getProductName).containsExactly("named");
+        assertThat(summaryRepository.findById(alreadyBackfilled).orElseThrow().getItemCount()).isZero();
+        assertThat(summaryRepository.findUnsummarizedOrderIds(0, Limit.of(10))).isEmpty();
+    }
+
+    @Test
+    void backfillDoesNotOverwriteASummaryTheListenerWritesMeanwhile() {
+        Long orderId = saveOrders(1).get(0).getId();
+        // The order.created event is projected after the backfill has read the order
+        OrderService racing = mock(OrderService.class);
+        given(racing.getOrdersByIds(anyList())).willAnswer(invocation -> {
+            List<OrderResponse> orders = orderService.getOrdersByIds(invocation.getArgument(0));
+            orderSummaryService.project(new OrderDTO(orderId, 1L,
+                    List.of(new OrderItemDTO(1L, 2, "named", BigDecimal.TEN)), LocalDate.now(), "CREATED", null));
+            return orders;
+        });
+
+        new OrderSummaryService(summaryRepository, racing, true, 500).backfill();
+
+        assertThat(summaryRepository.findById(orderId).orElseThrow().getLines())
+                .extracting(OrderSummary.Line::getProductName).containsExactly("named");
+    }
+
+    private void project(Long orderId, Long customerId, LocalDate orderDate) {
+        orderSummaryService.project(new OrderDTO(orderId, customerId,
+                List.of(new OrderItemDTO(1L, 1, "item", BigDecimal.ONE)), orderDate, "CREATED", null));
+    }
+
+    private List<Order> saveOrders(int orderCount) {
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < orderCount; i++) {
+            Order order = Order.builder()
+                    .customerId(1L)
+                    .orderDate(LocalDate.now())
+                    .status("CREATED")
+                    .build();
+            order.setOrderItems(List.of(OrderItem.builder()
+                    .productId(1L)
+                    .quantity(2)
+                    .price(BigDecimal.TEN)
+                    .order(order)
+                    .build()));
+            orders.add(order);
+        }
+        return orderRepository.saveAll(orders);
+    }
+}
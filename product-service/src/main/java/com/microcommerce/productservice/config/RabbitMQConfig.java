@@ -1,24 +1,132 @@
 package com.microcommerce.productservice.config;
 
+import com.microcommerce.productservice.dto.OrderDTO;
+import org.springframework.amqp.core.Binding;
+import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.Declarable;
+import org.springframework.amqp.core.Declarables;
+import org.springframework.amqp.core.DirectExchange;
 import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.core.QueueBuilder;
+import org.springframework.amqp.core.TopicExchange;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.support.converter.DefaultJackson2JavaTypeMapper;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
 import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.amqp.SimpleRabbitListenerContainerFactoryConfigurer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
 @Configuration
 public class RabbitMQConfig {
 
     public static final String QUEUE_NAME = "product_queue";
+    public static final String BATCH_CONTAINER_FACTORY = "batchListenerContainerFactory";
+
+    // Catalog change notifications, consumed by caches in other services
+    public static final String PRODUCT_EXCHANGE = "product_exchange";
+    public static final String PRODUCT_CREATED_ROUTING_KEY = "product.created";
+    public static final String PRODUCT_UPDATED_ROUTING_KEY = "product.updated";
+    public static final String PRODUCT_DELETED_ROUTING_KEY = "product.deleted";
+    public static final String PRODUCT_STOCK_CHANGED_ROUTING_KEY = "product.stock.changed";
+
+    // Dead-lettering and delayed retries for product_queue. Must stay identical to
+    // order-service's RabbitMQConfig, which declares the same queues.
+    public static final String DEAD_LETTER_EXCHANGE = "product_queue.dlx";
+    public static final String DEAD_LETTER_QUEUE = "product_queue.dlq";
+    public static final String RETRY_ATTEMPT_HEADER = "x-retry-attempt";
+    public static final List<String> RETRY_QUEUES = List.of(
+            "product_queue.retry.1s", "product_queue.retry.10s", "product_queue.retry.60s");
+    private static final List<Integer> RETRY_DELAYS_MS = List.of(1_000, 10_000, 60_000);
 
     @Bean
     public Queue queue() {
-        // Durable queue
-        return new Queue(QUEUE_NAME, true);
+        // Durable queue; rejected messages (e.g. unconvertible payloads) go straight to the DLQ
+        return QueueBuilder.durable(QUEUE_NAME)
+                .deadLetterExchange(DEAD_LETTER_EXCHANGE)
+                .deadLetterRoutingKey(DEAD_LETTER_QUEUE)
+                .build();
+    }
+
+    @Bean
+    public TopicExchange productExchange() {
+        return new TopicExchange(PRODUCT_EXCHANGE);
+    }
+
+    @Bean
+    public DirectExchange deadLetterExchange() {
+        return new DirectExchange(DEAD_LETTER_EXCHANGE);
+    }
+
+    @Bean
+    public Queue deadLetterQueue() {
+        return QueueBuilder.durable(DEAD_LETTER_QUEUE).build();
+    }
+
+    @Bean
+    public Binding deadLetterBinding() {
+        return BindingBuilder.bind(deadLetterQueue()).to(deadLetterExchange()).with(DEAD_LETTER_QUEUE);
+    }
+
+    /**
+     * One queue per retry delay. Messages wait out the TTL there, off the consumer threads,
+     * and are then dead-lettered back onto product_queue through the default exchange.
+     */
+    @Bean
+    public Declarables retryQueues() {
+        List<Declarable> queues = new ArrayList<>();
+        for (int i = 0; i < RETRY_QUEUES.size(); i++) {
+            queues.add(QueueBuilder.durable(RETRY_QUEUES.get(i))
+                    .ttl(RETRY_DELAYS_MS.get(i))
+                    .deadLetterExchange("")
+                    .deadLetterRoutingKey(QUEUE_NAME)
+                    .build());
+        }
+        return new Declarables(queues);
     }
 
     @Bean
     public MessageConverter jsonMessageConverter() {
-        return new Jackson2JsonMessageConverter();
+        // order-service stamps its own class name on order.created; map it onto our DTO so
+        // messages can also be converted without an inferred listener parameter type
+        DefaultJackson2JavaTypeMapper typeMapper = new DefaultJackson2JavaTypeMapper();
+        typeMapper.setIdClassMapping(Map.of("com.microcommerce.orderservice.dto.OrderDTO", OrderDTO.class));
+        typeMapper.setTrustedPackages(OrderDTO.class.getPackageName());
+        Jackson2JsonMessageConverter converter = new Jackson2JsonMessageConverter();
+        converter.setJavaTypeMapper(typeMapper);
+        return converter;
+    }
+
+    /**
+     * High-throughput mode: several consumers, a deep prefetch and batch delivery so that
+     * one listener call (and one DB transaction) covers many order.created messages.
+     */
+    @Bean(BATCH_CONTAINER_FACTORY)
+    @ConditionalOnProperty(name = "product.listener.batch.enabled", havingValue = "true")
+    public SimpleRabbitListenerContainerFactory batchListenerContainerFactory(
+            SimpleRabbitListenerContainerFactoryConfigurer configurer,
+            ConnectionFactory connectionFactory,
+            @Value("${product.listener.batch.concurrency:4}") int concurrency,
+            @Value("${product.listener.batch.prefetch:250}") int prefetch,
+            @Value("${product.listener.batch.size:100}") int batchSize,
+            @Value("${product.listener.batch.receive-timeout:200ms}") Duration receiveTimeout) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        configurer.configure(factory, connectionFactory);
+        factory.setConcurrentConsumers(concurrency);
+        factory.setMaxConcurrentConsumers(concurrency);
+        factory.setPrefetchCount(Math.max(prefetch, batchSize));
+        factory.setBatchListener(true);
+        factory.setConsumerBatchEnabled(true);
+        factory.setBatchSize(batchSize);
+        factory.setReceiveTimeout(receiveTimeout.toMillis());
+        return factory;
     }
 }
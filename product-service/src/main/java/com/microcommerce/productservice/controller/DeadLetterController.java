@@ -0,0 +1,25 @@
+package com.microcommerce.productservice.controller;
+
+import com.microcommerce.productservice.service.DeadLetterService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/dead-letters")
+@RequiredArgsConstructor
+public class DeadLetterController {
+
+    private final DeadLetterService deadLetterService;
+
+    @GetMapping
+    public Map<String, Long> countDeadLetters() {
+        return Map.of("count", deadLetterService.countDeadLetters());
+    }
+
+    @PostMapping("/replay")
+    public Map<String, Integer> replay(@RequestParam(defaultValue = "1000") int max) {
+        return Map.of("replayed", deadLetterService.replay(max));
+    }
+}
@@ -1,12 +1,25 @@
 package com.microcommerce.productservice.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microcommerce.productservice.dto.ProductBatchResponse;
 import com.microcommerce.productservice.model.Product;
+import com.microcommerce.productservice.service.ProductBulkImporter;
 import com.microcommerce.productservice.service.ProductService;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.DigestUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
 import java.util.List;
 
 @RestController
@@ -15,16 +28,81 @@ import java.util.List;
 public class ProductController {
 
     private final ProductService productService;
+    private final ProductBulkImporter productBulkImporter;
 
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    // Clients may keep a copy but must revalidate it with If-None-Match before each use
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
+    private final ObjectMapper objectMapper;
+
+    @Value("${product.batch.max-size:500}")
+    private int maxBatchSize;
+
+    @Value("${product.page.default-size:100}")
+    private int defaultPageSize;
+
+    @Value("${product.page.max-size:1000}")
+    private int maxPageSize;
+
+    /**
+     * One page of products in id order. When the page is full, the id to pass as {@code afterId}
+     * for the next page is returned in the {@code X-Next-Cursor} header. The ETag covers the id
+     * and version of every product on the page, so a matching {@code If-None-Match} gets a 304.
+     */
     @GetMapping
-    public List<Product> getAllProducts() {
-        return productService.getAllProducts();
+    public ResponseEntity<List<Product>> getProducts(@RequestParam(defaultValue = "0") long afterId,
+                                                     @RequestParam(required = false) Integer limit) {
+        int pageSize = limit == null ? defaultPageSize : limit;
+        if (pageSize < 1 || pageSize > maxPageSize) {
+            return ResponseEntity.badRequest().build();
+        }
+        List<Product> products = productService.getProducts(afterId, pageSize);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .eTag(pageETag(products))
+                .cacheControl(REVALIDATE);
+        if (products.size() == pageSize) {
+            response.header(NEXT_CURSOR_HEADER, String.valueOf(products.get(products.size() - 1).getId()));
+        }
+        return response.body(products);
+    }
+
+    /**
+     * Every product as newline-delimited JSON, read through a database cursor and written as it
+     * is read, so memory use does not depend on the size of the catalog.
+     */
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportProducts() {
+        StreamingResponseBody body = out -> productService.forEachProduct(product -> {
+            try {
+                out.write(objectMapper.writeValueAsBytes(product));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
     }
 
+    @GetMapping(params = "ids")
+    public ResponseEntity<ProductBatchResponse> getProductsByIds(@RequestParam List<Long> ids) {
+        if (ids.size() > maxBatchSize) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(productService.getProductsByIds(ids));
+    }
+
+    /**
+     * The ETag is the product's version; a matching {@code If-None-Match} gets a 304 without a body.
+     */
     @GetMapping("/{id}")
     public ResponseEntity<Product> getProductById(@PathVariable Long id) {
         return productService.getProductById(id)
-                .map(ResponseEntity::ok)
+                .map(product -> ResponseEntity.ok()
+                        .eTag(String.valueOf(product.getVersion()))
+                        .cacheControl(REVALIDATE)
+                        .body(product))
                 .orElse(ResponseEntity.notFound().build());
     }
 
@@ -34,10 +112,35 @@ public class ProductController {
         return productService.createProduct(product);
     }
 
+    /**
+     * Bulk create from a JSON array or NDJSON body of any size. Records are validated and inserted
+     * in chunks; one result per record is streamed back as NDJSON while the body is still being read.
+     */
+    @PostMapping(value = "/bulk",
+            consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE},
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> createProducts(HttpServletRequest request) {
+        StreamingResponseBody body = out -> {
+            productBulkImporter.importProducts(request.getInputStream(), result -> {
+                try {
+                    out.write(objectMapper.writeValueAsBytes(result));
+                    out.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            out.flush();
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<Product> updateProduct(@PathVariable Long id, @RequestBody Product productDetails) {
         try {
             return ResponseEntity.ok(productService.updateProduct(id, productDetails));
+        } catch (OptimisticLockingFailureException e) {
+            // The product changed (e.g. its stock) while this update was being applied
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
@@ -48,4 +151,12 @@ public class ProductController {
         productService.deleteProduct(id);
         return ResponseEntity.noContent().build();
     }
+
+    private static String pageETag(List<Product> products) {
+        ByteBuffer versions = ByteBuffer.allocate(products.size() * 2 * Long.BYTES);
+        for (Product product : products) {
+            versions.putLong(product.getId()).putLong(product.getVersion());
+        }
+        return DigestUtils.md5DigestAsHex(versions.array());
+    }
 }
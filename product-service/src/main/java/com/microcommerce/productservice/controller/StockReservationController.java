@@ -0,0 +1,62 @@
+package com.microcommerce.productservice.controller;
+
+import com.microcommerce.productservice.dto.OrderItemDTO;
+import com.microcommerce.productservice.dto.StockReservationRequest;
+import com.microcommerce.productservice.dto.StockReservationResult;
+import com.microcommerce.productservice.service.InventoryEngine;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+@RestController
+@RequestMapping("/api/products/reservations")
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "product.inventory.engine.enabled", havingValue = "true")
+public class StockReservationController {
+
+    private static final int MAX_RESERVATION_ID_LENGTH = 64;
+
+    private final InventoryEngine inventoryEngine;
+
+    /**
+     * Holds stock for every item or none. 409 lists the items that cannot be covered; the
+     * reservation is confirmed by the order's order.created event, or released after a while.
+     */
+    @PostMapping
+    public ResponseEntity<StockReservationResult> reserve(@RequestBody StockReservationRequest request) {
+        String reservationId = request.getReservationId();
+        if (reservationId == null || reservationId.isBlank() || reservationId.length() > MAX_RESERVATION_ID_LENGTH
+                || request.getItems() == null || request.getItems().isEmpty()) {
+            return ResponseEntity.badRequest().build();
+        }
+        Map<Long, Integer> lines = new TreeMap<>();
+        for (OrderItemDTO item : request.getItems()) {
+            if (item.getProductId() == null || item.getQuantity() == null || item.getQuantity() < 1) {
+                return ResponseEntity.badRequest().build();
+            }
+            lines.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+        }
+
+        List<OrderItemDTO> unsatisfied = inventoryEngine.reserve(reservationId, lines);
+        if (!unsatisfied.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(new StockReservationResult(List.of(), unsatisfied));
+        }
+        List<OrderItemDTO> reserved = lines.entrySet().stream()
+                .map(line -> new OrderItemDTO(line.getKey(), line.getValue()))
+                .toList();
+        return ResponseEntity.ok(new StockReservationResult(reserved, List.of()));
+    }
+
+    @DeleteMapping("/{reservationId}")
+    public ResponseEntity<Void> release(@PathVariable String reservationId) {
+        return inventoryEngine.release(reservationId)
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.notFound().build();
+    }
+}
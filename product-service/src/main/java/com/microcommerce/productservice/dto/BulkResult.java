@@ -0,0 +1,41 @@
+package com.microcommerce.productservice.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of one record of a bulk import, identified by its position in the request body.
+ * <p>
+ * customer-service has an identical copy; the services share no library, so change both.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BulkResult {
+
+    public enum Status {
+        CREATED,
+        REJECTED,
+        FAILED
+    }
+
+    private long index;
+    private Status status;
+    private Long id;
+    private String error;
+
+    public static BulkResult created(long index, Long id) {
+        return new BulkResult(index, Status.CREATED, id, null);
+    }
+
+    public static BulkResult rejected(long index, String error) {
+        return new BulkResult(index, Status.REJECTED, null, error);
+    }
+
+    public static BulkResult failed(long index, String error) {
+        return new BulkResult(index, Status.FAILED, null, error);
+    }
+}
@@ -8,4 +8,6 @@ public class OrderDTO {
     private Long id;
     private Long customerId;
     private List<OrderItemDTO> orderItems;
+    // Set when order-service reserved the stock while placing the order; the event confirms it
+    private String reservationId;
 }
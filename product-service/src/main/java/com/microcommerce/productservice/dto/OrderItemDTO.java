@@ -1,8 +1,12 @@
 package com.microcommerce.productservice.dto;
 
+import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 @Data
+@NoArgsConstructor
+@AllArgsConstructor
 public class OrderItemDTO {
     private Long productId;
     private Integer quantity;
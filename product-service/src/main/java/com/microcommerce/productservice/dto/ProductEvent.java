@@ -0,0 +1,19 @@
+package com.microcommerce.productservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductEvent {
+
+    public enum Type { CREATED, UPDATED, DELETED, STOCK_CHANGED }
+
+    private Long productId;
+    private Type type;
+    private Instant occurredAt;
+}
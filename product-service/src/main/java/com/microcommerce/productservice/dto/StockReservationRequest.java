@@ -0,0 +1,16 @@
+package com.microcommerce.productservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockReservationRequest {
+    // Chosen by the caller, so a retried request holds the stock only once
+    private String reservationId;
+    private List<OrderItemDTO> items;
+}
@@ -0,0 +1,30 @@
+package com.microcommerce.productservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockReservationResult {
+    private List<OrderItemDTO> reservedItems;
+    private List<OrderItemDTO> unsatisfiedItems;
+    // The order had already been processed (a redelivery); no stock was touched
+    private boolean alreadyProcessed;
+
+    public StockReservationResult(List<OrderItemDTO> reservedItems, List<OrderItemDTO> unsatisfiedItems) {
+        this(reservedItems, unsatisfiedItems, false);
+    }
+
+    public static StockReservationResult duplicate() {
+        return new StockReservationResult(new ArrayList<>(), new ArrayList<>(), true);
+    }
+
+    public boolean isFullySatisfied() {
+        return unsatisfiedItems.isEmpty();
+    }
+}
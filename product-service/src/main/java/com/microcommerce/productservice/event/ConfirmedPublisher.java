@@ -0,0 +1,75 @@
+package com.microcommerce.productservice.event;
+
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.ReturnedMessage;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Publishes a message and waits until the broker has confirmed it and routed it to a queue. For
+ * publishes that stand in for a delivery acked right afterwards, where a silently dropped
+ * message would be lost. Needs spring.rabbitmq.publisher-confirm-type=correlated and
+ * publisher-returns on the connection factory.
+ */
+@Component
+public class ConfirmedPublisher {
+
+    private final RabbitTemplate rabbitTemplate;
+    private final Duration confirmTimeout;
+
+    @Autowired
+    public ConfirmedPublisher(ConnectionFactory connectionFactory,
+                              @Value("${product.messaging.confirm-timeout:5s}") Duration confirmTimeout) {
+        // Its own template: the shared one is not mandatory, and event publishing stays best effort
+        this(new RabbitTemplate(connectionFactory), confirmTimeout);
+    }
+
+    ConfirmedPublisher(RabbitTemplate rabbitTemplate, Duration confirmTimeout) {
+        rabbitTemplate.setMandatory(true);
+        this.rabbitTemplate = rabbitTemplate;
+        this.confirmTimeout = confirmTimeout;
+    }
+
+    /**
+     * Fails with AmqpException if the broker nacks the message, returns it as unroutable, or
+     * does not confirm it within the timeout. The message may still arrive in the last case.
+     */
+    public void send(String exchange, String routingKey, Message message) {
+        CorrelationData correlation = new CorrelationData(UUID.randomUUID().toString());
+        rabbitTemplate.send(exchange, routingKey, message, correlation);
+
+        CorrelationData.Confirm confirm;
+        try {
+            confirm = correlation.getFuture().get(confirmTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AmqpException("Interrupted waiting for the publisher confirm", e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new AmqpException("No publisher confirm for a message to " + describe(exchange, routingKey), e);
+        }
+        if (!confirm.isAck()) {
+            throw new AmqpException("Broker refused a message to " + describe(exchange, routingKey) + ": " + confirm.getReason());
+        }
+        // Returns arrive before the confirm of the same message
+        ReturnedMessage returned = correlation.getReturned();
+        if (returned != null) {
+            throw new AmqpException("Message to " + describe(exchange, routingKey) + " was unroutable: "
+                    + returned.getReplyCode() + " " + returned.getReplyText());
+        }
+    }
+
+    private static String describe(String exchange, String routingKey) {
+        return (exchange.isEmpty() ? "the default exchange" : exchange) + " (" + routingKey + ")";
+    }
+}
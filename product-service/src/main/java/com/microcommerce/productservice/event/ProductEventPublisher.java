@@ -0,0 +1,78 @@
+package com.microcommerce.productservice.event;
+
+import com.microcommerce.productservice.config.RabbitMQConfig;
+import com.microcommerce.productservice.dto.ProductEvent;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Announces catalog changes on the product exchange so other services can drop cached copies.
+ * Publishing is best effort: a lost event only means a cache entry lives until its TTL.
+ */
+@Component
+@RequiredArgsConstructor
+public class ProductEventPublisher {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductEventPublisher.class);
+
+    private final RabbitTemplate rabbitTemplate;
+
+    public void productsCreated(Collection<Long> productIds) {
+        afterCommit(productIds, ProductEvent.Type.CREATED, RabbitMQConfig.PRODUCT_CREATED_ROUTING_KEY);
+    }
+
+    /**
+     * Stock changes are published on their own routing key: they are far more frequent than
+     * catalog edits and only matter to caches that hold stock levels.
+     */
+    public void stockChanged(Collection<Long> productIds) {
+        afterCommit(productIds, ProductEvent.Type.STOCK_CHANGED, RabbitMQConfig.PRODUCT_STOCK_CHANGED_ROUTING_KEY);
+    }
+
+    public void productUpdated(Long productId) {
+        afterCommit(List.of(productId), ProductEvent.Type.UPDATED, RabbitMQConfig.PRODUCT_UPDATED_ROUTING_KEY);
+    }
+
+    public void productDeleted(Long productId) {
+        afterCommit(List.of(productId), ProductEvent.Type.DELETED, RabbitMQConfig.PRODUCT_DELETED_ROUTING_KEY);
+    }
+
+    /**
+     * Inside a transaction, events go out only once it commits, so a listener that reacts by
+     * reading the product never sees the state from before the change.
+     */
+    private void afterCommit(Collection<Long> productIds, ProductEvent.Type type, String routingKey) {
+        if (productIds.isEmpty()) {
+            return;
+        }
+        List<Long> ids = List.copyOf(productIds);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            ids.forEach(id -> publish(new ProductEvent(id, type, Instant.now()), routingKey));
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                ids.forEach(id -> publish(new ProductEvent(id, type, Instant.now()), routingKey));
+            }
+        });
+    }
+
+    private void publish(ProductEvent event, String routingKey) {
+        try {
+            rabbitTemplate.convertAndSend(RabbitMQConfig.PRODUCT_EXCHANGE, routingKey, event);
+        } catch (AmqpException e) {
+            log.warn("Could not publish {} event for product {}", event.getType(), event.getProductId(), e);
+        }
+    }
+}
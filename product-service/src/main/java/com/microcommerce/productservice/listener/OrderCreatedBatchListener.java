@@ -0,0 +1,79 @@
+package com.microcommerce.productservice.listener;
+
+import com.microcommerce.productservice.config.RabbitMQConfig;
+import com.microcommerce.productservice.dto.OrderDTO;
+import com.microcommerce.productservice.dto.StockReservationResult;
+import com.microcommerce.productservice.service.ProductService;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Batch counterpart of {@link OrderCreatedListener}, enabled with product.listener.batch.enabled=true.
+ * Each delivered batch is merged into one stock update per product and committed once. If that
+ * fails, the orders are retried one by one so a single bad message cannot sink its neighbours.
+ * If a failed order cannot be moved to a retry queue, the whole batch is requeued; the orders
+ * already applied are then skipped as redeliveries.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "product.listener.batch.enabled", havingValue = "true")
+public class OrderCreatedBatchListener {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderCreatedBatchListener.class);
+    private final ProductService productService;
+    private final OrderMessageRecoverer recoverer;
+    private final MessageConverter messageConverter;
+
+    @RabbitListener(queues = RabbitMQConfig.QUEUE_NAME, containerFactory = RabbitMQConfig.BATCH_CONTAINER_FACTORY)
+    public void handleOrdersCreated(List<Message> messages) {
+        log.debug("Received batch of {} orders", messages.size());
+
+        List<Message> accepted = new ArrayList<>(messages.size());
+        List<OrderDTO> orders = new ArrayList<>(messages.size());
+        for (Message message : messages) {
+            try {
+                orders.add((OrderDTO) messageConverter.fromMessage(message));
+                accepted.add(message);
+            } catch (RuntimeException e) {
+                recoverer.recover(message, e);
+            }
+        }
+        if (orders.isEmpty()) {
+            return;
+        }
+
+        try {
+            List<StockReservationResult> results = productService.reserveStock(orders);
+            for (int i = 0; i < orders.size(); i++) {
+                logUnsatisfied(orders.get(i), results.get(i));
+            }
+            log.info("Stock updated for {} orders", orders.size());
+        } catch (Exception e) {
+            log.warn("Batch stock update failed, falling back to one order at a time", e);
+            for (int i = 0; i < orders.size(); i++) {
+                try {
+                    logUnsatisfied(orders.get(i), productService.reserveStock(orders.get(i)));
+                } catch (Exception orderFailure) {
+                    recoverer.recover(accepted.get(i), orderFailure);
+                }
+            }
+        }
+    }
+
+    private void logUnsatisfied(OrderDTO order, StockReservationResult result) {
+        if (result.isAlreadyProcessed()) {
+            log.info("Skipped redelivered orderId: {}, stock was already updated", order.getId());
+        } else if (!result.isFullySatisfied()) {
+            log.warn("Insufficient stock for orderId: {}, unsatisfied items: {}", order.getId(), result.getUnsatisfiedItems());
+        }
+    }
+}
@@ -2,31 +2,43 @@ package com.microcommerce.productservice.listener;
 
 import com.microcommerce.productservice.config.RabbitMQConfig;
 import com.microcommerce.productservice.dto.OrderDTO;
+import com.microcommerce.productservice.dto.StockReservationResult;
 import com.microcommerce.productservice.service.ProductService;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.Message;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 
 @Component
 @RequiredArgsConstructor
+@ConditionalOnProperty(name = "product.listener.batch.enabled", havingValue = "false", matchIfMissing = true)
 public class OrderCreatedListener {
 
     private static final Logger log = LoggerFactory.getLogger(OrderCreatedListener.class);
     private final ProductService productService;
+    private final OrderMessageRecoverer recoverer;
 
     @RabbitListener(queues = RabbitMQConfig.QUEUE_NAME)
-    public void handleOrderCreated(OrderDTO orderDTO) {
+    public void handleOrderCreated(OrderDTO orderDTO, Message message) {
         try {
             log.info("Received order: {}", orderDTO.getId());
 
-            orderDTO.getOrderItems().forEach(item -> 
-                productService.updateStock(item.getProductId(), item.getQuantity()));
+            StockReservationResult result = productService.reserveStock(orderDTO);
+            if (result.isAlreadyProcessed()) {
+                log.info("Skipping redelivered orderId: {}, stock was already updated", orderDTO.getId());
+                return;
+            }
+            if (!result.isFullySatisfied()) {
+                log.warn("Insufficient stock for orderId: {}, unsatisfied items: {}", orderDTO.getId(), result.getUnsatisfiedItems());
+            }
 
             log.info("Stock updated for orderId: {}", orderDTO.getId());
         } catch (Exception e) {
             log.error("Error processing order from RabbitMQ", e);
+            recoverer.recover(message, e);
         }
     }
 }
@@ -0,0 +1,69 @@
+package com.microcommerce.productservice.listener;
+
+import com.microcommerce.productservice.config.RabbitMQConfig;
+import com.microcommerce.productservice.event.ConfirmedPublisher;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.ImmediateRequeueAmqpException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.MessageConversionException;
+import org.springframework.stereotype.Component;
+
+/**
+ * Routes a product_queue message that failed processing to the next delayed retry queue, or to
+ * the dead-letter queue once its attempts are used up or the failure cannot succeed on retry.
+ * The original delivery is then acked, so consumer threads never wait on a backoff. If the broker
+ * does not confirm the new copy, {@link ImmediateRequeueAmqpException} makes the container requeue
+ * the original instead; redelivered orders are skipped by the processed-order ledger.
+ */
+@Component
+@RequiredArgsConstructor
+public class OrderMessageRecoverer {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderMessageRecoverer.class);
+
+    private final ConfirmedPublisher publisher;
+
+    public void recover(Message message, Throwable cause) {
+        MessageProperties properties = message.getMessageProperties();
+        int attempt = attemptOf(message);
+
+        if (isRetryable(cause) && attempt < RabbitMQConfig.RETRY_QUEUES.size()) {
+            String retryQueue = RabbitMQConfig.RETRY_QUEUES.get(attempt);
+            properties.setHeader(RabbitMQConfig.RETRY_ATTEMPT_HEADER, attempt + 1);
+            log.warn("Order message {} failed (attempt {}), retrying via {}: {}",
+                    properties.getMessageId(), attempt + 1, retryQueue, cause.toString());
+            publish("", retryQueue, message);
+            return;
+        }
+
+        properties.setHeader("x-exception-message", String.valueOf(cause.getMessage()));
+        properties.setHeader("x-exception-type", cause.getClass().getName());
+        log.error("Order message {} dead-lettered after {} attempts", properties.getMessageId(), attempt + 1, cause);
+        publish(RabbitMQConfig.DEAD_LETTER_EXCHANGE, RabbitMQConfig.DEAD_LETTER_QUEUE, message);
+    }
+
+    private void publish(String exchange, String routingKey, Message message) {
+        try {
+            publisher.send(exchange, routingKey, message);
+        } catch (AmqpException e) {
+            throw new ImmediateRequeueAmqpException("Could not move order message "
+                    + message.getMessageProperties().getMessageId() + " to " + routingKey + ", requeueing it", e);
+        }
+    }
+
+    private int attemptOf(Message message) {
+        Object attempt = message.getMessageProperties().getHeader(RabbitMQConfig.RETRY_ATTEMPT_HEADER);
+        return attempt instanceof Number number ? number.intValue() : 0;
+    }
+
+    private boolean isRetryable(Throwable cause) {
+        // Malformed payloads fail the same way every time
+        return !(cause instanceof MessageConversionException
+                || cause instanceof IllegalArgumentException
+                || cause instanceof NullPointerException);
+    }
+}
@@ -0,0 +1,31 @@
+package com.microcommerce.productservice.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Ledger entry for an order whose stock has been reserved, so a redelivered order.created
+ * message is not applied twice.
+ */
+@Entity
+@Table(name = "processed_order", indexes = @Index(name = "idx_processed_order_processed_at", columnList = "processed_at"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProcessedOrder {
+
+    @Id
+    @Column(name = "order_id")
+    private Long orderId;
+
+    @Column(name = "processed_at")
+    private Instant processedAt;
+}
@@ -0,0 +1,43 @@
+package com.microcommerce.productservice.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * One stock change made by the inventory engine: negative when stock is taken, positive when it
+ * is given back. Written before the change is acknowledged and applied to {@code Product.stock}
+ * later, in batches; {@code flushedAt} is set in the transaction that applies it.
+ */
+@Entity
+@Table(name = "stock_journal", indexes = {
+        @Index(name = "idx_stock_journal_pending", columnList = "flushed_at, id"),
+        @Index(name = "idx_stock_journal_reservation", columnList = "reservation_id")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockJournalEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "stock_journal_seq")
+    @SequenceGenerator(name = "stock_journal_seq", sequenceName = "stock_journal_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "reservation_id")
+    private String reservationId;
+
+    private Long productId;
+    private int delta;
+    private Instant createdAt;
+
+    @Column(name = "flushed_at")
+    private Instant flushedAt;
+}
@@ -0,0 +1,55 @@
+package com.microcommerce.productservice.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.domain.Persistable;
+
+import java.time.Instant;
+
+/**
+ * Stock held for an order that is being placed. Confirmed when the order's order.created event
+ * arrives, or released if the order is abandoned or never shows up. The quantities are in the
+ * stock journal under the same id.
+ */
+@Entity
+@Table(name = "stock_reservation", indexes = @Index(name = "idx_stock_reservation_status", columnList = "status, created_at"))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockReservation implements Persistable<String> {
+
+    public enum Status {
+        RESERVED,
+        CONFIRMED,
+        RELEASED
+    }
+
+    @Id
+    @Column(name = "reservation_id")
+    private String reservationId;
+
+    @Enumerated(EnumType.STRING)
+    private Status status;
+
+    @Column(name = "created_at")
+    private Instant createdAt;
+
+    private Instant settledAt;
+
+    @Override
+    public String getId() {
+        return reservationId;
+    }
+
+    // Only ever inserted through save(); a duplicate id fails instead of being merged
+    @Override
+    public boolean isNew() {
+        return true;
+    }
+}
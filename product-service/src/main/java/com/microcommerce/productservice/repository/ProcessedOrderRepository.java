@@ -0,0 +1,25 @@
+package com.microcommerce.productservice.repository;
+
+import com.microcommerce.productservice.model.ProcessedOrder;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+
+public interface ProcessedOrderRepository extends JpaRepository<ProcessedOrder, Long> {
+
+    /**
+     * Records the order as processed. Returns 1 if it was new, 0 if it was already in the ledger;
+     * a concurrent insert of the same id waits for the other transaction to finish first.
+     */
+    @Modifying
+    @Query(value = "insert into processed_order (order_id, processed_at) values (:orderId, :processedAt) on conflict do nothing",
+            nativeQuery = true)
+    int insertIfAbsent(@Param("orderId") Long orderId, @Param("processedAt") Instant processedAt);
+
+    @Modifying
+    @Query("delete from ProcessedOrder p where p.processedAt < :cutoff")
+    int deleteProcessedBefore(@Param("cutoff") Instant cutoff);
+}
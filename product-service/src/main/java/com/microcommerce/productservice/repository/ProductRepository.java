@@ -1,7 +1,54 @@
 package com.microcommerce.productservice.repository;
 
 import com.microcommerce.productservice.model.Product;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface ProductRepository extends JpaRepository<Product, Long> {
+
+    List<Product> findByIdGreaterThanOrderByIdAsc(Long afterId, Limit limit);
+
+    /**
+     * Full scan through a server-side cursor. Must be consumed inside a transaction and closed.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select p from Product p order by p.id")
+    Stream<Product> streamAll();
+
+    /**
+     * Decrements stock in the database only if enough is available, bumping the version.
+     * Returns the number of rows updated: 1 on success, 0 if the product is missing or short.
+     */
+    @Modifying
+    @Query("update Product p set p.stock = p.stock - :quantity, p.version = p.version + 1 where p.id = :id and p.stock >= :quantity")
+    int decrementStock(@Param("id") Long id, @Param("quantity") int quantity);
+
+    /**
+     * Stock as the inventory engine sees it: the stored stock plus every journal entry not yet
+     * applied to it. One statement, so a concurrent flush is counted exactly once.
+     */
+    @Query("select coalesce(p.stock, 0) + coalesce((select sum(j.delta) from StockJournalEntry j " +
+            "where j.productId = p.id and j.flushedAt is null), 0) from Product p where p.id = :id")
+    Optional<Long> findAvailableStock(@Param("id") Long id);
+
+    /**
+     * Applies a net stock change from the journal, bumping the version. Returns 0 if the product
+     * no longer exists.
+     */
+    @Modifying
+    @Query("update Product p set p.stock = coalesce(p.stock, 0) + :delta, p.version = p.version + 1 where p.id = :id")
+    int adjustStock(@Param("id") Long id, @Param("delta") int delta);
 }
@@ -0,0 +1,38 @@
+package com.microcommerce.productservice.repository;
+
+import com.microcommerce.productservice.model.StockJournalEntry;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+public interface StockJournalRepository extends JpaRepository<StockJournalEntry, Long> {
+
+    /**
+     * Claims the oldest entries not yet applied to product stock. Rows locked by another
+     * instance's flush are skipped.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("select j from StockJournalEntry j where j.flushedAt is null order by j.id")
+    List<StockJournalEntry> claimUnflushed(Pageable pageable);
+
+    @Modifying
+    @Query("update StockJournalEntry j set j.flushedAt = :now where j.id in :ids")
+    int markFlushed(@Param("ids") Collection<Long> ids, @Param("now") Instant now);
+
+    List<StockJournalEntry> findByReservationId(String reservationId);
+
+    @Modifying
+    @Query("delete from StockJournalEntry j where j.flushedAt < :cutoff")
+    int deleteFlushedBefore(@Param("cutoff") Instant cutoff);
+}
@@ -0,0 +1,32 @@
+package com.microcommerce.productservice.repository;
+
+import com.microcommerce.productservice.model.StockReservation;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface StockReservationRepository extends JpaRepository<StockReservation, String> {
+
+    /**
+     * Moves the reservation from {@code from} to {@code to}. Returns 0 if it is not in {@code from},
+     * so of a concurrent confirm and release exactly one wins.
+     */
+    @Modifying
+    @Query("update StockReservation r set r.status = :to, r.settledAt = :now where r.reservationId = :id and r.status = :from")
+    int transition(@Param("id") String reservationId,
+                   @Param("from") StockReservation.Status from,
+                   @Param("to") StockReservation.Status to,
+                   @Param("now") Instant now);
+
+    @Query("select r.reservationId from StockReservation r where r.status = :status and r.createdAt < :cutoff order by r.createdAt")
+    List<String> findIdsCreatedBefore(@Param("status") StockReservation.Status status, @Param("cutoff") Instant cutoff, Limit limit);
+
+    @Modifying
+    @Query("delete from StockReservation r where r.settledAt < :cutoff")
+    int deleteSettledBefore(@Param("cutoff") Instant cutoff);
+}
@@ -0,0 +1,72 @@
+package com.microcommerce.productservice.service;
+
+import com.microcommerce.productservice.config.RabbitMQConfig;
+import com.microcommerce.productservice.event.ConfirmedPublisher;
+import com.rabbitmq.client.GetResponse;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.AmqpAdmin;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.core.QueueInformation;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.rabbit.support.DefaultMessagePropertiesConverter;
+import org.springframework.amqp.rabbit.support.MessagePropertiesConverter;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+
+@Service
+@RequiredArgsConstructor
+public class DeadLetterService {
+
+    private static final Logger log = LoggerFactory.getLogger(DeadLetterService.class);
+
+    private final MessagePropertiesConverter propertiesConverter = new DefaultMessagePropertiesConverter();
+
+    private final RabbitTemplate rabbitTemplate;
+    private final AmqpAdmin amqpAdmin;
+    private final ConfirmedPublisher confirmedPublisher;
+
+    public long countDeadLetters() {
+        QueueInformation info = amqpAdmin.getQueueInfo(RabbitMQConfig.DEAD_LETTER_QUEUE);
+        return info == null ? 0 : info.getMessageCount();
+    }
+
+    /**
+     * Moves up to {@code max} messages from the DLQ back onto product_queue with a fresh retry
+     * budget. Each message is only acked on the DLQ once the broker has confirmed the republished
+     * copy; if it does not, the message is put back on the DLQ and the replay stops there.
+     */
+    public int replay(int max) {
+        Integer replayed = rabbitTemplate.execute(channel -> {
+            int count = 0;
+            while (count < max) {
+                GetResponse response = channel.basicGet(RabbitMQConfig.DEAD_LETTER_QUEUE, false);
+                if (response == null) {
+                    break;
+                }
+                long deliveryTag = response.getEnvelope().getDeliveryTag();
+                MessageProperties properties = propertiesConverter.toMessageProperties(
+                        response.getProps(), response.getEnvelope(), StandardCharsets.UTF_8.name());
+                properties.getHeaders().remove(RabbitMQConfig.RETRY_ATTEMPT_HEADER);
+                properties.getHeaders().remove("x-death");
+
+                try {
+                    confirmedPublisher.send("", RabbitMQConfig.QUEUE_NAME, new Message(response.getBody(), properties));
+                } catch (AmqpException e) {
+                    log.warn("Stopping the replay, could not republish dead-lettered message {}", properties.getMessageId(), e);
+                    channel.basicNack(deliveryTag, false, true);
+                    break;
+                }
+                channel.basicAck(deliveryTag, false);
+                count++;
+            }
+            return count;
+        });
+        log.info("Replayed {} dead-lettered order messages", replayed);
+        return replayed == null ? 0 : replayed;
+    }
+}
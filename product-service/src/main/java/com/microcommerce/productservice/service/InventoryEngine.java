@@ -0,0 +1,340 @@
+package com.microcommerce.productservice.service;
+
+import com.microcommerce.productservice.dto.OrderItemDTO;
+import com.microcommerce.productservice.event.ProductEventPublisher;
+import com.microcommerce.productservice.model.StockJournalEntry;
+import com.microcommerce.productservice.model.StockReservation;
+import com.microcommerce.productservice.repository.ProductRepository;
+import com.microcommerce.productservice.repository.StockJournalRepository;
+import com.microcommerce.productservice.repository.StockReservationRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Admits stock reservations against in-memory counters instead of product rows.
+ * <p>
+ * A product's available stock is loaded once, as its stored stock plus the journal entries not
+ * yet applied to it, and is then taken with compare-and-set: concurrent orders for the same hot
+ * product never queue on a row lock. Every change is appended to the stock journal before it is
+ * acknowledged, so after a crash the counters are rebuilt from the same two sources. A scheduled
+ * flush applies the journal to {@code Product.stock} in batches, one update per product whatever
+ * the number of orders it covers.
+ * <p>
+ * The counters belong to this process and are never reloaded, so with several product-service
+ * instances each would admit the full stock. The engine is therefore off unless
+ * {@code product.inventory.engine.enabled=true}, which is only safe with a single instance.
+ */
+@Component
+@ConditionalOnProperty(name = "product.inventory.engine.enabled", havingValue = "true")
+public class InventoryEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(InventoryEngine.class);
+
+    private final ProductRepository productRepository;
+    private final StockJournalRepository journal;
+    private final StockReservationRepository reservations;
+    private final TransactionTemplate transactionTemplate;
+    private final ProductEventPublisher productEventPublisher;
+    private final Duration reservationTtl;
+    private final int flushBatchSize;
+    private final Duration retention;
+
+    private final ConcurrentMap<Long, AtomicInteger> available = new ConcurrentHashMap<>();
+
+    public InventoryEngine(ProductRepository productRepository,
+                           StockJournalRepository journal,
+                           StockReservationRepository reservations,
+                           TransactionTemplate transactionTemplate,
+                           ProductEventPublisher productEventPublisher,
+                           @Value("${product.inventory.reservation-ttl:10m}") Duration reservationTtl,
+                           @Value("${product.inventory.flush.batch-size:1000}") int flushBatchSize,
+                           @Value("${product.inventory.journal.retention:7d}") Duration retention) {
+        this.productRepository = productRepository;
+        this.journal = journal;
+        this.reservations = reservations;
+        this.transactionTemplate = transactionTemplate;
+        this.productEventPublisher = productEventPublisher;
+        this.reservationTtl = reservationTtl;
+        this.flushBatchSize = flushBatchSize;
+        this.retention = retention;
+    }
+
+    /**
+     * Reserves every line or none, for an order being placed. Returns the lines that cannot be
+     * covered; when empty, the stock is held under {@code reservationId} until the order's
+     * order.created event confirms it, {@link #release} gives it back, or it expires.
+     */
+    public List<OrderItemDTO> reserve(String reservationId, Map<Long, Integer> lines) {
+        Map<Long, Integer> taken = new TreeMap<>();
+        for (Map.Entry<Long, Integer> line : new TreeMap<>(lines).entrySet()) {
+            if (!take(line.getKey(), line.getValue())) {
+                giveBack(taken);
+                return List.of(new OrderItemDTO(line.getKey(), line.getValue()));
+            }
+            taken.put(line.getKey(), line.getValue());
+        }
+        try {
+            journal(taken, () -> {
+                reservations.saveAndFlush(StockReservation.builder()
+                        .reservationId(reservationId)
+                        .status(StockReservation.Status.RESERVED)
+                        .createdAt(Instant.now())
+                        .build());
+                journal.saveAll(entries(reservationId, taken, -1));
+            });
+        } catch (DataIntegrityViolationException e) {
+            // A retried request: the first one holds the stock, unless it has been released since
+            StockReservation existing = reservations.findById(reservationId).orElseThrow(() -> e);
+            if (existing.getStatus() == StockReservation.Status.RELEASED) {
+                return toItems(lines);
+            }
+        }
+        return List.of();
+    }
+
+    /**
+     * Takes what is available, line by line, for an order that already exists. Returns the lines
+     * that cannot be covered.
+     */
+    public List<OrderItemDTO> reserveAvailable(String reservationId, Map<Long, Integer> lines) {
+        Map<Long, Integer> taken = new TreeMap<>();
+        List<OrderItemDTO> unsatisfied = new ArrayList<>();
+        new TreeMap<>(lines).forEach((productId, quantity) -> {
+            if (take(productId, quantity)) {
+                taken.put(productId, quantity);
+            } else {
+                unsatisfied.add(new OrderItemDTO(productId, quantity));
+            }
+        });
+        if (!taken.isEmpty()) {
+            journal(taken, () -> journal.saveAll(entries(reservationId, taken, -1)));
+        }
+        return unsatisfied;
+    }
+
+    /**
+     * Confirms the reservation of a placed order. If it was released first (the order's event
+     * arrived after the reservation expired), the lines are taken again from what is available.
+     * Returns the lines that cannot be covered.
+     */
+    public List<OrderItemDTO> confirm(String reservationId, Map<Long, Integer> lines) {
+        return transactionTemplate.execute(status -> {
+            Instant now = Instant.now();
+            if (reservations.transition(reservationId, StockReservation.Status.RESERVED,
+                    StockReservation.Status.CONFIRMED, now) == 1) {
+                return List.of();
+            }
+            Optional<StockReservation> reservation = reservations.findById(reservationId);
+            if (reservation.isPresent() && reservation.get().getStatus() == StockReservation.Status.CONFIRMED) {
+                return List.of();
+            }
+            log.warn("Reservation {} is no longer held, taking its order's stock again", reservationId);
+            reservation.ifPresent(released -> reservations.transition(reservationId, StockReservation.Status.RELEASED,
+                    StockReservation.Status.CONFIRMED, now));
+            return reserveAvailable(reservationId, lines);
+        });
+    }
+
+    /**
+     * Gives the stock of an unconfirmed reservation back. Returns false if there is nothing to
+     * release: the reservation is unknown, confirmed or already released.
+     */
+    public boolean release(String reservationId) {
+        Boolean released = transactionTemplate.execute(status -> {
+            if (reservations.transition(reservationId, StockReservation.Status.RESERVED,
+                    StockReservation.Status.RELEASED, Instant.now()) == 0) {
+                return false;
+            }
+            Map<Long, Integer> quantities = new TreeMap<>();
+            for (StockJournalEntry entry : journal.findByReservationId(reservationId)) {
+                quantities.merge(entry.getProductId(), -entry.getDelta(), Integer::sum);
+            }
+            journal.saveAll(entries(reservationId, quantities, 1));
+            // Only once the release is durable may the stock be handed out again
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    giveBack(quantities);
+                }
+            });
+            return true;
+        });
+        return Boolean.TRUE.equals(released);
+    }
+
+    /**
+     * Current available stock of a product, or empty if it does not exist.
+     */
+    public Optional<Integer> availableStock(Long productId) {
+        return Optional.ofNullable(counter(productId)).map(AtomicInteger::get);
+    }
+
+    public void evict(Long productId) {
+        available.remove(productId);
+    }
+
+    /**
+     * Applies the journal to product stock: each batch of entries becomes one update per product,
+     * committed together with marking the entries flushed.
+     */
+    @Scheduled(fixedDelayString = "${product.inventory.flush.interval-ms:200}")
+    public void flush() {
+        int flushed;
+        do {
+            flushed = flushBatch();
+        } while (flushed == flushBatchSize);
+    }
+
+    /**
+     * Releases reservations whose order never arrived, e.g. because order-service failed between
+     * reserving and storing the order.
+     */
+    @Scheduled(fixedDelayString = "${product.inventory.expiry.interval-ms:60000}")
+    public void releaseExpired() {
+        List<String> expired = reservations.findIdsCreatedBefore(StockReservation.Status.RESERVED,
+                Instant.now().minus(reservationTtl), Limit.of(flushBatchSize));
+        for (String reservationId : expired) {
+            if (release(reservationId)) {
+                log.warn("Released reservation {}: no order arrived within {}", reservationId, reservationTtl);
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${product.inventory.cleanup.interval-ms:3600000}")
+    public void purgeFlushed() {
+        Instant cutoff = Instant.now().minus(retention);
+        transactionTemplate.executeWithoutResult(status -> {
+            int entries = journal.deleteFlushedBefore(cutoff);
+            int settled = reservations.deleteSettledBefore(cutoff);
+            log.debug("Purged {} stock journal entries and {} settled reservations", entries, settled);
+        });
+    }
+
+    private int flushBatch() {
+        Integer flushed = transactionTemplate.execute(status -> {
+            List<StockJournalEntry> entries = journal.claimUnflushed(PageRequest.of(0, flushBatchSize));
+            if (entries.isEmpty()) {
+                return 0;
+            }
+            // Net change per product, applied in id order so concurrent flushes lock rows alike
+            Map<Long, Integer> net = new TreeMap<>();
+            for (StockJournalEntry entry : entries) {
+                net.merge(entry.getProductId(), entry.getDelta(), Integer::sum);
+            }
+            net.forEach((productId, delta) -> {
+                if (delta != 0) {
+                    productRepository.adjustStock(productId, delta);
+                }
+            });
+            journal.markFlushed(entries.stream().map(StockJournalEntry::getId).toList(), Instant.now());
+            productEventPublisher.stockChanged(net.keySet());
+            return entries.size();
+        });
+        return flushed == null ? 0 : flushed;
+    }
+
+    private AtomicInteger counter(Long productId) {
+        AtomicInteger counter = available.get(productId);
+        if (counter != null) {
+            return counter;
+        }
+        // Loaded outside computeIfAbsent to keep the query out of the map's lock; a racing load
+        // reads the same value, as nothing was reserved here for this product yet
+        Optional<Long> stock = productRepository.findAvailableStock(productId);
+        return stock.map(value -> available.computeIfAbsent(productId, id -> new AtomicInteger(value.intValue())))
+                .orElse(null);
+    }
+
+    private boolean take(Long productId, int quantity) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive, was " + quantity + " for product " + productId);
+        }
+        AtomicInteger counter = counter(productId);
+        if (counter == null) {
+            return false;
+        }
+        int current;
+        do {
+            current = counter.get();
+            if (current < quantity) {
+                return false;
+            }
+        } while (!counter.compareAndSet(current, current - quantity));
+        return true;
+    }
+
+    private void giveBack(Map<Long, Integer> quantities) {
+        quantities.forEach((productId, quantity) -> {
+            AtomicInteger counter = available.get(productId);
+            if (counter != null) {
+                counter.addAndGet(quantity);
+            }
+        });
+    }
+
+    /**
+     * Writes the journal for stock already taken from the counters, in the caller's transaction
+     * if there is one. If that transaction rolls back, the stock goes back to the counters.
+     */
+    private void journal(Map<Long, Integer> taken, Runnable writes) {
+        boolean[] guarded = {false};
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int completion) {
+                        if (completion == STATUS_ROLLED_BACK) {
+                            giveBack(taken);
+                        }
+                    }
+                });
+                guarded[0] = true;
+                writes.run();
+            });
+        } catch (RuntimeException e) {
+            if (!guarded[0]) {
+                giveBack(taken);
+            }
+            throw e;
+        }
+    }
+
+    private static List<StockJournalEntry> entries(String reservationId, Map<Long, Integer> quantities, int sign) {
+        Instant now = Instant.now();
+        return quantities.entrySet().stream()
+                .map(line -> StockJournalEntry.builder()
+                        .reservationId(reservationId)
+                        .productId(line.getKey())
+                        .delta(sign * line.getValue())
+                        .createdAt(now)
+                        .build())
+                .toList();
+    }
+
+    private static List<OrderItemDTO> toItems(Map<Long, Integer> lines) {
+        return lines.entrySet().stream()
+                .map(line -> new OrderItemDTO(line.getKey(), line.getValue()))
+                .toList();
+    }
+}
@@ -0,0 +1,85 @@
+package com.microcommerce.productservice.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.microcommerce.productservice.repository.ProcessedOrderRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Remembers which orders have already had their stock reserved.
+ * <p>
+ * The database table is authoritative and is written in the stock update's transaction, so the
+ * order is marked processed exactly when its stock change commits. A bounded in-memory set of
+ * recently committed ids in front of it answers most redeliveries without touching the database;
+ * a new order costs only the ledger insert, which doubles as the duplicate check.
+ */
+@Component
+public class ProcessedOrderLedger {
+
+    private static final Logger log = LoggerFactory.getLogger(ProcessedOrderLedger.class);
+
+    private final ProcessedOrderRepository repository;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration retention;
+    private final Cache<Long, Boolean> recentlyProcessed;
+
+    public ProcessedOrderLedger(ProcessedOrderRepository repository,
+                                TransactionTemplate transactionTemplate,
+                                @Value("${product.ledger.retention:7d}") Duration retention,
+                                @Value("${product.ledger.cache.max-size:100000}") long cacheSize) {
+        this.repository = repository;
+        this.transactionTemplate = transactionTemplate;
+        this.retention = retention;
+        this.recentlyProcessed = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(retention)
+                .build();
+    }
+
+    /**
+     * True if the order is known, from memory alone, to have been processed. False means "unknown".
+     */
+    public boolean isKnownProcessed(Long orderId) {
+        return recentlyProcessed.getIfPresent(orderId) != null;
+    }
+
+    /**
+     * Claims the order in the current transaction. Returns false if it had already been processed.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public boolean markProcessed(Long orderId) {
+        boolean inserted = repository.insertIfAbsent(orderId, Instant.now()) == 1;
+        // Only remember it once committed, even when it was already there: the row may have been
+        // inserted earlier in this same transaction, and a rollback leaves the order unprocessed
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                recentlyProcessed.put(orderId, Boolean.TRUE);
+            }
+        });
+        return inserted;
+    }
+
+    /**
+     * Drops ledger entries older than the retention, which must exceed the longest time a
+     * message can spend in retry queues before it is redelivered.
+     */
+    @Scheduled(fixedDelayString = "${product.ledger.cleanup.interval-ms:3600000}")
+    public void purgeExpired() {
+        Integer deleted = transactionTemplate.execute(status ->
+                repository.deleteProcessedBefore(Instant.now().minus(retention)));
+        log.debug("Purged {} processed-order ledger entries", deleted);
+    }
+}
@@ -0,0 +1,151 @@
+package com.microcommerce.productservice.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microcommerce.productservice.dto.BulkResult;
+import com.microcommerce.productservice.event.ProductEventPublisher;
+import com.microcommerce.productservice.model.Product;
+import com.microcommerce.productservice.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Streams products out of a JSON array or NDJSON body and inserts them in chunks, each chunk in
+ * its own transaction. Only one chunk is held in memory, so the body can be arbitrarily large.
+ */
+@Service
+public class ProductBulkImporter {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductBulkImporter.class);
+
+    private record Pending(long index, Product product) {
+    }
+
+    private final ProductRepository productRepository;
+    private final ProductEventPublisher productEventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final int chunkSize;
+
+    public ProductBulkImporter(ProductRepository productRepository,
+                               ProductEventPublisher productEventPublisher,
+                               TransactionTemplate transactionTemplate,
+                               ObjectMapper objectMapper,
+                               @Value("${product.import.chunk-size:500}") int chunkSize) {
+        this.productRepository = productRepository;
+        this.productEventPublisher = productEventPublisher;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Imports every record of {@code body}, reporting one result per record to {@code results}
+     * in input order. Results for a chunk are reported once that chunk has been committed.
+     */
+    public void importProducts(InputStream body, Consumer<BulkResult> results) throws IOException {
+        List<Pending> chunk = new ArrayList<>(chunkSize);
+        List<BulkResult> chunkResults = new ArrayList<>(chunkSize);
+        long index = 0;
+        try (MappingIterator<Product> records = objectMapper.readerFor(Product.class).readValues(body)) {
+            while (true) {
+                Product product;
+                try {
+                    if (!records.hasNextValue()) {
+                        break;
+                    }
+                    product = records.nextValue();
+                } catch (JsonMappingException e) {
+                    // The record was well-formed JSON but not a product; the iterator can skip it
+                    chunkResults.add(BulkResult.rejected(index++, e.getOriginalMessage()));
+                    continue;
+                } catch (JsonProcessingException e) {
+                    // Malformed JSON: nothing after this point can be parsed reliably
+                    flush(chunk, chunkResults, results);
+                    results.accept(BulkResult.rejected(index, "Malformed JSON: " + e.getOriginalMessage()));
+                    return;
+                }
+
+                String error = validate(product);
+                if (error != null) {
+                    chunkResults.add(BulkResult.rejected(index++, error));
+                } else {
+                    chunk.add(new Pending(index++, product));
+                }
+                if (chunk.size() == chunkSize) {
+                    flush(chunk, chunkResults, results);
+                }
+            }
+        }
+        flush(chunk, chunkResults, results);
+    }
+
+    private void flush(List<Pending> chunk, List<BulkResult> chunkResults, Consumer<BulkResult> results) {
+        if (!chunk.isEmpty()) {
+            chunkResults.addAll(insert(chunk));
+        }
+        chunkResults.sort((a, b) -> Long.compare(a.getIndex(), b.getIndex()));
+        chunkResults.forEach(results);
+        chunk.clear();
+        chunkResults.clear();
+    }
+
+    private List<BulkResult> insert(List<Pending> chunk) {
+        try {
+            return transactionTemplate.execute(status -> {
+                List<Product> saved = productRepository.saveAll(chunk.stream().map(Pending::product).toList());
+                productEventPublisher.productsCreated(saved.stream().map(Product::getId).toList());
+                return chunk.stream().map(p -> BulkResult.created(p.index(), p.product().getId())).toList();
+            });
+        } catch (RuntimeException e) {
+            log.warn("Bulk insert of {} products failed, retrying them one by one", chunk.size(), e);
+        }
+        // Isolate the offending records so the rest of the chunk still goes in
+        List<BulkResult> results = new ArrayList<>(chunk.size());
+        for (Pending pending : chunk) {
+            Product product = pending.product();
+            product.setId(null);
+            try {
+                Product saved = transactionTemplate.execute(status -> {
+                    Product inserted = productRepository.save(product);
+                    productEventPublisher.productsCreated(List.of(inserted.getId()));
+                    return inserted;
+                });
+                results.add(BulkResult.created(pending.index(), saved.getId()));
+            } catch (RuntimeException e) {
+                results.add(BulkResult.failed(pending.index(), e.getMessage()));
+            }
+        }
+        return results;
+    }
+
+    private String validate(Product product) {
+        if (product == null) {
+            return "Record is null";
+        }
+        if (product.getId() != null) {
+            return "id must not be set";
+        }
+        if (product.getName() == null || product.getName().isBlank()) {
+            return "name is required";
+        }
+        if (product.getPrice() == null || product.getPrice() < 0) {
+            return "price must be zero or positive";
+        }
+        if (product.getStock() == null || product.getStock() < 0) {
+            return "stock must be zero or positive";
+        }
+        return null;
+    }
+}
@@ -1,15 +1,24 @@
 package com.microcommerce.productservice.service;
 
+import com.microcommerce.productservice.dto.OrderDTO;
+import com.microcommerce.productservice.dto.ProductBatchResponse;
+import com.microcommerce.productservice.dto.StockReservationResult;
 import com.microcommerce.productservice.model.Product;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface ProductService {
-    List<Product> getAllProducts();
+    List<Product> getProducts(long afterId, int limit);
+    void forEachProduct(Consumer<Product> action);
     Optional<Product> getProductById(Long id);
+    ProductBatchResponse getProductsByIds(Collection<Long> ids);
     Product createProduct(Product product);
     Product updateProduct(Long id, Product productDetails);
     void deleteProduct(Long id);
     void updateStock(Long productId, Integer quantity);
+    StockReservationResult reserveStock(OrderDTO order);
+    List<StockReservationResult> reserveStock(List<OrderDTO> orders);
 }
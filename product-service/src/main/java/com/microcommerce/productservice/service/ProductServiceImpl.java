@@ -1,22 +1,60 @@
 package com.microcommerce.productservice.service;
 
+import com.microcommerce.productservice.dto.OrderDTO;
+import com.microcommerce.productservice.dto.OrderItemDTO;
+import com.microcommerce.productservice.dto.ProductBatchResponse;
+import com.microcommerce.productservice.dto.StockReservationResult;
+import com.microcommerce.productservice.event.ProductEventPublisher;
 import com.microcommerce.productservice.model.Product;
 import com.microcommerce.productservice.repository.ProductRepository;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class ProductServiceImpl implements ProductService {
 
     private final ProductRepository productRepository;
+    private final ProductEventPublisher productEventPublisher;
+    private final EntityManager entityManager;
+    private final ProcessedOrderLedger processedOrderLedger;
+    // Absent when product.inventory.engine.enabled=false: stock is then decremented in SQL
+    private final Optional<InventoryEngine> inventoryEngine;
 
     @Override
-    public List<Product> getAllProducts() {
-        return productRepository.findAll();
+    public List<Product> getProducts(long afterId, int limit) {
+        return productRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(limit));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void forEachProduct(Consumer<Product> action) {
+        try (Stream<Product> products = productRepository.streamAll()) {
+            products.forEach(product -> {
+                action.accept(product);
+                // Keep the persistence context from growing with the table
+                entityManager.detach(product);
+            });
+        }
     }
 
     @Override
@@ -24,29 +62,172 @@ public class ProductServiceImpl implements ProductService {
         return productRepository.findById(id);
     }
 
+    @Override
+    public ProductBatchResponse getProductsByIds(Collection<Long> ids) {
+        Set<Long> requestedIds = new LinkedHashSet<>(ids);
+        Map<Long, Product> found = productRepository.findAllById(requestedIds).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+
+        // Keep the caller's ordering so clients can zip results back onto their request
+        List<Product> products = requestedIds.stream()
+                .map(found::get)
+                .filter(Objects::nonNull)
+                .toList();
+        List<Long> missingIds = requestedIds.stream()
+                .filter(id -> !found.containsKey(id))
+                .toList();
+        return new ProductBatchResponse(products, missingIds);
+    }
+
     @Override
     public Product createProduct(Product product) {
-        return productRepository.save(product);
+        Product saved = productRepository.save(product);
+        productEventPublisher.productsCreated(List.of(saved.getId()));
+        return saved;
     }
 
     @Override
+    @Transactional
     public Product updateProduct(Long id, Product productDetails) {
         Product product = productRepository.findById(id).orElseThrow(() -> new RuntimeException("Product not found"));
         product.setName(productDetails.getName());
         product.setDescription(productDetails.getDescription());
         product.setPrice(productDetails.getPrice());
-        return productRepository.save(product);
+        Product saved = productRepository.save(product);
+        productEventPublisher.productUpdated(id);
+        return saved;
     }
 
     @Override
     public void deleteProduct(Long id) {
         productRepository.deleteById(id);
+        inventoryEngine.ifPresent(engine -> engine.evict(id));
+        productEventPublisher.productDeleted(id);
     }
 
     @Override
+    @Transactional
     public void updateStock(Long productId, Integer quantity) {
-        Product product = productRepository.findById(productId).orElseThrow(() -> new RuntimeException("Product not found"));
-        product.setStock(product.getStock() - quantity);
-        productRepository.save(product);
+        if (inventoryEngine.isPresent()) {
+            if (!inventoryEngine.get().reserveAvailable("stock-" + UUID.randomUUID(), Map.of(productId, quantity)).isEmpty()) {
+                throw new RuntimeException(productRepository.existsById(productId)
+                        ? "Insufficient stock for product " + productId : "Product not found");
+            }
+            return;
+        }
+        if (productRepository.decrementStock(productId, quantity) == 0) {
+            if (!productRepository.existsById(productId)) {
+                throw new RuntimeException("Product not found");
+            }
+            throw new RuntimeException("Insufficient stock for product " + productId);
+        }
+        productEventPublisher.stockChanged(List.of(productId));
+    }
+
+    @Override
+    @Transactional
+    public StockReservationResult reserveStock(OrderDTO order) {
+        return reserveStock(List.of(order)).get(0);
+    }
+
+    /**
+     * Reserves stock for each order not already in the processed-order ledger. Orders seen before
+     * come back as {@link StockReservationResult#duplicate()} without touching stock.
+     */
+    @Override
+    @Transactional
+    public List<StockReservationResult> reserveStock(List<OrderDTO> orders) {
+        List<StockReservationResult> results = new ArrayList<>(orders.size());
+        List<Integer> fresh = new ArrayList<>(orders.size());
+        Set<Long> inBatch = new HashSet<>();
+        for (int i = 0; i < orders.size(); i++) {
+            Long orderId = orders.get(i).getId();
+            // A redelivery can land in the same batch as the original
+            boolean duplicate = orderId != null && (!inBatch.add(orderId)
+                    || processedOrderLedger.isKnownProcessed(orderId) || !processedOrderLedger.markProcessed(orderId));
+            results.add(duplicate ? StockReservationResult.duplicate() : null);
+            if (!duplicate) {
+                fresh.add(i);
+            }
+        }
+
+        List<OrderDTO> freshOrders = fresh.stream().map(orders::get).toList();
+        List<StockReservationResult> reserved = inventoryEngine
+                .map(engine -> reserveInMemory(engine, freshOrders))
+                .orElseGet(() -> reserve(freshOrders));
+        for (int i = 0; i < fresh.size(); i++) {
+            results.set(fresh.get(i), reserved.get(i));
+        }
+        return results;
+    }
+
+    /**
+     * Orders placed with a reservation only confirm it; others take their stock from the engine's
+     * counters. Product rows are updated later, when the engine flushes its journal.
+     */
+    private List<StockReservationResult> reserveInMemory(InventoryEngine engine, List<OrderDTO> orders) {
+        List<StockReservationResult> results = new ArrayList<>(orders.size());
+        for (OrderDTO order : orders) {
+            Map<Long, Integer> lines = lines(order);
+            List<OrderItemDTO> unsatisfied = order.getReservationId() != null
+                    ? engine.confirm(order.getReservationId(), lines)
+                    : engine.reserveAvailable("order-" + order.getId(), lines);
+            Set<Long> missing = unsatisfied.stream().map(OrderItemDTO::getProductId).collect(Collectors.toSet());
+            List<OrderItemDTO> reserved = new ArrayList<>();
+            lines.forEach((productId, quantity) -> {
+                if (!missing.contains(productId)) {
+                    reserved.add(new OrderItemDTO(productId, quantity));
+                }
+            });
+            results.add(new StockReservationResult(reserved, new ArrayList<>(unsatisfied)));
+        }
+        return results;
+    }
+
+    private List<StockReservationResult> reserve(List<OrderDTO> orders) {
+        // Merge duplicate lines per order, then across the batch, keyed in id order so
+        // concurrent consumers always lock rows in the same sequence and cannot deadlock
+        List<Map<Long, Integer>> linesPerOrder = new ArrayList<>();
+        Map<Long, Integer> totals = new TreeMap<>();
+        for (OrderDTO order : orders) {
+            Map<Long, Integer> lines = lines(order);
+            lines.forEach((productId, quantity) -> totals.merge(productId, quantity, Integer::sum));
+            linesPerOrder.add(lines);
+        }
+
+        List<StockReservationResult> results = new ArrayList<>();
+        for (int i = 0; i < orders.size(); i++) {
+            results.add(new StockReservationResult(new ArrayList<>(), new ArrayList<>()));
+        }
+        Set<Long> changed = new LinkedHashSet<>();
+
+        totals.forEach((productId, total) -> {
+            // One update per product covers the whole batch in the common case; when the
+            // product cannot cover the total, fall back to first-come-first-served per order
+            boolean allReserved = productRepository.decrementStock(productId, total) == 1;
+            for (int i = 0; i < orders.size(); i++) {
+                Integer quantity = linesPerOrder.get(i).get(productId);
+                if (quantity == null) {
+                    continue;
+                }
+                OrderItemDTO line = new OrderItemDTO(productId, quantity);
+                if (allReserved || productRepository.decrementStock(productId, quantity) == 1) {
+                    results.get(i).getReservedItems().add(line);
+                    changed.add(productId);
+                } else {
+                    results.get(i).getUnsatisfiedItems().add(line);
+                }
+            }
+        });
+        productEventPublisher.stockChanged(changed);
+        return results;
+    }
+
+    private static Map<Long, Integer> lines(OrderDTO order) {
+        Map<Long, Integer> lines = new TreeMap<>();
+        for (OrderItemDTO item : order.getOrderItems()) {
+            lines.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+        }
+        return lines;
     }
 }
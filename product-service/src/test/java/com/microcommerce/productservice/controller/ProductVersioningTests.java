@@ -0,0 +1,122 @@
+package com.microcommerce.productservice.controller;
+
+import com.microcommerce.productservice.event.ProductEventPublisher;
+import com.microcommerce.productservice.model.Product;
+import com.microcommerce.productservice.repository.ProductRepository;
+import com.microcommerce.productservice.service.ProductService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.Base64;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Product versions as ETags: what bumps them, conditional reads, and an update racing a stock change.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:productversions;MODE=PostgreSQL;LOCK_TIMEOUT=30000",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.rabbitmq.listener.simple.auto-startup=false"
+})
+@AutoConfigureMockMvc
+class ProductVersioningTests {
+
+    private static final String BASIC = "Basic " + Base64.getEncoder().encodeToString("admin:password".getBytes());
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @SpyBean
+    private ProductEventPublisher productEventPublisher;
+
+    @Test
+    void stockChangeAndUpdateBumpTheVersion() throws Exception {
+        Product product = productRepository.save(Product.builder().name("versioned").price(1.0).stock(10).build());
+        long version = product.getVersion();
+
+        productService.updateStock(product.getId(), 2);
+        assertThat(versionOf(product.getId())).isEqualTo(version + 1);
+
+        mockMvc.perform(authorized(put("/api/products/{id}", product.getId()))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"renamed\",\"price\":2.0}"))
+                .andExpect(status().isOk());
+        assertThat(versionOf(product.getId())).isEqualTo(version + 2);
+        assertThat(productRepository.findById(product.getId()).orElseThrow().getStock()).isEqualTo(8);
+    }
+
+    @Test
+    void matchingIfNoneMatchGetsA304UntilTheProductChanges() throws Exception {
+        Product product = productRepository.save(Product.builder().name("conditional").price(1.0).stock(10).build());
+        String eTag = "\"" + product.getVersion() + "\"";
+
+        mockMvc.perform(authorized(get("/api/products/{id}", product.getId())))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, eTag));
+        mockMvc.perform(authorized(get("/api/products/{id}", product.getId())).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+        String pageETag = mockMvc.perform(authorized(get("/api/products")))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        mockMvc.perform(authorized(get("/api/products")).header(HttpHeaders.IF_NONE_MATCH, pageETag))
+                .andExpect(status().isNotModified());
+
+        productService.updateStock(product.getId(), 1);
+
+        mockMvc.perform(authorized(get("/api/products/{id}", product.getId())).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + (product.getVersion() + 1) + "\""));
+        mockMvc.perform(authorized(get("/api/products")).header(HttpHeaders.IF_NONE_MATCH, pageETag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void updateRacingAStockChangeIsAConflict() throws Exception {
+        Product product = productRepository.save(Product.builder().name("contended").price(1.0).stock(10).build());
+        // The stock changes, and commits, after the update has read the product and before it commits
+        doAnswer(invocation -> {
+            CompletableFuture.runAsync(() -> productService.updateStock(product.getId(), 3)).get(5, TimeUnit.SECONDS);
+            return invocation.callRealMethod();
+        }).when(productEventPublisher).productUpdated(eq(product.getId()));
+
+        mockMvc.perform(authorized(put("/api/products/{id}", product.getId()))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"overwritten\",\"price\":2.0}"))
+                .andExpect(status().isConflict());
+
+        // The stock change stands and the update left no trace
+        Product stored = productService.getProductById(product.getId()).orElseThrow();
+        assertThat(stored.getStock()).isEqualTo(7);
+        assertThat(stored.getName()).isEqualTo("contended");
+    }
+
+    private long versionOf(Long productId) {
+        return productService.getProductById(productId).orElseThrow().getVersion();
+    }
+
+    private static MockHttpServletRequestBuilder authorized(MockHttpServletRequestBuilder request) {
+        return request.header(HttpHeaders.AUTHORIZATION, BASIC);
+    }
+}
@@ -0,0 +1,76 @@
+package com.microcommerce.productservice.event;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.core.ReturnedMessage;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+
+import java.time.Duration;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+/**
+ * The broker's answers to a publish, played by a mocked template completing the correlation.
+ */
+class ConfirmedPublisherTests {
+
+    private final RabbitTemplate rabbitTemplate = mock(RabbitTemplate.class);
+    private final ConfirmedPublisher publisher = new ConfirmedPublisher(rabbitTemplate, Duration.ofMillis(200));
+    private final Message message = new Message("{}".getBytes(), new MessageProperties());
+
+    @Test
+    void confirmedAndRoutedMessageIsSent() {
+        broker(correlation -> correlation.getFuture().complete(new CorrelationData.Confirm(true, null)));
+
+        assertThatCode(() -> publisher.send("", "product_queue.retry.1s", message)).doesNotThrowAnyException();
+        verify(rabbitTemplate).setMandatory(true);
+    }
+
+    @Test
+    void nackedMessageFails() {
+        broker(correlation -> correlation.getFuture().complete(new CorrelationData.Confirm(false, "resource alarm")));
+
+        assertThatThrownBy(() -> publisher.send("", "product_queue.retry.1s", message))
+                .isInstanceOf(AmqpException.class)
+                .hasMessageContaining("resource alarm");
+    }
+
+    @Test
+    void unroutableMessageFailsAlthoughTheBrokerAcksIt() {
+        broker(correlation -> {
+            correlation.setReturned(new ReturnedMessage(message, 312, "NO_ROUTE", "", "product_queue.retry.1s"));
+            correlation.getFuture().complete(new CorrelationData.Confirm(true, null));
+        });
+
+        assertThatThrownBy(() -> publisher.send("", "product_queue.retry.1s", message))
+                .isInstanceOf(AmqpException.class)
+                .hasMessageContaining("NO_ROUTE");
+    }
+
+    @Test
+    void unconfirmedMessageFailsAfterTheTimeout() {
+        broker(correlation -> {
+        });
+
+        assertThatThrownBy(() -> publisher.send("product_queue.dlx", "product_queue.dlq", message))
+                .isInstanceOf(AmqpException.class)
+                .hasMessageContaining("No publisher confirm");
+    }
+
+    private void broker(Consumer<CorrelationData> answer) {
+        doAnswer(invocation -> {
+            answer.accept(invocation.getArgument(3));
+            return null;
+        }).when(rabbitTemplate).send(any(String.class), any(String.class), eq(message), any(CorrelationData.class));
+    }
+}
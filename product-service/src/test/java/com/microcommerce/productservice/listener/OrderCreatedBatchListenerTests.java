@@ -0,0 +1,104 @@
+package com.microcommerce.productservice.listener;
+
+import com.microcommerce.productservice.dto.OrderDTO;
+import com.microcommerce.productservice.dto.OrderItemDTO;
+import com.microcommerce.productservice.model.Product;
+import com.microcommerce.productservice.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Drives thousands of order.created messages through the batch listener with several concurrent
+ * consumers. A blocking queue of serialized messages stands in for the broker.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:batchlistener;MODE=PostgreSQL;LOCK_TIMEOUT=30000",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.rabbitmq.listener.simple.auto-startup=false",
+        "product.listener.batch.enabled=true",
+        // Exercises the SQL path, where stock rows are updated by the listener itself
+        "product.inventory.engine.enabled=false"
+})
+class OrderCreatedBatchListenerTests {
+
+    private static final int MESSAGES = 5000;
+    private static final int CONSUMERS = 8;
+    private static final int BATCH_SIZE = 100;
+
+    @Autowired
+    private OrderCreatedBatchListener listener;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private MessageConverter messageConverter;
+
+    @Test
+    void finalStockIsExactUnderConcurrentBatches() throws Exception {
+        Product plentiful = productRepository.save(Product.builder().name("plentiful").price(1.0).stock(1_000_000).build());
+        Product hot = productRepository.save(Product.builder().name("hot").price(1.0).stock(1_000_000).build());
+        Product scarce = productRepository.save(Product.builder().name("scarce").price(1.0).stock(500).build());
+
+        LinkedBlockingQueue<Message> broker = new LinkedBlockingQueue<>();
+        Random random = new Random(42);
+        int plentifulDemand = 0;
+        int hotDemand = 0;
+        for (long orderId = 1; orderId <= MESSAGES; orderId++) {
+            int plentifulQuantity = 1 + random.nextInt(5);
+            int hotQuantity = 1 + random.nextInt(3);
+            plentifulDemand += plentifulQuantity;
+            // Duplicate lines for the hot product are merged per order
+            hotDemand += 2 * hotQuantity;
+            List<OrderItemDTO> items = List.of(
+                    new OrderItemDTO(plentiful.getId(), plentifulQuantity),
+                    new OrderItemDTO(hot.getId(), hotQuantity),
+                    new OrderItemDTO(hot.getId(), hotQuantity),
+                    new OrderItemDTO(scarce.getId(), 1));
+            OrderDTO order = new OrderDTO();
+            order.setId(orderId);
+            order.setCustomerId(1L);
+            order.setOrderItems(items);
+            broker.add(messageConverter.toMessage(order, new MessageProperties()));
+        }
+
+        ExecutorService consumers = Executors.newFixedThreadPool(CONSUMERS);
+        List<Future<?>> running = new ArrayList<>();
+        for (int i = 0; i < CONSUMERS; i++) {
+            running.add(consumers.submit(() -> {
+                List<Message> batch = new ArrayList<>();
+                while (broker.drainTo(batch, BATCH_SIZE) > 0) {
+                    listener.handleOrdersCreated(List.copyOf(batch));
+                    batch.clear();
+                }
+            }));
+        }
+        for (Future<?> consumer : running) {
+            consumer.get(2, TimeUnit.MINUTES);
+        }
+        consumers.shutdown();
+
+        assertThat(productRepository.findById(plentiful.getId()).orElseThrow().getStock())
+                .isEqualTo(1_000_000 - plentifulDemand);
+        assertThat(productRepository.findById(hot.getId()).orElseThrow().getStock())
+                .isEqualTo(1_000_000 - hotDemand);
+        // Demand (one unit per order) exceeds stock: exactly the available units are handed out
+        assertThat(productRepository.findById(scarce.getId()).orElseThrow().getStock())
+                .isZero();
+    }
+}
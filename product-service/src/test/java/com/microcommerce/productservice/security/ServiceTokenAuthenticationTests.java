@@ -0,0 +1,89 @@
+package com.microcommerce.productservice.security;
+
+import com.microcommerce.productservice.model.Product;
+import com.microcommerce.productservice.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Service tokens through the full security filter chain, next to HTTP Basic.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:serviceauth;MODE=PostgreSQL",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.rabbitmq.listener.simple.auto-startup=false"
+})
+@AutoConfigureMockMvc
+class ServiceTokenAuthenticationTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ServiceTokenCodec serviceTokenCodec;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    private Long productId;
+
+    @BeforeEach
+    void saveProduct() {
+        productId = productRepository.save(Product.builder().name("secured").price(1.0).stock(1).build()).getId();
+    }
+
+    @Test
+    void validTokenAndBasicCredentialsAreAccepted() throws Exception {
+        String token = serviceTokenCodec.issue("order-service", Instant.now(), Duration.ofMinutes(5));
+
+        expect("Bearer " + token, status().isOk());
+        // Cached after the first check; still accepted
+        expect("Bearer " + token, status().isOk());
+        expect("Basic " + Base64.getEncoder().encodeToString("admin:password".getBytes()), status().isOk());
+    }
+
+    @Test
+    void tamperedOrForeignTokenIsRejected() throws Exception {
+        String token = serviceTokenCodec.issue("order-service", Instant.now(), Duration.ofMinutes(5));
+        String foreign = new ServiceTokenCodec("another-secret-that-is-at-least-32-bytes", Duration.ofSeconds(30))
+                .issue("order-service", Instant.now(), Duration.ofMinutes(5));
+
+        expect("Bearer " + token.substring(0, token.length() - 2) + "AA", status().isUnauthorized());
+        expect("Bearer " + foreign, status().isUnauthorized());
+        expect("Bearer not-a-token", status().isUnauthorized());
+    }
+
+    @Test
+    void expiredTokenIsRejected() throws Exception {
+        String expired = serviceTokenCodec.issue("order-service", Instant.now().minus(Duration.ofHours(1)),
+                Duration.ofMinutes(5));
+
+        expect("Bearer " + expired, status().isUnauthorized());
+    }
+
+    @Test
+    void missingSecretIsRefused() {
+        assertThatThrownBy(() -> new ServiceTokenCodec("", Duration.ofSeconds(30)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("SERVICE_AUTH_TOKEN_SECRET");
+    }
+
+    private void expect(String authorization, ResultMatcher status) throws Exception {
+        mockMvc.perform(get("/api/products/{id}", productId).header(HttpHeaders.AUTHORIZATION, authorization))
+                .andExpect(status);
+    }
+}
@@ -0,0 +1,74 @@
+package com.microcommerce.productservice.service;
+
+import com.microcommerce.productservice.config.RabbitMQConfig;
+import com.microcommerce.productservice.event.ConfirmedPublisher;
+import com.rabbitmq.client.AMQP;
+import com.rabbitmq.client.Channel;
+import com.rabbitmq.client.Envelope;
+import com.rabbitmq.client.GetResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.AmqpAdmin;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.core.ChannelCallback;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Replays from a mocked DLQ channel, with the broker refusing the second republished message.
+ */
+class DeadLetterServiceTests {
+
+    private final RabbitTemplate rabbitTemplate = mock(RabbitTemplate.class);
+    private final ConfirmedPublisher confirmedPublisher = mock(ConfirmedPublisher.class);
+    private final Channel channel = mock(Channel.class);
+    private final DeadLetterService service =
+            new DeadLetterService(rabbitTemplate, mock(AmqpAdmin.class), confirmedPublisher);
+
+    @Test
+    void unconfirmedRepublishPutsTheMessageBackAndStopsTheReplay() throws Exception {
+        given(rabbitTemplate.execute(any())).willAnswer(invocation ->
+                invocation.<ChannelCallback<?>>getArgument(0).doInRabbit(channel));
+        given(channel.basicGet(RabbitMQConfig.DEAD_LETTER_QUEUE, false))
+                .willReturn(deadLetter(1, "first"), deadLetter(2, "second"), deadLetter(3, "third"));
+        doNothing().doThrow(new AmqpException("Broker refused it"))
+                .when(confirmedPublisher).send(eq(""), eq(RabbitMQConfig.QUEUE_NAME), any(Message.class));
+
+        int replayed = service.replay(10);
+
+        assertThat(replayed).isEqualTo(1);
+        verify(channel).basicAck(1, false);
+        verify(channel).basicNack(2, false, true);
+        verify(channel, never()).basicAck(eq(2L), anyBoolean());
+        // The replay stopped at the refused message
+        verify(channel, never()).basicAck(eq(3L), anyBoolean());
+        verify(channel, never()).basicNack(eq(3L), anyBoolean(), anyBoolean());
+        // A fresh retry budget
+        verify(confirmedPublisher).send(eq(""), eq(RabbitMQConfig.QUEUE_NAME), argThat(message ->
+                message.getMessageProperties().getHeader(RabbitMQConfig.RETRY_ATTEMPT_HEADER) == null
+                        && "first".equals(message.getMessageProperties().getMessageId())));
+    }
+
+    private static GetResponse deadLetter(long deliveryTag, String messageId) {
+        AMQP.BasicProperties properties = new AMQP.BasicProperties.Builder()
+                .messageId(messageId)
+                .headers(Map.of(RabbitMQConfig.RETRY_ATTEMPT_HEADER, 3))
+                .build();
+        return new GetResponse(new Envelope(deliveryTag, false, RabbitMQConfig.DEAD_LETTER_EXCHANGE,
+                RabbitMQConfig.DEAD_LETTER_QUEUE), properties, "{}".getBytes(), 0);
+    }
+}
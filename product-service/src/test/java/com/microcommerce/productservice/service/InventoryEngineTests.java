@@ -0,0 +1,183 @@
+package com.microcommerce.productservice.service;
+
+import com.microcommerce.productservice.dto.OrderDTO;
+import com.microcommerce.productservice.dto.OrderItemDTO;
+import com.microcommerce.productservice.dto.StockReservationResult;
+import com.microcommerce.productservice.event.ProductEventPublisher;
+import com.microcommerce.productservice.model.Product;
+import com.microcommerce.productservice.repository.ProductRepository;
+import com.microcommerce.productservice.repository.StockJournalRepository;
+import com.microcommerce.productservice.repository.StockReservationRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Reservations for a few hot products from many threads at once, the flush to product rows, and
+ * recovery of the counters by a fresh engine. Flushes are triggered by the tests.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:inventoryengine;MODE=PostgreSQL;LOCK_TIMEOUT=30000",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.rabbitmq.listener.simple.auto-startup=false",
+        "product.inventory.engine.enabled=true",
+        "product.inventory.flush.interval-ms=3600000",
+        "product.inventory.expiry.interval-ms=3600000",
+        "product.inventory.cleanup.interval-ms=3600000"
+})
+class InventoryEngineTests {
+
+    private static final int THREADS = 16;
+    private static final int ATTEMPTS_PER_THREAD = 250;
+
+    @Autowired
+    private InventoryEngine inventoryEngine;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private StockJournalRepository stockJournalRepository;
+
+    @Autowired
+    private StockReservationRepository stockReservationRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ProductEventPublisher productEventPublisher;
+
+    @Test
+    void hotProductAdmitsExactlyItsStockWithoutTouchingTheRow() throws Exception {
+        Product hot = productRepository.save(Product.builder().name("hot").price(1.0).stock(1000).build());
+        Product warm = productRepository.save(Product.builder().name("warm").price(1.0).stock(1_000_000).build());
+        long version = hot.getVersion();
+
+        // 4000 attempts for 1000 units: each wants one of each product, all or nothing
+        AtomicInteger admitted = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> running = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            running.add(pool.submit(() -> {
+                for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+                    List<OrderItemDTO> unsatisfied = inventoryEngine.reserve("hot-" + thread + "-" + i,
+                            Map.of(hot.getId(), 1, warm.getId(), 1));
+                    if (unsatisfied.isEmpty()) {
+                        admitted.incrementAndGet();
+                    }
+                }
+            }));
+        }
+        for (Future<?> future : running) {
+            future.get();
+        }
+        pool.shutdown();
+
+        assertThat(admitted.get()).isEqualTo(1000);
+        assertThat(inventoryEngine.availableStock(hot.getId())).contains(0);
+        assertThat(inventoryEngine.availableStock(warm.getId())).contains(1_000_000 - 1000);
+        // Admission never updated the product row
+        Product unchanged = productRepository.findById(hot.getId()).orElseThrow();
+        assertThat(unchanged.getStock()).isEqualTo(1000);
+        assertThat(unchanged.getVersion()).isEqualTo(version);
+
+        inventoryEngine.flush();
+
+        Product flushed = productRepository.findById(hot.getId()).orElseThrow();
+        assertThat(flushed.getStock()).isZero();
+        // One update per product and flushed batch, not one per reservation
+        assertThat(flushed.getVersion() - version).isBetween(1L, 2L);
+        assertThat(productRepository.findById(warm.getId()).orElseThrow().getStock()).isEqualTo(1_000_000 - 1000);
+        assertThat(productRepository.findAvailableStock(hot.getId())).contains(0L);
+    }
+
+    @Test
+    void retriedReservationHoldsStockOnceAndReleaseGivesItBack() {
+        Product product = productRepository.save(Product.builder().name("retried").price(1.0).stock(10).build());
+        Map<Long, Integer> lines = Map.of(product.getId(), 4);
+
+        assertThat(inventoryEngine.reserve("retry-1", lines)).isEmpty();
+        assertThat(inventoryEngine.reserve("retry-1", lines)).isEmpty();
+        assertThat(inventoryEngine.availableStock(product.getId())).contains(6);
+
+        assertThat(inventoryEngine.release("retry-1")).isTrue();
+        assertThat(inventoryEngine.release("retry-1")).isFalse();
+        assertThat(inventoryEngine.availableStock(product.getId())).contains(10);
+        // A released reservation cannot be revived by a late retry
+        assertThat(inventoryEngine.reserve("retry-1", lines)).hasSize(1);
+
+        assertThat(inventoryEngine.reserve("retry-2", Map.of(product.getId(), 11))).hasSize(1);
+        assertThat(inventoryEngine.availableStock(product.getId())).contains(10);
+
+        inventoryEngine.flush();
+        assertThat(productRepository.findById(product.getId()).orElseThrow().getStock()).isEqualTo(10);
+    }
+
+    @Test
+    void orderEventConfirmsItsReservationOrTakesTheStockAgain() {
+        Product product = productRepository.save(Product.builder().name("confirmed").price(1.0).stock(10).build());
+        assertThat(inventoryEngine.reserve("confirm-1", Map.of(product.getId(), 3))).isEmpty();
+        assertThat(inventoryEngine.reserve("confirm-2", Map.of(product.getId(), 2))).isEmpty();
+        inventoryEngine.release("confirm-2");
+
+        StockReservationResult held = productService.reserveStock(order(9001L, "confirm-1", product.getId(), 3));
+        // Released before its order arrived: the stock is taken again
+        StockReservationResult retaken = productService.reserveStock(order(9002L, "confirm-2", product.getId(), 2));
+        StockReservationResult unreserved = productService.reserveStock(order(9003L, null, product.getId(), 6));
+
+        assertThat(held.isFullySatisfied()).isTrue();
+        assertThat(retaken.isFullySatisfied()).isTrue();
+        assertThat(unreserved.getUnsatisfiedItems()).hasSize(1);
+        assertThat(inventoryEngine.availableStock(product.getId())).contains(5);
+
+        inventoryEngine.flush();
+        assertThat(productRepository.findById(product.getId()).orElseThrow().getStock()).isEqualTo(5);
+    }
+
+    @Test
+    void freshEngineRebuildsCountersFromStockAndUnflushedJournal() {
+        Product product = productRepository.save(Product.builder().name("recovered").price(1.0).stock(100).build());
+        assertThat(inventoryEngine.reserve("recover-1", Map.of(product.getId(), 30))).isEmpty();
+        inventoryEngine.flush();
+        assertThat(inventoryEngine.reserve("recover-2", Map.of(product.getId(), 20))).isEmpty();
+        assertThat(inventoryEngine.reserve("recover-3", Map.of(product.getId(), 5))).isEmpty();
+        inventoryEngine.release("recover-3");
+
+        // As after a crash: counters lost, the last changes only in the journal
+        InventoryEngine restarted = new InventoryEngine(productRepository, stockJournalRepository,
+                stockReservationRepository, transactionTemplate, productEventPublisher,
+                Duration.ofMinutes(10), 1000, Duration.ofDays(7));
+
+        assertThat(productRepository.findById(product.getId()).orElseThrow().getStock()).isEqualTo(70);
+        assertThat(restarted.availableStock(product.getId())).contains(50);
+        assertThat(restarted.reserve("recover-4", Map.of(product.getId(), 51))).hasSize(1);
+        assertThat(restarted.reserve("recover-4", Map.of(product.getId(), 50))).isEmpty();
+        assertThat(restarted.availableStock(product.getId())).contains(0);
+    }
+
+    private static OrderDTO order(Long id, String reservationId, Long productId, int quantity) {
+        OrderDTO order = new OrderDTO();
+        order.setId(id);
+        order.setCustomerId(1L);
+        order.setOrderItems(List.of(new OrderItemDTO(productId, quantity)));
+        order.setReservationId(reservationId);
+        return order;
+    }
+}
@@ -0,0 +1,79 @@
+package com.microcommerce.productservice.service;
+
+import com.microcommerce.productservice.dto.OrderDTO;
+import com.microcommerce.productservice.dto.OrderItemDTO;
+import com.microcommerce.productservice.dto.StockReservationResult;
+import com.microcommerce.productservice.model.Product;
+import com.microcommerce.productservice.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Redelivered order.created events on the SQL stock path, within a batch, after a commit and
+ * after a rollback.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:processedorders;MODE=PostgreSQL;LOCK_TIMEOUT=30000",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.rabbitmq.listener.simple.auto-startup=false"
+})
+class ProcessedOrderLedgerTests {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProcessedOrderLedger processedOrderLedger;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void redeliveryInTheSameBatchOrLaterTakesStockOnce() {
+        Product product = productRepository.save(Product.builder().name("redelivered").price(1.0).stock(10).build());
+
+        List<StockReservationResult> batch = productService.reserveStock(
+                List.of(order(8001L, product.getId(), 3), order(8001L, product.getId(), 3)));
+        StockReservationResult later = productService.reserveStock(order(8001L, product.getId(), 3));
+
+        assertThat(batch.get(0).getReservedItems()).hasSize(1);
+        assertThat(batch.get(1).isAlreadyProcessed()).isTrue();
+        assertThat(later.isAlreadyProcessed()).isTrue();
+        assertThat(processedOrderLedger.isKnownProcessed(8001L)).isTrue();
+        assertThat(productRepository.findById(product.getId()).orElseThrow().getStock()).isEqualTo(7);
+    }
+
+    @Test
+    void rolledBackOrderIsNotRememberedAsProcessed() {
+        Product product = productRepository.save(Product.builder().name("rolled back").price(1.0).stock(10).build());
+
+        transactionTemplate.executeWithoutResult(status -> {
+            assertThat(processedOrderLedger.markProcessed(8002L)).isTrue();
+            // Already in the ledger, but only because of this transaction
+            assertThat(processedOrderLedger.markProcessed(8002L)).isFalse();
+            status.setRollbackOnly();
+        });
+
+        assertThat(processedOrderLedger.isKnownProcessed(8002L)).isFalse();
+        StockReservationResult redelivered = productService.reserveStock(order(8002L, product.getId(), 4));
+        assertThat(redelivered.isAlreadyProcessed()).isFalse();
+        assertThat(productRepository.findById(product.getId()).orElseThrow().getStock()).isEqualTo(6);
+    }
+
+    private static OrderDTO order(Long id, Long productId, int quantity) {
+        OrderDTO order = new OrderDTO();
+        order.setId(id);
+        order.setCustomerId(1L);
+        order.setOrderItems(List.of(new OrderItemDTO(productId, quantity)));
+        return order;
+    }
+}
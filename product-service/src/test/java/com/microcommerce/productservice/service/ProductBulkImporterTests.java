@@ -0,0 +1,129 @@
+package com.microcommerce.productservice.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microcommerce.productservice.dto.BulkResult;
+import com.microcommerce.productservice.event.ProductEventPublisher;
+import com.microcommerce.productservice.model.Product;
+import com.microcommerce.productservice.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Imports small bodies three records per chunk, so chunk boundaries and the one-by-one retry of a
+ * failed chunk are exercised.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:productimport;MODE=PostgreSQL;LOCK_TIMEOUT=30000",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.rabbitmq.listener.simple.auto-startup=false"
+})
+class ProductBulkImporterTests {
+
+    // Longer than the name column, so the insert fails in the database rather than in validation
+    private static final String TOO_LONG = "x".repeat(300);
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductEventPublisher productEventPublisher;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void jsonArrayIsInsertedInChunksAndInvalidRecordsAreRejected() throws IOException {
+        String body = "[" + String.join(",",
+                product("array-0"),
+                product("array-1"),
+                "{\"name\":\"array-2\",\"price\":-1,\"stock\":1}",
+                product("array-3"),
+                "{\"name\":\"array-4\",\"price\":\"cheap\",\"stock\":1}",
+                product("array-5"),
+                product("array-6")) + "]";
+
+        List<BulkResult> results = importBody(body);
+
+        assertThat(results).extracting(BulkResult::getIndex).containsExactly(0L, 1L, 2L, 3L, 4L, 5L, 6L);
+        assertThat(results).extracting(BulkResult::getStatus).containsExactly(
+                BulkResult.Status.CREATED, BulkResult.Status.CREATED, BulkResult.Status.REJECTED,
+                BulkResult.Status.CREATED, BulkResult.Status.REJECTED, BulkResult.Status.CREATED,
+                BulkResult.Status.CREATED);
+        assertThat(results.get(2).getError()).isEqualTo("price must be zero or positive");
+        assertThat(namesStartingWith("array-")).containsExactlyInAnyOrder("array-0", "array-1", "array-3", "array-5", "array-6");
+        for (BulkResult result : results) {
+            if (result.getStatus() == BulkResult.Status.CREATED) {
+                assertThat(productRepository.findById(result.getId())).isPresent();
+            }
+        }
+    }
+
+    @Test
+    void failedChunkIsRetriedRecordByRecord() throws IOException {
+        // The second chunk (records 3 to 5) fails as a whole because of record 4
+        String body = String.join("\n",
+                product("ndjson-0"),
+                product("ndjson-1"),
+                product("ndjson-2"),
+                product("ndjson-3"),
+                product(TOO_LONG),
+                product("ndjson-5"),
+                product("ndjson-6")) + "\n";
+
+        List<BulkResult> results = importBody(body);
+
+        assertThat(results).extracting(BulkResult::getStatus).containsExactly(
+                BulkResult.Status.CREATED, BulkResult.Status.CREATED, BulkResult.Status.CREATED,
+                BulkResult.Status.CREATED, BulkResult.Status.FAILED, BulkResult.Status.CREATED,
+                BulkResult.Status.CREATED);
+        // Records of the failed chunk go in once each, under fresh ids
+        assertThat(namesStartingWith("ndjson-")).containsExactlyInAnyOrder(
+                "ndjson-0", "ndjson-1", "ndjson-2", "ndjson-3", "ndjson-5", "ndjson-6");
+        assertThat(productRepository.findById(results.get(3).getId()).orElseThrow().getName()).isEqualTo("ndjson-3");
+        assertThat(productRepository.findById(results.get(5).getId()).orElseThrow().getName()).isEqualTo("ndjson-5");
+    }
+
+    @Test
+    void malformedJsonStopsTheImportAfterCommittingWhatCameBefore() throws IOException {
+        String body = product("malformed-0") + "\n" + product("malformed-1") + "\n{\"name\": \n";
+
+        List<BulkResult> results = importBody(body);
+
+        assertThat(results).extracting(BulkResult::getStatus).containsExactly(
+                BulkResult.Status.CREATED, BulkResult.Status.CREATED, BulkResult.Status.REJECTED);
+        assertThat(results.get(2).getError()).startsWith("Malformed JSON");
+        assertThat(namesStartingWith("malformed-")).containsExactlyInAnyOrder("malformed-0", "malformed-1");
+    }
+
+    private List<BulkResult> importBody(String body) throws IOException {
+        ProductBulkImporter importer = new ProductBulkImporter(productRepository, productEventPublisher,
+                transactionTemplate, objectMapper, 3);
+        List<BulkResult> results = new ArrayList<>();
+        importer.importProducts(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), results::add);
+        return results;
+    }
+
+    private List<String> namesStartingWith(String prefix) {
+        return productRepository.findAll().stream()
+                .map(Product::getName)
+                .filter(name -> name.startsWith(prefix))
+                .toList();
+    }
+
+    private static String product(String name) {
+        return "{\"name\":\"" + name + "\",\"price\":2.5,\"stock\":4}";
+    }
+}